@@ -0,0 +1,66 @@
+package com.university.bookstore.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试入口
+ *
+ * 不带参数运行时：CacheManager 基准依次以 1/2/4/8/16/32 个线程运行，其余基准单线程运行，
+ * 结果以JSON写入 target/jmh/ 目录，便于与基线对比（如用 jmh.morethan.io 可视化）。
+ * 带参数时按 JMH 命令行执行（如 -t 8 CacheManagerBenchmark.get），未指定 -rf 时同样输出JSON。
+ */
+public class BenchmarkMain {
+
+    private static final int[] CACHE_THREADS = {1, 2, 4, 8, 16, 32};
+    private static final String CACHE_BENCHMARKS = "CacheManagerBenchmark";
+    private static final String OUTPUT_DIR = "target/jmh";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(withJsonOutput(args));
+            return;
+        }
+
+        new File(OUTPUT_DIR).mkdirs();
+        for (int threads : CACHE_THREADS) {
+            run(new OptionsBuilder()
+                    .include(CACHE_BENCHMARKS)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(OUTPUT_DIR + "/cache-threads-" + threads + ".json")
+                    .build());
+        }
+        run(new OptionsBuilder()
+                .include("com.university.bookstore")
+                .exclude(CACHE_BENCHMARKS)
+                .resultFormat(ResultFormatType.JSON)
+                .result(OUTPUT_DIR + "/hot-paths.json")
+                .build());
+    }
+
+    private static void run(Options options) throws RunnerException {
+        new Runner(options).run();
+    }
+
+    private static String[] withJsonOutput(String[] args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add(0, "json");
+            arguments.add(0, "-rf");
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.add(0, "jmh-result.json");
+            arguments.add(0, "-rff");
+        }
+        return arguments.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.model.Book;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookDAOImpl.mapResultSetToBook 行映射基准
+ * 使用 H2 的内存 ResultSet，排除网络和驱动解包的开销，只测映射本身（按列名取值、创建 Book）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRowMappingBenchmark {
+
+    @Param({"20", "1000"})
+    public int rows;
+
+    private SimpleResultSet resultSet;
+    private BookDAOImpl bookDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookDAO = new BookDAOImpl();
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("id", Types.INTEGER, 10, 0);
+        resultSet.addColumn("isbn", Types.VARCHAR, 20, 0);
+        resultSet.addColumn("title", Types.VARCHAR, 200, 0);
+        resultSet.addColumn("author", Types.VARCHAR, 100, 0);
+        resultSet.addColumn("publisher", Types.VARCHAR, 100, 0);
+        resultSet.addColumn("price", Types.DECIMAL, 10, 2);
+        resultSet.addColumn("stock", Types.INTEGER, 10, 0);
+        resultSet.addColumn("description", Types.VARCHAR, 1000, 0);
+        for (int i = 1; i <= rows; i++) {
+            resultSet.addRow(i, "978-7-" + (100000 + i), "数据结构与算法分析（第" + i + "版）", "作者" + i,
+                    "高等教育出版社", new BigDecimal("59.80"), 100 + i, "教材简介 " + i);
+        }
+    }
+
+    @Benchmark
+    public void mapAllRows(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            Book book = bookDAO.mapResultSetToBook(resultSet);
+            blackhole.consume(book);
+        }
+    }
+}
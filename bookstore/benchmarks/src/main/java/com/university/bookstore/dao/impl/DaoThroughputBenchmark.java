@@ -0,0 +1,91 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.Order;
+import com.university.bookstore.util.DBUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DAO层吞吐量基准
+ * 运行在嵌入式H2（bookstore.db.profile=h2）上，包含真实的SQL解析、连接池和行映射，
+ * 不需要MySQL；数值只用于同一环境下前后对比，不代表MySQL上的绝对性能。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dbookstore.db.profile=h2")
+public class DaoThroughputBenchmark {
+
+    // h2-schema.sql 中的初始数据：31本教材，id=8 为第一个学生
+    private static final int BOOK_COUNT = 31;
+    private static final int STUDENT_ID = 8;
+    private static final int PAGE_SIZE = 20;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    private BookDAO bookDAO;
+    private OrderDAO orderDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!DBUtil.isEmbedded()) {
+            throw new IllegalStateException("DAO基准需要 -Dbookstore.db.profile=h2");
+        }
+        bookDAO = new BookDAOImpl();
+        orderDAO = new OrderDAOImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBUtil.closeDataSource();
+    }
+
+    @Benchmark
+    public Book findBookById() {
+        return bookDAO.findById(ThreadLocalRandom.current().nextInt(1, BOOK_COUNT + 1));
+    }
+
+    @Benchmark
+    public List<Book> findBookPage() {
+        return bookDAO.findWithPagination(ThreadLocalRandom.current().nextInt(BOOK_COUNT - PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> searchBooks() {
+        return bookDAO.searchBooks("数学");
+    }
+
+    @Benchmark
+    public List<Order> findOrderPage() {
+        return orderDAO.findWithPagination(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean insertOrder() {
+        Order order = new Order("BENCH" + orderSequence.incrementAndGet(), STUDENT_ID, new BigDecimal("59.80"));
+        order.setCreateTime(new Timestamp(System.currentTimeMillis()));
+        return orderDAO.insert(order);
+    }
+}
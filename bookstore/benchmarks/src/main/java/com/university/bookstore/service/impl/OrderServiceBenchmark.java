@@ -0,0 +1,101 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.CartItem;
+import com.university.bookstore.util.OrderNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderServiceImpl 中不依赖数据库的热点：购物车总价计算和订单号生成
+ * 数据访问层用动态代理替换；订单号生成器使用固定节点号，不租用节点号，
+ * generateOrderNumber 测的是一次CAS取序号加拼接订单号的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private OrderServiceImpl orderService;
+
+    /**
+     * 购物车数据，按商品种类数参数化
+     */
+    @State(Scope.Benchmark)
+    public static class Cart {
+
+        @Param({"1", "10", "50"})
+        public int cartSize;
+
+        List<CartItem> items;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            items = new ArrayList<>();
+            for (int i = 1; i <= cartSize; i++) {
+                Book book = new Book();
+                book.setId(i);
+                book.setTitle("教材" + i);
+                book.setPrice(new BigDecimal("39.90").add(BigDecimal.valueOf(i)));
+                book.setStock(100);
+                items.add(new CartItem(book, 1 + i % 3));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderService = new OrderServiceImpl(stub(OrderDAO.class), stub(BookDAO.class), new OrderNumberGenerator(0));
+    }
+
+    @Benchmark
+    public BigDecimal calculateCartTotal(Cart cart) {
+        return orderService.calculateCartTotal(cart.items);
+    }
+
+    @Benchmark
+    public String generateOrderNumber() {
+        return orderService.generateOrderNumber();
+    }
+
+    /**
+     * 所有方法返回默认值的数据访问层替身
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.university.bookstore.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheManager 读写基准
+ *
+ * 线程数由 BenchmarkMain 以 1/2/4/8/16/32 分别运行，也可用 -t 指定。
+ * 预先写入 keyCount 个分页缓存项，get 随机读取其中一个（命中），
+ * put 随机覆盖其中一个，clearByPattern 扫描整个缓存但只匹配一个不存在的前缀。
+ *
+ * 每个缓存项是10个元素的列表，权重11，10000个键约需11万权重，超过默认上限50000。
+ * 因此分叉的JVM把 bookstore.cache.maximumWeight 调到 200000，全部键常驻，
+ * 测的是命中和原地覆盖，不是淘汰；setUp 会检查每个键都还在缓存中。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dbookstore.cache.maximumWeight=" + CacheManagerBenchmark.MAXIMUM_WEIGHT)
+public class CacheManagerBenchmark {
+
+    // 大于最大 keyCount 乘以每项权重（10000 * 11）
+    static final long MAXIMUM_WEIGHT = 200000;
+
+    @Param({"1000", "10000"})
+    public int keyCount;
+
+    private String[] keys;
+    private List<Integer> value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheManager.clear();
+        value = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            value.add(i);
+        }
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = CacheManager.generateKey("books_page", i, 20);
+            CacheManager.put(keys[i], value, TimeUnit.HOURS.toMillis(1));
+        }
+        for (String key : keys) {
+            if (CacheManager.get(key) == null) {
+                throw new IllegalStateException("预置缓存项已被淘汰: " + key + "，请调大 MAXIMUM_WEIGHT");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CacheManager.clear();
+    }
+
+    @Benchmark
+    public Object get() {
+        return CacheManager.get(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public void put() {
+        CacheManager.put(keys[ThreadLocalRandom.current().nextInt(keyCount)], value, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Benchmark
+    public String generateKey() {
+        int page = ThreadLocalRandom.current().nextInt(1000);
+        return CacheManager.generateKey("books_search", "java", page, 20);
+    }
+
+    @Benchmark
+    public void clearByPattern() {
+        CacheManager.clearByPattern("no_such_region:");
+    }
+}
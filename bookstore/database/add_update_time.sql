@@ -0,0 +1,16 @@
+-- 为增量变更轮询添加 update_time 字段和索引
+-- 适用于已按旧版 init.sql 建好的数据库，新建数据库无需执行
+USE bookstore;
+
+-- 教材表增加更新时间（订单表已有 update_time）
+ALTER TABLE t_book ADD COLUMN update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间';
+
+-- 增量轮询按 (update_time, id) 顺序扫描，InnoDB 二级索引自带主键，单列索引即可覆盖排序
+CREATE INDEX idx_book_update_time ON t_book(update_time);
+CREATE INDEX idx_order_update_time ON t_order(update_time);
+
+-- 学生端只轮询自己的订单
+CREATE INDEX idx_order_user_update_time ON t_order(user_id, update_time);
+
+-- 显示结果
+SELECT 'update_time columns and indexes added successfully!' AS status;
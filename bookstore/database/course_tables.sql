@@ -0,0 +1,34 @@
+-- 创建院系、课程和课程教材表
+-- init.sql 中这三张表为扩展功能预留、未创建；按课程查询教材和 DataGenerator 生成测试数据前执行
+USE bookstore;
+
+-- 院系表 (t_department)
+CREATE TABLE IF NOT EXISTS t_department (
+    id INT AUTO_INCREMENT PRIMARY KEY COMMENT '院系ID',
+    name VARCHAR(100) NOT NULL COMMENT '院系名称'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='院系表';
+
+-- 课程表 (t_course)
+CREATE TABLE IF NOT EXISTS t_course (
+    id INT AUTO_INCREMENT PRIMARY KEY COMMENT '课程ID',
+    course_code VARCHAR(20) NOT NULL UNIQUE COMMENT '课程代码',
+    course_name VARCHAR(100) NOT NULL COMMENT '课程名称',
+    department_id INT COMMENT '院系ID',
+    teacher_id INT COMMENT '任课教师ID',
+    INDEX idx_course_department (department_id),
+    FOREIGN KEY (department_id) REFERENCES t_department(id),
+    FOREIGN KEY (teacher_id) REFERENCES t_user(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='课程表';
+
+-- 课程教材表 (t_course_book)
+CREATE TABLE IF NOT EXISTS t_course_book (
+    course_id INT NOT NULL COMMENT '课程ID',
+    book_id INT NOT NULL COMMENT '教材ID',
+    PRIMARY KEY (course_id, book_id),
+    INDEX idx_course_book_book (book_id),
+    FOREIGN KEY (course_id) REFERENCES t_course(id),
+    FOREIGN KEY (book_id) REFERENCES t_book(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='课程教材表';
+
+-- 显示结果
+SELECT 'course tables created successfully!' AS status;
@@ -28,7 +28,9 @@ CREATE TABLE t_book (
     price DECIMAL(10,2) NOT NULL COMMENT '价格',
     stock INT DEFAULT 0 COMMENT '库存数量',
     description TEXT COMMENT '图书描述',
-    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间'
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    INDEX idx_book_update_time (update_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='图书表';
 
 
@@ -42,6 +44,11 @@ CREATE TABLE t_order (
     status ENUM('PENDING', 'PAID', 'CONFIRMED', 'SHIPPED', 'COMPLETED', 'CANCELLED') DEFAULT 'PENDING' COMMENT '订单状态',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    INDEX idx_order_update_time (update_time),
+    INDEX idx_order_user_update_time (user_id, update_time),
+    INDEX idx_order_create_time (create_time),
+    INDEX idx_order_status_time (status, create_time),
+    INDEX idx_order_user_create_time (user_id, create_time),
     FOREIGN KEY (user_id) REFERENCES t_user(id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='订单表';
 
@@ -68,6 +75,13 @@ CREATE TABLE t_cart (
     UNIQUE KEY unique_user_book (user_id, book_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='购物车表';
 
+-- 9. 节点号租约表 (t_node_lease)，每个运行中的客户端租用一个节点号生成订单号
+CREATE TABLE t_node_lease (
+    node_id INT PRIMARY KEY COMMENT '节点号',
+    holder VARCHAR(100) NOT NULL COMMENT '持有者（进程号@主机名）',
+    expire_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '租约到期时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='节点号租约表';
+
 -- 插入初始数据
 
 -- 插入管理员用户
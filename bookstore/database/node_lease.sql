@@ -0,0 +1,12 @@
+-- 创建节点号租约表
+-- 订单号中的节点号由各客户端启动后从此表租用，适用于已按旧版 init.sql 建好的数据库，新建数据库无需执行
+USE bookstore;
+
+CREATE TABLE IF NOT EXISTS t_node_lease (
+    node_id INT PRIMARY KEY COMMENT '节点号',
+    holder VARCHAR(100) NOT NULL COMMENT '持有者（进程号@主机名）',
+    expire_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '租约到期时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='节点号租约表';
+
+-- 显示结果
+SELECT 'node lease table created successfully!' AS status;
@@ -20,6 +20,9 @@ CREATE INDEX idx_book_price ON t_book(price);
 -- 库存索引（用于库存查询）
 CREATE INDEX idx_book_stock ON t_book(stock);
 
+-- 更新时间索引（用于增量变更轮询）
+CREATE INDEX idx_book_update_time ON t_book(update_time);
+
 -- 2. 为订单表添加索引
 -- 用户ID索引
 CREATE INDEX idx_order_user_id ON t_order(user_id);
@@ -39,6 +42,15 @@ CREATE INDEX idx_order_user_status ON t_order(user_id, status);
 -- 复合索引：状态 + 创建时间（用于管理员按状态和时间查询）
 CREATE INDEX idx_order_status_time ON t_order(status, create_time);
 
+-- 更新时间索引（用于增量变更轮询）
+CREATE INDEX idx_order_update_time ON t_order(update_time);
+
+-- 复合索引：用户ID + 更新时间（用于学生端只轮询自己的订单变更）
+CREATE INDEX idx_order_user_update_time ON t_order(user_id, update_time);
+
+-- 复合索引：用户ID + 创建时间（用于学生端按创建时间键集分页）
+CREATE INDEX idx_order_user_create_time ON t_order(user_id, create_time);
+
 -- 3. 为订单详情表添加索引
 -- 订单ID索引
 CREATE INDEX idx_order_item_order_id ON t_order_item(order_id);
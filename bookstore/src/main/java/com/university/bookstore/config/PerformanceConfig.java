@@ -1,5 +1,8 @@
 package com.university.bookstore.config;
 
+import com.university.bookstore.metrics.MetricsRegistry;
+import com.university.bookstore.metrics.PrometheusExporter;
+import com.university.bookstore.service.impl.BookCatalog;
 import com.university.bookstore.util.CacheManager;
 import com.university.bookstore.util.DBUtil;
 import com.university.bookstore.util.PerformanceMonitor;
@@ -66,7 +69,12 @@ public class PerformanceConfig {
         System.out.println("初始化缓存系统...");
         
         // 缓存系统已经在CacheManager中自动初始化
-        // 这里可以预加载一些常用数据
+        // 预加载图书目录，之后按ID/ISBN查询图书直接读内存
+        try {
+            BookCatalog.getInstance().load();
+        } catch (Exception e) {
+            System.err.println("图书目录加载失败: " + e.getMessage());
+        }
         
         System.out.println("缓存系统初始化完成");
     }
@@ -108,7 +116,7 @@ public class PerformanceConfig {
             @Override
             public void run() {
                 // 每5分钟打印一次性能统计
-                if (PerformanceMonitor.getExecutionCount("loadBooksWithPagination") > 0) {
+                if (!PerformanceMonitor.getSnapshots().isEmpty()) {
                     System.out.println("\n=== 性能监控报告 ===");
                     PerformanceMonitor.printStatistics();
                     
@@ -128,6 +136,12 @@ public class PerformanceConfig {
             }
         }, 300000, 300000); // 5分钟间隔
         
+        // 注册JMX指标，供 JConsole/VisualVM 查看
+        MetricsRegistry.register();
+        
+        // 配置了 bookstore.metrics.port 时启动 Prometheus 指标导出
+        PrometheusExporter.startIfConfigured();
+        
         System.out.println("性能监控已启动");
     }
     
@@ -144,6 +158,13 @@ public class PerformanceConfig {
         // 打印最终的性能统计
         PerformanceMonitor.printStatistics();
         
+        // 停止指标导出并注销JMX指标
+        PrometheusExporter.stop();
+        MetricsRegistry.unregister();
+        
+        // 停止图书目录同步
+        BookCatalog.getInstance().shutdown();
+        
         // 关闭缓存管理器
         CacheManager.shutdown();
         
@@ -2,7 +2,12 @@ package com.university.bookstore.dao;
 
 import com.university.bookstore.model.Book;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 教材数据访问对象接口
@@ -23,6 +28,13 @@ public interface BookDAO {
      */
     Book findByIsbn(String isbn);
     
+    /**
+     * 根据ID集合批量查找教材（一次 WHERE id IN 查询）
+     * @param ids 教材ID集合
+     * @return 教材列表，不存在的ID不会出现在结果中
+     */
+    List<Book> findByIds(Collection<Integer> ids);
+    
     /**
      * 查找所有教材
      * @return 教材列表
@@ -138,6 +150,51 @@ public interface BookDAO {
      */
     boolean reduceStock(Integer id, Integer quantity);
     
+    /**
+     * 增加教材库存（stock = stock + ? 的相对更新，不需要先读出库存）
+     * @param id 教材ID
+     * @param quantity 增加的数量
+     * @return 更新成功返回true，教材不存在返回false
+     */
+    boolean increaseStock(Integer id, Integer quantity);
+    
+    /**
+     * 在调用方的事务连接上减少教材库存（库存不足时不更新）
+     * @param conn 事务连接（不会被关闭）
+     * @param id 教材ID
+     * @param quantity 减少的数量
+     * @return 更新成功返回true，库存不足或教材不存在返回false
+     * @throws SQLException SQL异常，由调用方决定是否回滚
+     */
+    boolean reduceStock(Connection conn, Integer id, Integer quantity) throws SQLException;
+    
+    /**
+     * 批量减少教材库存，全部成功才提交，任一教材库存不足则整体回滚
+     * @param quantities 教材ID到扣减数量的映射
+     * @return 扣减失败（库存不足或教材不存在）的教材ID列表，全部成功时为空列表
+     */
+    List<Integer> reduceStockBatch(Map<Integer, Integer> quantities);
+    
+    /**
+     * 在调用方的事务连接上批量减少教材库存
+     * 每行都是带 stock >= ? 条件的UPDATE，一次批量发送；是否回滚由调用方根据返回值决定
+     * @param conn 事务连接（不会被关闭）
+     * @param quantities 教材ID到扣减数量的映射
+     * @return 扣减失败（库存不足或教材不存在）的教材ID列表，全部成功时为空列表
+     * @throws SQLException SQL异常
+     */
+    List<Integer> reduceStockBatch(Connection conn, Map<Integer, Integer> quantities) throws SQLException;
+    
+    /**
+     * 在调用方的事务连接上批量增加教材库存（如取消订单退回库存）
+     * 每行是 stock = stock + ? 的相对更新，一次批量发送，不需要先读出库存
+     * @param conn 事务连接（不会被关闭）
+     * @param quantities 教材ID到增加数量的映射
+     * @return 不存在的教材ID列表，全部成功时为空列表
+     * @throws SQLException SQL异常
+     */
+    List<Integer> addStockBatch(Connection conn, Map<Integer, Integer> quantities) throws SQLException;
+    
     /**
      * 检查ISBN是否已存在
      * @param isbn ISBN号
@@ -151,4 +208,82 @@ public interface BookDAO {
      * @return 教材列表
      */
     List<Book> findLowStockBooks(int threshold);
-}
\ No newline at end of file
+    
+    /**
+     * 增量查询在 (since, afterId) 之后发生变更的教材，按 (update_time, id) 升序
+     * @param since 起始更新时间（变更游标会从水位往前重叠一段）
+     * @param afterId 起始更新时间上要跳过的最大教材ID
+     * @param limit 最多返回条数
+     * @return 变更的教材列表（包含 updateTime）
+     */
+    List<Book> findUpdatedSince(Timestamp since, Integer afterId, int limit);
+    
+    /**
+     * 获取教材表最新的更新时间
+     * @return 最新更新时间，表为空时返回null
+     */
+    Timestamp getLatestUpdateTime();
+    
+    /**
+     * 键集分页：查询ID大于 afterId 的下一页教材，按ID升序
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param afterId 上一页最后一条记录的ID，为null时从头开始
+     * @param limit 每页条数
+     * @return 教材列表
+     */
+    List<Book> findPageAfter(String keyword, Integer afterId, int limit);
+    
+    /**
+     * 键集分页：查询ID小于 beforeId 的上一页教材，结果仍按ID升序返回
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param beforeId 当前页第一条记录的ID
+     * @param limit 每页条数
+     * @return 教材列表
+     */
+    List<Book> findPageBefore(String keyword, Integer beforeId, int limit);
+    
+    /**
+     * 偏移量分页（跳页时使用），按ID升序
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param offset 偏移量
+     * @param limit 每页条数
+     * @return 教材列表
+     */
+    List<Book> findPageByOffset(String keyword, int offset, int limit);
+    
+    /**
+     * 统计匹配关键词的教材数量
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时统计全部
+     * @return 教材数量
+     */
+    int getTotalCountByKeyword(String keyword);
+    
+    /**
+     * 统计匹配关键词且ID小于指定值的教材数量，用于定位教材所在页
+     * @param keyword 搜索关键词，为空时不过滤
+     * @param id 教材ID
+     * @return 排在该教材之前的教材数量
+     */
+    int countBefore(String keyword, Integer id);
+    
+    /**
+     * 基于令牌的键集分页：取令牌位置之后的一页教材，按ID升序
+     * 不使用 OFFSET，翻到多深的页都只扫描一页的行；在 findPageAfter 之上封装令牌
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时查询全部教材
+     * @param token 上一次返回的 nextToken，为null时从第一页开始
+     * @param limit 每页条数
+     * @return 分页结果
+     * @throws IllegalArgumentException 令牌无效
+     */
+    KeysetPage<Book> findAfter(String keyword, String token, int limit);
+    
+    /**
+     * 基于令牌的键集分页：取令牌位置之前的一页教材，结果仍按ID升序
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时查询全部教材
+     * @param token 上一次返回的 prevToken
+     * @param limit 每页条数
+     * @return 分页结果
+     * @throws IllegalArgumentException 令牌无效
+     */
+    KeysetPage<Book> findBefore(String keyword, String token, int limit);
+}
@@ -0,0 +1,54 @@
+package com.university.bookstore.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 键集分页结果
+ * 令牌是不透明字符串：把 nextToken 传给 findAfter 取下一页，把 prevToken 传给 findBefore 取上一页
+ */
+public class KeysetPage<T> {
+    
+    private final List<T> items;
+    private final String nextToken;
+    private final String prevToken;
+    
+    public KeysetPage(List<T> items, String nextToken, String prevToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+        this.prevToken = prevToken;
+    }
+    
+    /**
+     * 空页
+     */
+    public static <T> KeysetPage<T> empty() {
+        return new KeysetPage<>(Collections.emptyList(), null, null);
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    /**
+     * 下一页令牌，没有下一页时为null
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    /**
+     * 上一页令牌，没有上一页时为null
+     */
+    public String getPrevToken() {
+        return prevToken;
+    }
+    
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+    
+    public boolean hasPrevious() {
+        return prevToken != null;
+    }
+}
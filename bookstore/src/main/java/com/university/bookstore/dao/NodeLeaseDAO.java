@@ -0,0 +1,31 @@
+package com.university.bookstore.dao;
+
+import java.sql.SQLException;
+
+/**
+ * 节点号租约数据访问对象接口
+ * 每个运行中的应用实例从 t_node_lease 租用一个节点号，用于生成不重复的订单号。
+ * 租约时间以数据库时间为准，各客户端时钟不一致不影响判断
+ */
+public interface NodeLeaseDAO {
+
+    /**
+     * 租用一个节点号：优先复用编号最小的已过期租约，没有时新增一个编号
+     * @param holder 持有者标识，每个进程唯一
+     * @param maxNodeId 允许的最大节点号
+     * @param leaseSeconds 租期（秒）
+     * @return 租到的节点号，节点号已用尽时返回-1
+     * @throws SQLException SQL异常
+     */
+    int acquire(String holder, int maxNodeId, int leaseSeconds) throws SQLException;
+
+    /**
+     * 续租
+     * @param nodeId 节点号
+     * @param holder 持有者标识
+     * @param leaseSeconds 租期（秒）
+     * @return 续租成功返回true；租约已过期并被其他实例租走时返回false
+     * @throws SQLException SQL异常
+     */
+    boolean renew(int nodeId, String holder, int leaseSeconds) throws SQLException;
+}
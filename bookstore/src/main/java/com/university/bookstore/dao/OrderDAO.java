@@ -3,7 +3,14 @@ package com.university.bookstore.dao;
 import com.university.bookstore.model.Order;
 import com.university.bookstore.model.OrderDetail;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 订单数据访问对象接口
@@ -73,6 +80,15 @@ public interface OrderDAO {
      */
     boolean insert(Order order);
     
+    /**
+     * 在调用方的事务连接上插入新订单，成功后回填订单ID
+     * @param conn 事务连接（不会被关闭）
+     * @param order 订单对象
+     * @return 插入成功返回true，否则返回false
+     * @throws SQLException SQL异常，由调用方决定是否回滚
+     */
+    boolean insert(Connection conn, Order order) throws SQLException;
+    
     /**
      * 更新订单信息
      * @param order 订单对象
@@ -88,6 +104,53 @@ public interface OrderDAO {
      */
     boolean updateStatus(Integer id, Order.OrderStatus status);
     
+    /**
+     * 带条件的状态迁移：只有当前状态在 from 中时才改为 to
+     * 自动提交模式下只执行一条 UPDATE ... AND status IN (...)，未更新时才回读订单说明原因。
+     * 成功时不回读：from 只有一个状态时结果中的原状态即为该状态，否则原状态和所属学生为null
+     * @param id 订单ID
+     * @param from 允许的起始状态，不能为空且不能包含 to
+     * @param to 目标状态
+     * @return 迁移结果
+     * @throws SQLException SQL异常
+     */
+    TransitionResult transitionStatus(Integer id, Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException;
+    
+    /**
+     * 在调用方的连接（事务）中执行带条件的状态迁移
+     * SELECT ... FOR UPDATE 锁定订单并读出原状态，再用一条 UPDATE ... WHERE id = ? AND status IN (...) 迁移
+     * @param conn 数据库连接（应已关闭自动提交，原状态才准确；不会被关闭）
+     * @param id 订单ID
+     * @param from 允许的起始状态，不能为空且不能包含 to
+     * @param to 目标状态
+     * @return 迁移结果
+     * @throws SQLException SQL异常
+     */
+    TransitionResult transitionStatus(Connection conn, Integer id, Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException;
+    
+    /**
+     * 在调用方的事务中批量迁移订单状态
+     * 先用 SELECT ... FOR UPDATE 锁定并读取这些订单的状态，再用一条
+     * UPDATE ... WHERE id IN (...) AND status IN (...) 完成所有符合条件订单的迁移
+     * @param conn 事务连接（需已关闭自动提交，不会被关闭）
+     * @param ids 订单ID，一次不宜超过几百个，由调用方分块
+     * @param from 允许的起始状态，不能为空且不能包含 to
+     * @param to 目标状态
+     * @return 按传入顺序的每个订单的迁移结果
+     * @throws SQLException SQL异常
+     */
+    Map<Integer, TransitionResult> transitionStatusBatch(Connection conn, Collection<Integer> ids,
+                                                         Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException;
+    
+    /**
+     * 汇总一批订单中每种教材的购买数量
+     * @param conn 数据库连接（不会被关闭）
+     * @param orderIds 订单ID
+     * @return 教材ID到合计数量的映射
+     * @throws SQLException SQL异常
+     */
+    Map<Integer, Integer> sumItemQuantitiesByBook(Connection conn, Collection<Integer> orderIds) throws SQLException;
+    
     /**
      * 删除订单
      * @param id 订单ID
@@ -116,6 +179,15 @@ public interface OrderDAO {
      */
     boolean insertOrderDetails(List<OrderDetail> orderDetails);
     
+    /**
+     * 在调用方的事务连接上批量插入订单详情
+     * @param conn 事务连接（不会被关闭）
+     * @param orderDetails 订单详情列表
+     * @return 全部插入成功返回true，否则返回false
+     * @throws SQLException SQL异常，由调用方决定是否回滚
+     */
+    boolean insertOrderDetails(Connection conn, List<OrderDetail> orderDetails) throws SQLException;
+    
     /**
      * 删除订单详情
      * @param orderId 订单ID
@@ -129,4 +201,94 @@ public interface OrderDAO {
      * @return 存在返回true，否则返回false
      */
     boolean existsByOrderNumber(String orderNumber);
-}
\ No newline at end of file
+    
+    /**
+     * 增量查询在 (since, afterId) 之后发生变更的订单，按 (update_time, id) 升序
+     * @param studentId 只查询该学生的订单，为null时查询全部
+     * @param since 起始更新时间（变更游标会从水位往前重叠一段）
+     * @param afterId 起始更新时间上要跳过的最大订单ID
+     * @param limit 最多返回条数
+     * @return 变更的订单列表
+     */
+    List<Order> findUpdatedSince(Integer studentId, Timestamp since, Integer afterId, int limit);
+    
+    /**
+     * 获取订单表最新的更新时间
+     * @param studentId 只统计该学生的订单，为null时统计全部
+     * @return 最新更新时间，没有订单时返回null
+     */
+    Timestamp getLatestUpdateTime(Integer studentId);
+    
+    /**
+     * 按状态分组统计订单数量
+     * @param studentId 只统计该学生的订单，为null时统计全部
+     * @return 状态到订单数的映射，没有订单的状态不出现
+     * @throws SQLException SQL异常，供统计组件区分"查询失败"和"没有订单"
+     */
+    Map<Order.OrderStatus, Long> countGroupByStatus(Integer studentId) throws SQLException;
+    
+    /**
+     * 按创建日期分组统计订单数量
+     * @param since 只统计该时间之后创建的订单
+     * @return 日期到订单数的映射
+     * @throws SQLException SQL异常
+     */
+    Map<LocalDate, Long> countGroupByDay(Timestamp since) throws SQLException;
+    
+    /**
+     * 键集分页：查询排在 (afterCreateTime, afterId) 之后的下一页订单，按创建时间、ID倒序
+     * @param query 查询条件
+     * @param afterCreateTime 上一页最后一条记录的创建时间，为null时从头开始
+     * @param afterId 上一页最后一条记录的ID
+     * @param limit 每页条数
+     * @return 订单列表
+     */
+    List<Order> findPageAfter(OrderQuery query, Timestamp afterCreateTime, Integer afterId, int limit);
+    
+    /**
+     * 键集分页：查询排在 (beforeCreateTime, beforeId) 之前的上一页订单，结果仍按创建时间、ID倒序返回
+     * @param query 查询条件
+     * @param beforeCreateTime 当前页第一条记录的创建时间
+     * @param beforeId 当前页第一条记录的ID
+     * @param limit 每页条数
+     * @return 订单列表
+     */
+    List<Order> findPageBefore(OrderQuery query, Timestamp beforeCreateTime, Integer beforeId, int limit);
+    
+    /**
+     * 偏移量分页（跳页时使用），按创建时间、ID倒序
+     * @param query 查询条件
+     * @param offset 偏移量
+     * @param limit 每页条数
+     * @return 订单列表
+     */
+    List<Order> findPageByOffset(OrderQuery query, int offset, int limit);
+    
+    /**
+     * 统计满足条件的订单数量
+     * @param query 查询条件
+     * @return 订单数量
+     */
+    int getTotalCount(OrderQuery query);
+    
+    /**
+     * 基于令牌的键集分页：取令牌位置之后的一页订单，按创建时间、ID倒序
+     * 不使用 OFFSET，翻到多深的页都只扫描一页的行
+     * @param query 查询条件（状态、学生等），为null时不过滤
+     * @param token 上一次返回的 nextToken，为null时从第一页开始
+     * @param limit 每页条数
+     * @return 分页结果
+     * @throws IllegalArgumentException 令牌无效
+     */
+    KeysetPage<Order> findAfter(OrderQuery query, String token, int limit);
+    
+    /**
+     * 基于令牌的键集分页：取令牌位置之前的一页订单，结果仍按创建时间、ID倒序
+     * @param query 查询条件（状态、学生等），为null时不过滤
+     * @param token 上一次返回的 prevToken
+     * @param limit 每页条数
+     * @return 分页结果
+     * @throws IllegalArgumentException 令牌无效
+     */
+    KeysetPage<Order> findBefore(OrderQuery query, String token, int limit);
+}
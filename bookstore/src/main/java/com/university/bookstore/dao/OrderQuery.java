@@ -0,0 +1,57 @@
+package com.university.bookstore.dao;
+
+import com.university.bookstore.model.Order;
+
+/**
+ * 订单分页查询条件
+ * 各条件为null时表示不限制
+ */
+public class OrderQuery {
+    
+    private Order.OrderStatus status;
+    private Integer studentId;
+    private String studentNameKeyword;
+    
+    public OrderQuery() {}
+    
+    public OrderQuery(Order.OrderStatus status, Integer studentId) {
+        this.status = status;
+        this.studentId = studentId;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+    
+    /**
+     * 学生姓名关键词（模糊匹配下单学生的姓名）
+     */
+    public String getStudentNameKeyword() {
+        return studentNameKeyword;
+    }
+    
+    public void setStudentNameKeyword(String studentNameKeyword) {
+        this.studentNameKeyword = studentNameKeyword;
+    }
+    
+    /**
+     * 生成查询条件签名，用于缓存键和判断翻页时条件是否变化
+     */
+    public String signature() {
+        return (status != null ? status.name() : "ALL") + ":" +
+               (studentId != null ? studentId : "*") + ":" +
+               (studentNameKeyword != null ? studentNameKeyword : "");
+    }
+}
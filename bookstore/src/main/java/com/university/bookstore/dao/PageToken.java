@@ -0,0 +1,99 @@
+package com.university.bookstore.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * 键集分页令牌的编码与解码
+ * 令牌内容为排序键（教材：id；订单：create_time + id），经 Base64 URL 编码后对调用方不透明
+ */
+public final class PageToken {
+    
+    private static final String BOOK_PREFIX = "B";
+    private static final String ORDER_PREFIX = "O";
+    private static final String SEPARATOR = "|";
+    
+    private final Timestamp createTime;
+    private final Integer id;
+    
+    private PageToken(Timestamp createTime, Integer id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+    
+    /**
+     * 排序键中的创建时间（仅订单令牌有值）
+     */
+    public Timestamp getCreateTime() {
+        return createTime;
+    }
+    
+    /**
+     * 排序键中的记录ID
+     */
+    public Integer getId() {
+        return id;
+    }
+    
+    /**
+     * 生成教材令牌
+     */
+    public static String forBook(Integer id) {
+        return encode(BOOK_PREFIX + SEPARATOR + id);
+    }
+    
+    /**
+     * 生成订单令牌
+     */
+    public static String forOrder(Timestamp createTime, Integer id) {
+        return encode(ORDER_PREFIX + SEPARATOR + createTime.getTime() + SEPARATOR +
+                      createTime.getNanos() + SEPARATOR + id);
+    }
+    
+    /**
+     * 解析教材令牌
+     * @throws IllegalArgumentException 令牌格式错误或不是教材令牌
+     */
+    public static PageToken parseBook(String token) {
+        String[] parts = decode(token, BOOK_PREFIX, 2);
+        try {
+            return new PageToken(null, Integer.valueOf(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页令牌");
+        }
+    }
+    
+    /**
+     * 解析订单令牌
+     * @throws IllegalArgumentException 令牌格式错误或不是订单令牌
+     */
+    public static PageToken parseOrder(String token) {
+        String[] parts = decode(token, ORDER_PREFIX, 4);
+        try {
+            Timestamp createTime = new Timestamp(Long.parseLong(parts[1]));
+            createTime.setNanos(Integer.parseInt(parts[2]));
+            return new PageToken(createTime, Integer.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页令牌");
+        }
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decode(String token, String prefix, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页令牌");
+        }
+        String[] parts = raw.split("\\|");
+        if (parts.length != expectedParts || !prefix.equals(parts[0])) {
+            throw new IllegalArgumentException("无效的分页令牌");
+        }
+        return parts;
+    }
+}
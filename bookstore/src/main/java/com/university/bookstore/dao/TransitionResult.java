@@ -0,0 +1,90 @@
+package com.university.bookstore.dao;
+
+import com.university.bookstore.model.Order;
+
+/**
+ * 订单状态迁移结果
+ * 成功时给出迁移前后的状态；失败时给出订单当前的实际状态，订单不存在时状态为null。
+ * 独立执行的迁移只发一条UPDATE，成功时不回读订单：起始状态只有一个时原状态即为该状态，
+ * 有多个时原状态未知（null），所属学生也未知（null）。失败时回读了订单，学生ID总是有值。
+ */
+public class TransitionResult {
+
+    private static final TransitionResult NOT_FOUND = new TransitionResult(false, null, null, null);
+
+    private final boolean applied;
+    private final Order.OrderStatus previousStatus;
+    private final Order.OrderStatus currentStatus;
+    private final Integer studentId;
+
+    private TransitionResult(boolean applied, Order.OrderStatus previousStatus, Order.OrderStatus currentStatus,
+                             Integer studentId) {
+        this.applied = applied;
+        this.previousStatus = previousStatus;
+        this.currentStatus = currentStatus;
+        this.studentId = studentId;
+    }
+
+    /**
+     * 迁移成功
+     * @param previousStatus 迁移前的状态，未知时为null
+     * @param newStatus 迁移后的状态
+     * @param studentId 订单所属学生ID，未知时为null
+     */
+    public static TransitionResult applied(Order.OrderStatus previousStatus, Order.OrderStatus newStatus, Integer studentId) {
+        return new TransitionResult(true, previousStatus, newStatus, studentId);
+    }
+
+    /**
+     * 当前状态不在允许的起始状态中，未迁移
+     * @param currentStatus 订单当前状态
+     * @param studentId 订单所属学生ID
+     */
+    public static TransitionResult rejected(Order.OrderStatus currentStatus, Integer studentId) {
+        return new TransitionResult(false, currentStatus, currentStatus, studentId);
+    }
+
+    /**
+     * 订单不存在
+     */
+    public static TransitionResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public boolean isNotFound() {
+        return currentStatus == null;
+    }
+
+    /**
+     * 迁移前的状态；失败时与当前状态相同，从多个起始状态迁移成功时可能为null（未回读）
+     */
+    public Order.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    /**
+     * 订单当前状态：成功时为目标状态，失败时为实际状态，订单不存在时为null
+     */
+    public Order.OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    /**
+     * 订单所属学生ID，订单不存在或迁移成功但未回读订单时为null
+     */
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    @Override
+    public String toString() {
+        if (applied) {
+            return "TransitionResult{applied, " + previousStatus + " -> " + currentStatus + "}";
+        }
+        return currentStatus != null ? "TransitionResult{rejected, current=" + currentStatus + "}" : "TransitionResult{notFound}";
+    }
+}
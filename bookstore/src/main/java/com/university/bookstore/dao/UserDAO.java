@@ -2,6 +2,7 @@ package com.university.bookstore.dao;
 
 import com.university.bookstore.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,6 +32,13 @@ public interface UserDAO {
      */
     User findById(Integer id);
     
+    /**
+     * 根据ID集合批量查找用户（一次 WHERE id IN 查询）
+     * @param ids 用户ID集合
+     * @return 用户列表，不存在的ID不会出现在结果中
+     */
+    List<User> findByIds(Collection<Integer> ids);
+    
     /**
      * 查找所有用户
      * @return 用户列表
@@ -1,25 +1,38 @@
 package com.university.bookstore.dao.impl;
 
 import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.KeysetPage;
+import com.university.bookstore.dao.PageToken;
 import com.university.bookstore.model.Book;
 import com.university.bookstore.util.DBUtil;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * 教材数据访问对象实现类
  */
 public class BookDAOImpl implements BookDAO {
 
+    /**
+     * IN 子句单批最大参数个数
+     */
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
+
     /**
      * 根据ID查找教材
      */
     @Override
     public Book findById(Integer id) {
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book WHERE id = ?";
+        String sql = "SELECT * FROM t_book WHERE id = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -42,7 +55,7 @@ public class BookDAOImpl implements BookDAO {
      */
     @Override
     public Book findByIsbn(String isbn) {
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book WHERE isbn = ?";
+        String sql = "SELECT * FROM t_book WHERE isbn = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -60,13 +73,59 @@ public class BookDAOImpl implements BookDAO {
         return null;
     }
 
+    /**
+     * 根据ID集合批量查找教材
+     * ID去重后按 IN_CLAUSE_BATCH_SIZE 分批，避免单条SQL参数过多
+     */
+    @Override
+    public List<Book> findByIds(Collection<Integer> ids) {
+        List<Book> books = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return books;
+        }
+        
+        Set<Integer> distinctIds = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                distinctIds.add(id);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return books;
+        }
+        
+        List<Integer> idList = new ArrayList<>(distinctIds);
+        try (Connection conn = DBUtil.getConnection()) {
+            for (int from = 0; from < idList.size(); from += IN_CLAUSE_BATCH_SIZE) {
+                List<Integer> batch = idList.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, idList.size()));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                String sql = "SELECT * FROM t_book WHERE id IN (" + placeholders + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setInt(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            books.add(mapResultSetToBook(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("批量查询教材失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return books;
+    }
+
     /**
      * 查找所有教材
      */
     @Override
     public List<Book> findAll() {
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book ORDER BY title";
+        String sql = "SELECT * FROM t_book ORDER BY title";
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -88,7 +147,7 @@ public class BookDAOImpl implements BookDAO {
     @Override
     public List<Book> findByTitleLike(String title) {
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book WHERE title LIKE ? ORDER BY title";
+        String sql = "SELECT * FROM t_book WHERE title LIKE ? ORDER BY title";
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -218,7 +277,7 @@ public class BookDAOImpl implements BookDAO {
     @Override
     public List<Book> searchBooks(String keyword) {
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book WHERE title LIKE ? OR author LIKE ? OR isbn LIKE ? ORDER BY title";
+        String sql = "SELECT * FROM t_book WHERE title LIKE ? OR author LIKE ? OR isbn LIKE ? ORDER BY title";
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -246,7 +305,7 @@ public class BookDAOImpl implements BookDAO {
     @Override
     public List<Book> findWithPagination(int offset, int limit) {
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT SQL_NO_CACHE * FROM t_book ORDER BY id LIMIT ? OFFSET ?";
+        String sql = "SELECT * FROM t_book ORDER BY id LIMIT ? OFFSET ?";
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -443,22 +502,149 @@ public class BookDAOImpl implements BookDAO {
      */
     @Override
     public boolean reduceStock(Integer id, Integer quantity) {
-        String sql = "UPDATE t_book SET stock = stock - ? WHERE id = ? AND stock >= ?";
+        try (Connection conn = DBUtil.getConnection()) {
+            return reduceStock(conn, id, quantity);
+        } catch (SQLException e) {
+            System.err.println("减少教材库存失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean increaseStock(Integer id, Integer quantity) {
+        String sql = "UPDATE t_book SET stock = stock + ? WHERE id = ?";
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, quantity);
             stmt.setInt(2, id);
-            stmt.setInt(3, quantity);
             
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("减少教材库存失败: " + e.getMessage());
+            System.err.println("增加教材库存失败: " + e.getMessage());
             e.printStackTrace();
         }
         return false;
     }
+    
+    @Override
+    public boolean reduceStock(Connection conn, Integer id, Integer quantity) throws SQLException {
+        String sql = "UPDATE t_book SET stock = stock - ? WHERE id = ? AND stock >= ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, quantity);
+            stmt.setInt(2, id);
+            stmt.setInt(3, quantity);
+            
+            return stmt.executeUpdate() > 0;
+        }
+    }
+    
+    /**
+     * 批量减少教材库存（独立事务）
+     */
+    @Override
+    public List<Integer> reduceStockBatch(Map<Integer, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            List<Integer> failedIds = reduceStockBatch(conn, quantities);
+            if (failedIds.isEmpty()) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+            return failedIds;
+        } catch (SQLException e) {
+            System.err.println("批量减少教材库存失败: " + e.getMessage());
+            e.printStackTrace();
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackException) {
+                    System.err.println("批量减少库存回滚失败: " + rollbackException.getMessage());
+                }
+            }
+            // 整体失败，所有教材都视为未扣减
+            return new ArrayList<>(quantities.keySet());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("恢复自动提交失败: " + e.getMessage());
+                }
+                DBUtil.closeConnection(conn);
+            }
+        }
+    }
+    
+    @Override
+    public List<Integer> reduceStockBatch(Connection conn, Map<Integer, Integer> quantities) throws SQLException {
+        List<Integer> failedIds = new ArrayList<>();
+        if (quantities == null || quantities.isEmpty()) {
+            return failedIds;
+        }
+        
+        // 按ID升序加锁，多个订单并发扣减同一批教材时不会互相死锁
+        Map<Integer, Integer> sorted = new TreeMap<>(quantities);
+        List<Integer> ids = new ArrayList<>(sorted.keySet());
+        String sql = "UPDATE t_book SET stock = stock - ? WHERE id = ? AND stock >= ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : sorted.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.setInt(3, entry.getValue());
+                stmt.addBatch();
+            }
+            
+            int[] results = stmt.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                // 条件不满足时影响行数为0，说明库存不足或教材不存在
+                if (results[i] == 0 || results[i] == Statement.EXECUTE_FAILED) {
+                    failedIds.add(ids.get(i));
+                }
+            }
+        }
+        return failedIds;
+    }
+    
+    @Override
+    public List<Integer> addStockBatch(Connection conn, Map<Integer, Integer> quantities) throws SQLException {
+        List<Integer> missingIds = new ArrayList<>();
+        if (quantities == null || quantities.isEmpty()) {
+            return missingIds;
+        }
+        
+        // 与扣减相同按ID升序加锁，避免与并发下单互相死锁
+        Map<Integer, Integer> sorted = new TreeMap<>(quantities);
+        List<Integer> ids = new ArrayList<>(sorted.keySet());
+        String sql = "UPDATE t_book SET stock = stock + ? WHERE id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : sorted.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.addBatch();
+            }
+            
+            int[] results = stmt.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == 0 || results[i] == Statement.EXECUTE_FAILED) {
+                    missingIds.add(ids.get(i));
+                }
+            }
+        }
+        return missingIds;
+    }
 
     /**
      * 检查ISBN是否已存在
@@ -509,13 +695,279 @@ public class BookDAOImpl implements BookDAO {
         return books;
     }
 
+    /**
+     * 增量查询变更的教材
+     */
+    @Override
+    public List<Book> findUpdatedSince(Timestamp since, Integer afterId, int limit) {
+        List<Book> books = new ArrayList<>();
+        String sql = "SELECT * FROM t_book WHERE update_time > ? OR (update_time = ? AND id > ?) " +
+                    "ORDER BY update_time, id LIMIT ?";
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, since);
+            stmt.setTimestamp(2, since);
+            stmt.setInt(3, afterId != null ? afterId : 0);
+            stmt.setInt(4, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Book book = mapResultSetToBook(rs);
+                    book.setUpdateTime(rs.getTimestamp("update_time"));
+                    books.add(book);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("增量查询教材变更失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return books;
+    }
+
+    /**
+     * 获取教材表最新的更新时间
+     */
+    @Override
+    public Timestamp getLatestUpdateTime() {
+        String sql = "SELECT MAX(update_time) FROM t_book";
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getTimestamp(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("查询教材最新更新时间失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 键集分页：下一页
+     */
+    @Override
+    public List<Book> findPageAfter(String keyword, Integer afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM t_book WHERE id > ?");
+        appendKeywordCondition(sql, keyword);
+        sql.append(" ORDER BY id LIMIT ?");
+        
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            stmt.setInt(index++, afterId != null ? afterId : 0);
+            index = bindKeyword(stmt, index, keyword);
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapResultSetToBook(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("键集分页查询教材失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return books;
+    }
+
+    /**
+     * 键集分页：上一页
+     */
+    @Override
+    public List<Book> findPageBefore(String keyword, Integer beforeId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM t_book WHERE id < ?");
+        appendKeywordCondition(sql, keyword);
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            stmt.setInt(index++, beforeId);
+            index = bindKeyword(stmt, index, keyword);
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapResultSetToBook(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("键集分页查询教材失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        // 倒序扫描得到的结果恢复为升序
+        Collections.reverse(books);
+        return books;
+    }
+
+    /**
+     * 偏移量分页
+     */
+    @Override
+    public List<Book> findPageByOffset(String keyword, int offset, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM t_book WHERE 1 = 1");
+        appendKeywordCondition(sql, keyword);
+        sql.append(" ORDER BY id LIMIT ? OFFSET ?");
+        
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = bindKeyword(stmt, 1, keyword);
+            stmt.setInt(index++, limit);
+            stmt.setInt(index, offset);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapResultSetToBook(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("分页查询教材失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return books;
+    }
+
+    /**
+     * 统计匹配关键词的教材数量
+     */
+    @Override
+    public int getTotalCountByKeyword(String keyword) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM t_book WHERE 1 = 1");
+        appendKeywordCondition(sql, keyword);
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            bindKeyword(stmt, 1, keyword);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("统计教材数量失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * 统计排在指定教材之前的教材数量
+     */
+    @Override
+    public int countBefore(String keyword, Integer id) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM t_book WHERE id < ?");
+        appendKeywordCondition(sql, keyword);
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            stmt.setInt(1, id);
+            bindKeyword(stmt, 2, keyword);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("统计教材位置失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * 基于令牌的键集分页：下一页
+     */
+    @Override
+    public KeysetPage<Book> findAfter(String keyword, String token, int limit) {
+        if (limit <= 0) {
+            return KeysetPage.empty();
+        }
+        Integer anchorId = token != null ? PageToken.parseBook(token).getId() : null;
+        // 多取一行用于判断是否还有下一页
+        List<Book> books = findPageAfter(keyword, anchorId, limit + 1);
+        
+        boolean hasNext = books.size() > limit;
+        if (hasNext) {
+            books = new ArrayList<>(books.subList(0, limit));
+        }
+        if (books.isEmpty()) {
+            return new KeysetPage<>(books, null, token);
+        }
+        return new KeysetPage<>(books,
+                hasNext ? PageToken.forBook(books.get(books.size() - 1).getId()) : null,
+                anchorId != null ? PageToken.forBook(books.get(0).getId()) : null);
+    }
+
+    /**
+     * 基于令牌的键集分页：上一页
+     */
+    @Override
+    public KeysetPage<Book> findBefore(String keyword, String token, int limit) {
+        if (token == null) {
+            return findAfter(keyword, null, limit);
+        }
+        if (limit <= 0) {
+            return KeysetPage.empty();
+        }
+        Integer anchorId = PageToken.parseBook(token).getId();
+        // 多取一行用于判断是否还有上一页；结果已恢复为升序，多出的一行在最前面
+        List<Book> books = findPageBefore(keyword, anchorId, limit + 1);
+        
+        boolean hasPrevious = books.size() > limit;
+        if (hasPrevious) {
+            books = new ArrayList<>(books.subList(books.size() - limit, books.size()));
+        }
+        if (books.isEmpty()) {
+            return new KeysetPage<>(books, token, null);
+        }
+        return new KeysetPage<>(books,
+                PageToken.forBook(books.get(books.size() - 1).getId()),
+                hasPrevious ? PageToken.forBook(books.get(0).getId()) : null);
+    }
+
+    /**
+     * 追加关键词过滤条件（书名、作者、ISBN模糊匹配，与 searchBooks 一致）
+     */
+    private void appendKeywordCondition(StringBuilder sql, String keyword) {
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            sql.append(" AND (title LIKE ? OR author LIKE ? OR isbn LIKE ?)");
+        }
+    }
+
+    /**
+     * 绑定关键词参数
+     * @return 下一个参数位置
+     */
+    private int bindKeyword(PreparedStatement stmt, int index, String keyword) throws SQLException {
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            String pattern = "%" + keyword.trim() + "%";
+            stmt.setString(index++, pattern);
+            stmt.setString(index++, pattern);
+            stmt.setString(index++, pattern);
+        }
+        return index;
+    }
+
     /**
      * 将ResultSet映射为Book对象
      * @param rs ResultSet对象
      * @return Book对象
      * @throws SQLException SQL异常
      */
-    private Book mapResultSetToBook(ResultSet rs) throws SQLException {
+    Book mapResultSetToBook(ResultSet rs) throws SQLException {
         Book book = new Book();
         book.setId(rs.getInt("id"));
         book.setIsbn(rs.getString("isbn"));
@@ -0,0 +1,98 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.dao.NodeLeaseDAO;
+import com.university.bookstore.util.DBUtil;
+
+import java.sql.*;
+
+/**
+ * 节点号租约数据访问对象实现类
+ */
+public class NodeLeaseDAOImpl implements NodeLeaseDAO {
+
+    // 两个实例同时抢同一个编号时，输的一方重新选择的次数
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Override
+    public int acquire(String holder, int maxNodeId, int leaseSeconds) throws SQLException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Integer nodeId = DBUtil.executeInTransaction(conn -> {
+                Integer expired = findExpired(conn);
+                if (expired != null) {
+                    return takeOver(conn, expired, holder, leaseSeconds) ? expired : null;
+                }
+                int next = nextNodeId(conn);
+                if (next > maxNodeId) {
+                    return -1;
+                }
+                return insert(conn, next, holder, leaseSeconds) ? next : null;
+            });
+            if (nodeId != null) {
+                return nodeId;
+            }
+        }
+        throw new SQLException("租用节点号失败：连续 " + MAX_ATTEMPTS + " 次与其他实例冲突");
+    }
+
+    @Override
+    public boolean renew(int nodeId, String holder, int leaseSeconds) throws SQLException {
+        String sql = "UPDATE t_node_lease SET expire_time = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) " +
+                     "WHERE node_id = ? AND holder = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, leaseSeconds);
+            stmt.setInt(2, nodeId);
+            stmt.setString(3, holder);
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private Integer findExpired(Connection conn) throws SQLException {
+        String sql = "SELECT node_id FROM t_node_lease WHERE expire_time < CURRENT_TIMESTAMP " +
+                     "ORDER BY node_id LIMIT 1 FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : null;
+        }
+    }
+
+    /**
+     * 接管过期租约，条件中再次检查过期，被其他实例抢先续上或接管时返回false
+     */
+    private boolean takeOver(Connection conn, int nodeId, String holder, int leaseSeconds) throws SQLException {
+        String sql = "UPDATE t_node_lease SET holder = ?, expire_time = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) " +
+                     "WHERE node_id = ? AND expire_time < CURRENT_TIMESTAMP";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, holder);
+            stmt.setInt(2, leaseSeconds);
+            stmt.setInt(3, nodeId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private int nextNodeId(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(node_id), -1) + 1 FROM t_node_lease");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * 新增租约，编号已被其他实例同时插入时返回false
+     */
+    private boolean insert(Connection conn, int nodeId, String holder, int leaseSeconds) throws SQLException {
+        String sql = "INSERT INTO t_node_lease (node_id, holder, expire_time) " +
+                     "VALUES (?, ?, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP))";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, nodeId);
+            stmt.setString(2, holder);
+            stmt.setInt(3, leaseSeconds);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false;
+        }
+    }
+}
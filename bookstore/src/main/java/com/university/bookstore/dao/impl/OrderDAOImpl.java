@@ -1,14 +1,27 @@
 package com.university.bookstore.dao.impl;
 
+import com.university.bookstore.dao.KeysetPage;
 import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.dao.OrderQuery;
+import com.university.bookstore.dao.PageToken;
+import com.university.bookstore.dao.TransitionResult;
 import com.university.bookstore.model.Order;
 import com.university.bookstore.model.OrderDetail;
 import com.university.bookstore.util.DBUtil;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * 订单数据访问对象实现类
@@ -112,7 +125,10 @@ public class OrderDAOImpl implements OrderDAO {
 
     @Override
     public List<Order> findWithPagination(int offset, int limit) {
-        String sql = "SELECT * FROM t_order ORDER BY create_time DESC LIMIT ? OFFSET ?";
+        // 延迟关联：先在 create_time 索引上只跳过ID，再回表取本页的整行
+        String sql = "SELECT o.* FROM t_order o JOIN (" +
+                     "SELECT id FROM t_order ORDER BY create_time DESC, id DESC LIMIT ? OFFSET ?" +
+                     ") p ON o.id = p.id ORDER BY o.create_time DESC, o.id DESC";
         List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DBUtil.getConnection();
@@ -149,41 +165,42 @@ public class OrderDAOImpl implements OrderDAO {
 
     @Override
     public boolean insert(Order order) {
-        String sql = "INSERT INTO t_order (order_number, user_id, total_amount, status, create_time) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-        
         System.out.println("[DEBUG] 开始插入订单到数据库");
         System.out.println("[DEBUG] 订单信息 - 订单号: " + order.getOrderNumber() + ", 学生ID: " + order.getStudentId() + ", 总价: " + order.getTotalPrice() + ", 状态: " + order.getStatus());
         
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
+        try (Connection conn = DBUtil.getConnection()) {
+            return insert(conn, order);
+        } catch (SQLException e) {
+            System.out.println("[ERROR] 订单插入失败，SQL异常: " + e.getMessage());
+            System.out.println("[ERROR] SQL状态码: " + e.getSQLState());
+            System.out.println("[ERROR] 错误代码: " + e.getErrorCode());
+            e.printStackTrace();
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean insert(Connection conn, Order order) throws SQLException {
+        String sql = "INSERT INTO t_order (order_number, user_id, total_amount, status, create_time) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, order.getOrderNumber());
             stmt.setInt(2, order.getStudentId());
             stmt.setBigDecimal(3, order.getTotalPrice());
             stmt.setString(4, order.getStatus().name());
             stmt.setTimestamp(5, new Timestamp(order.getCreateTime().getTime()));
             
-            System.out.println("[DEBUG] 执行SQL: " + sql);
             int affectedRows = stmt.executeUpdate();
-            System.out.println("[DEBUG] 影响行数: " + affectedRows);
-            
             if (affectedRows > 0) {
-                ResultSet generatedKeys = stmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    int generatedId = (int) generatedKeys.getLong(1);
-                    order.setId(generatedId);
-                    System.out.println("[DEBUG] 订单插入成功，生成的订单ID: " + generatedId);
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        order.setId((int) generatedKeys.getLong(1));
+                    }
                 }
                 return true;
-            } else {
-                System.out.println("[ERROR] 订单插入失败：没有行被影响");
             }
-        } catch (SQLException e) {
-            System.out.println("[ERROR] 订单插入失败，SQL异常: " + e.getMessage());
-            System.out.println("[ERROR] SQL状态码: " + e.getSQLState());
-            System.out.println("[ERROR] 错误代码: " + e.getErrorCode());
-            e.printStackTrace();
+            System.out.println("[ERROR] 订单插入失败：没有行被影响");
         }
         return false;
     }
@@ -226,6 +243,191 @@ public class OrderDAOImpl implements OrderDAO {
         return false;
     }
 
+    /**
+     * 自动提交模式下一条 UPDATE ... WHERE id = ? AND status IN (...) 完成比较并设置，成功时只有这一次往返；
+     * 更新行数为0时才回读订单，区分状态不符和订单不存在
+     */
+    @Override
+    public TransitionResult transitionStatus(Integer id, Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException {
+        if (from.isEmpty() || from.contains(to)) {
+            throw new IllegalArgumentException("起始状态不能为空且不能包含目标状态: " + from + " -> " + to);
+        }
+        
+        try (Connection conn = DBUtil.getConnection()) {
+            if (updateStatusIn(conn, id, from, to)) {
+                // 起始状态唯一时原状态确定；多个时未知，由调用方或统计重建处理
+                Order.OrderStatus previous = from.size() == 1 ? from.iterator().next() : null;
+                return TransitionResult.applied(previous, to, null);
+            }
+            return findTransitionFailure(conn, id);
+        }
+    }
+
+    /**
+     * 先 SELECT ... FOR UPDATE 锁定订单并读出原状态和所属学生，再用一条
+     * UPDATE ... WHERE id = ? AND status IN (...) 迁移。连接处于事务中时两条语句之间状态不会被改变，
+     * 原状态准确；自动提交模式下行锁随SELECT释放，UPDATE仍带条件，不会做出非法迁移。
+     */
+    @Override
+    public TransitionResult transitionStatus(Connection conn, Integer id, Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException {
+        if (from.isEmpty() || from.contains(to)) {
+            throw new IllegalArgumentException("起始状态不能为空且不能包含目标状态: " + from + " -> " + to);
+        }
+        
+        Order.OrderStatus current;
+        Integer studentId;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT status, user_id FROM t_order WHERE id = ? FOR UPDATE")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return TransitionResult.notFound();
+                }
+                current = Order.OrderStatus.valueOf(rs.getString(1));
+                studentId = rs.getInt(2);
+            }
+        }
+        if (!from.contains(current)) {
+            return TransitionResult.rejected(current, studentId);
+        }
+        
+        if (updateStatusIn(conn, id, from, to)) {
+            return TransitionResult.applied(current, to, studentId);
+        }
+        // 仅在自动提交模式下可能发生：SELECT之后订单被并发修改
+        return findTransitionFailure(conn, id);
+    }
+
+    /**
+     * UPDATE t_order SET status = ? WHERE id = ? AND status IN (...)
+     * @return 是否更新了订单
+     */
+    private boolean updateStatusIn(Connection conn, Integer id, Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException {
+        List<Order.OrderStatus> fromList = new ArrayList<>(from);
+        String sql = "UPDATE t_order SET status = ? WHERE id = ? AND status IN (" + placeholders(fromList.size()) + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setString(index++, to.name());
+            stmt.setInt(index++, id);
+            for (Order.OrderStatus status : fromList) {
+                stmt.setString(index++, status.name());
+            }
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * 迁移未生效时回读订单：订单存在为状态不符，否则为不存在
+     */
+    private TransitionResult findTransitionFailure(Connection conn, Integer id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT status, user_id FROM t_order WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return TransitionResult.notFound();
+                }
+                return TransitionResult.rejected(Order.OrderStatus.valueOf(rs.getString(1)), rs.getInt(2));
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, TransitionResult> transitionStatusBatch(Connection conn, Collection<Integer> ids,
+                                                                Set<Order.OrderStatus> from, Order.OrderStatus to) throws SQLException {
+        if (from.isEmpty() || from.contains(to)) {
+            throw new IllegalArgumentException("起始状态不能为空且不能包含目标状态: " + from + " -> " + to);
+        }
+        Map<Integer, TransitionResult> results = new LinkedHashMap<>();
+        // 按ID升序加锁，与其他批量操作并发时不会死锁
+        List<Integer> sortedIds = new ArrayList<>(new TreeSet<>(ids));
+        if (sortedIds.isEmpty()) {
+            return results;
+        }
+        
+        Map<Integer, Order.OrderStatus> current = new HashMap<>();
+        Map<Integer, Integer> students = new HashMap<>();
+        String select = "SELECT id, status, user_id FROM t_order WHERE id IN (" + placeholders(sortedIds.size()) +
+                        ") ORDER BY id FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(select)) {
+            for (int i = 0; i < sortedIds.size(); i++) {
+                stmt.setInt(i + 1, sortedIds.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    current.put(rs.getInt(1), Order.OrderStatus.valueOf(rs.getString(2)));
+                    students.put(rs.getInt(1), rs.getInt(3));
+                }
+            }
+        }
+        
+        List<Integer> eligible = new ArrayList<>();
+        for (Integer id : sortedIds) {
+            Order.OrderStatus status = current.get(id);
+            if (status != null && from.contains(status)) {
+                eligible.add(id);
+            }
+        }
+        
+        if (!eligible.isEmpty()) {
+            List<Order.OrderStatus> fromList = new ArrayList<>(from);
+            String update = "UPDATE t_order SET status = ? WHERE id IN (" + placeholders(eligible.size()) +
+                            ") AND status IN (" + placeholders(fromList.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(update)) {
+                int index = 1;
+                stmt.setString(index++, to.name());
+                for (Integer id : eligible) {
+                    stmt.setInt(index++, id);
+                }
+                for (Order.OrderStatus status : fromList) {
+                    stmt.setString(index++, status.name());
+                }
+                int updated = stmt.executeUpdate();
+                // 行已加锁，更新行数必然等于符合条件的订单数；不等说明并发控制失效，交由调用方回滚
+                if (updated != eligible.size()) {
+                    throw new SQLException("批量迁移订单状态时更新行数不符: 期望 " + eligible.size() + "，实际 " + updated);
+                }
+            }
+        }
+        
+        for (Integer id : ids) {
+            Order.OrderStatus status = current.get(id);
+            if (status == null) {
+                results.put(id, TransitionResult.notFound());
+            } else if (from.contains(status)) {
+                results.put(id, TransitionResult.applied(status, to, students.get(id)));
+            } else {
+                results.put(id, TransitionResult.rejected(status, students.get(id)));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<Integer, Integer> sumItemQuantitiesByBook(Connection conn, Collection<Integer> orderIds) throws SQLException {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return quantities;
+        }
+        
+        List<Integer> idList = new ArrayList<>(orderIds);
+        String sql = "SELECT book_id, SUM(quantity) FROM t_order_item WHERE order_id IN (" +
+                     placeholders(idList.size()) + ") GROUP BY book_id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < idList.size(); i++) {
+                stmt.setInt(i + 1, idList.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    quantities.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+        return quantities;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
     @Override
     public boolean delete(Integer id) {
         String sql = "DELETE FROM t_order WHERE id = ?";
@@ -354,11 +556,15 @@ public class OrderDAOImpl implements OrderDAO {
     }
 
     public int getTodayOrderCount() {
-        String sql = "SELECT COUNT(*) FROM t_order WHERE DATE(create_time) = CURDATE()";
+        // 用时间范围代替 DATE(create_time) = CURDATE()，可以走 create_time 索引，H2下也能执行
+        String sql = "SELECT COUNT(*) FROM t_order WHERE create_time >= ? AND create_time < ?";
+        LocalDate today = LocalDate.now();
         
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            stmt.setTimestamp(1, Timestamp.valueOf(today.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(today.plusDays(1).atStartOfDay()));
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -403,6 +609,296 @@ public class OrderDAOImpl implements OrderDAO {
         return order;
     }
 
+    /**
+     * 增量查询变更的订单
+     */
+    @Override
+    public List<Order> findUpdatedSince(Integer studentId, Timestamp since, Integer afterId, int limit) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM t_order WHERE " +
+                    (studentId != null ? "user_id = ? AND " : "") +
+                    "(update_time > ? OR (update_time = ? AND id > ?)) ORDER BY update_time, id LIMIT ?";
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (studentId != null) {
+                stmt.setInt(index++, studentId);
+            }
+            stmt.setTimestamp(index++, since);
+            stmt.setTimestamp(index++, since);
+            stmt.setInt(index++, afterId != null ? afterId : 0);
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("增量查询订单变更失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
+    /**
+     * 获取订单表最新的更新时间
+     */
+    @Override
+    public Timestamp getLatestUpdateTime(Integer studentId) {
+        String sql = "SELECT MAX(update_time) FROM t_order" + (studentId != null ? " WHERE user_id = ?" : "");
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            if (studentId != null) {
+                stmt.setInt(1, studentId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getTimestamp(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("查询订单最新更新时间失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public Map<Order.OrderStatus, Long> countGroupByStatus(Integer studentId) throws SQLException {
+        String sql = "SELECT status, COUNT(*) FROM t_order" + (studentId != null ? " WHERE user_id = ?" : "") +
+                     " GROUP BY status";
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            if (studentId != null) {
+                stmt.setInt(1, studentId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(Order.OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<LocalDate, Long> countGroupByDay(Timestamp since) throws SQLException {
+        String sql = "SELECT CAST(create_time AS DATE), COUNT(*) FROM t_order " +
+                     "WHERE create_time >= ? GROUP BY CAST(create_time AS DATE)";
+        Map<LocalDate, Long> counts = new HashMap<>();
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 键集分页：下一页（更早的订单）
+     */
+    @Override
+    public List<Order> findPageAfter(OrderQuery query, Timestamp afterCreateTime, Integer afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM t_order WHERE 1 = 1");
+        appendQueryConditions(sql, params, query);
+        if (afterCreateTime != null) {
+            sql.append(" AND (create_time < ? OR (create_time = ? AND id < ?))");
+            params.add(afterCreateTime);
+            params.add(afterCreateTime);
+            params.add(afterId);
+        }
+        sql.append(" ORDER BY create_time DESC, id DESC LIMIT ?");
+        params.add(limit);
+        
+        return queryOrders(sql.toString(), params);
+    }
+
+    /**
+     * 键集分页：上一页（更新的订单）
+     */
+    @Override
+    public List<Order> findPageBefore(OrderQuery query, Timestamp beforeCreateTime, Integer beforeId, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM t_order WHERE 1 = 1");
+        appendQueryConditions(sql, params, query);
+        sql.append(" AND (create_time > ? OR (create_time = ? AND id > ?))");
+        params.add(beforeCreateTime);
+        params.add(beforeCreateTime);
+        params.add(beforeId);
+        sql.append(" ORDER BY create_time ASC, id ASC LIMIT ?");
+        params.add(limit);
+        
+        // 正序扫描得到的结果恢复为倒序
+        List<Order> orders = queryOrders(sql.toString(), params);
+        Collections.reverse(orders);
+        return orders;
+    }
+
+    /**
+     * 偏移量分页
+     */
+    @Override
+    public List<Order> findPageByOffset(OrderQuery query, int offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT o.* FROM t_order o JOIN (SELECT id FROM t_order WHERE 1 = 1");
+        appendQueryConditions(sql, params, query);
+        // 延迟关联：子查询在二级索引上跳过 offset 行只取ID，外层只回表本页的行
+        sql.append(" ORDER BY create_time DESC, id DESC LIMIT ? OFFSET ?) p ON o.id = p.id");
+        sql.append(" ORDER BY o.create_time DESC, o.id DESC");
+        params.add(limit);
+        params.add(offset);
+        
+        return queryOrders(sql.toString(), params);
+    }
+
+    /**
+     * 统计满足条件的订单数量
+     */
+    @Override
+    public int getTotalCount(OrderQuery query) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM t_order WHERE 1 = 1");
+        appendQueryConditions(sql, params, query);
+        
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("统计订单数量失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * 基于令牌的键集分页：下一页
+     */
+    @Override
+    public KeysetPage<Order> findAfter(OrderQuery query, String token, int limit) {
+        if (limit <= 0) {
+            return KeysetPage.empty();
+        }
+        PageToken anchor = token != null ? PageToken.parseOrder(token) : null;
+        // 多取一行用于判断是否还有下一页
+        List<Order> orders = anchor != null
+                ? findPageAfter(query, anchor.getCreateTime(), anchor.getId(), limit + 1)
+                : findPageAfter(query, null, null, limit + 1);
+        
+        boolean hasNext = orders.size() > limit;
+        if (hasNext) {
+            orders = new ArrayList<>(orders.subList(0, limit));
+        }
+        if (orders.isEmpty()) {
+            return new KeysetPage<>(orders, null, token);
+        }
+        Order first = orders.get(0);
+        Order last = orders.get(orders.size() - 1);
+        return new KeysetPage<>(orders,
+                hasNext ? PageToken.forOrder(last.getCreateTime(), last.getId()) : null,
+                anchor != null ? PageToken.forOrder(first.getCreateTime(), first.getId()) : null);
+    }
+
+    /**
+     * 基于令牌的键集分页：上一页
+     */
+    @Override
+    public KeysetPage<Order> findBefore(OrderQuery query, String token, int limit) {
+        if (token == null) {
+            return findAfter(query, null, limit);
+        }
+        if (limit <= 0) {
+            return KeysetPage.empty();
+        }
+        PageToken anchor = PageToken.parseOrder(token);
+        // 多取一行用于判断是否还有上一页；结果已恢复为倒序，多出的一行在最前面
+        List<Order> orders = findPageBefore(query, anchor.getCreateTime(), anchor.getId(), limit + 1);
+        
+        boolean hasPrevious = orders.size() > limit;
+        if (hasPrevious) {
+            orders = new ArrayList<>(orders.subList(orders.size() - limit, orders.size()));
+        }
+        if (orders.isEmpty()) {
+            return new KeysetPage<>(orders, token, null);
+        }
+        Order first = orders.get(0);
+        Order last = orders.get(orders.size() - 1);
+        return new KeysetPage<>(orders,
+                PageToken.forOrder(last.getCreateTime(), last.getId()),
+                hasPrevious ? PageToken.forOrder(first.getCreateTime(), first.getId()) : null);
+    }
+
+    /**
+     * 追加订单查询条件
+     */
+    private void appendQueryConditions(StringBuilder sql, List<Object> params, OrderQuery query) {
+        if (query == null) {
+            return;
+        }
+        if (query.getStatus() != null) {
+            sql.append(" AND status = ?");
+            params.add(query.getStatus().name());
+        }
+        if (query.getStudentId() != null) {
+            sql.append(" AND user_id = ?");
+            params.add(query.getStudentId());
+        }
+        if (query.getStudentNameKeyword() != null && !query.getStudentNameKeyword().trim().isEmpty()) {
+            sql.append(" AND user_id IN (SELECT id FROM t_user WHERE name LIKE ?)");
+            params.add("%" + query.getStudentNameKeyword().trim() + "%");
+        }
+    }
+
+    /**
+     * 按顺序绑定参数
+     */
+    private void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * 执行订单查询
+     */
+    private List<Order> queryOrders(String sql, List<Object> params) {
+        List<Order> orders = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("分页查询订单失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
     /**
      * 批量插入订单详情
      * @param orderDetails 订单详情列表
@@ -417,15 +913,27 @@ public class OrderDAOImpl implements OrderDAO {
         
         System.out.println("[DEBUG] 开始批量插入订单详情，数量: " + orderDetails.size());
         
+        try (Connection conn = DBUtil.getConnection()) {
+            return insertOrderDetails(conn, orderDetails);
+        } catch (SQLException e) {
+            System.out.println("[ERROR] 批量插入订单详情失败，SQL异常: " + e.getMessage());
+            System.out.println("[ERROR] SQL状态码: " + e.getSQLState());
+            System.out.println("[ERROR] 错误代码: " + e.getErrorCode());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean insertOrderDetails(Connection conn, List<OrderDetail> orderDetails) throws SQLException {
+        if (orderDetails == null || orderDetails.isEmpty()) {
+            return true;
+        }
+        
         String sql = "INSERT INTO t_order_item (order_id, book_id, quantity, price) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            for (int i = 0; i < orderDetails.size(); i++) {
-                OrderDetail detail = orderDetails.get(i);
-                System.out.println("[DEBUG] 准备插入第" + (i+1) + "个订单详情 - 订单ID: " + detail.getOrderId() + ", 图书ID: " + detail.getBookId() + ", 数量: " + detail.getQuantity() + ", 价格: " + detail.getPrice());
-                
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (OrderDetail detail : orderDetails) {
                 stmt.setInt(1, detail.getOrderId());
                 stmt.setInt(2, detail.getBookId());
                 stmt.setInt(3, detail.getQuantity());
@@ -433,27 +941,16 @@ public class OrderDAOImpl implements OrderDAO {
                 stmt.addBatch();
             }
             
-            System.out.println("[DEBUG] 执行批量插入SQL: " + sql);
             int[] results = stmt.executeBatch();
-            System.out.println("[DEBUG] 批量插入结果数组长度: " + results.length);
-            
-            // 检查是否所有插入都成功
+            // rewriteBatchedStatements 开启时驱动会把批量插入改写为多值INSERT，
+            // 每项结果返回 SUCCESS_NO_INFO(-2)，同样视为成功
             for (int i = 0; i < results.length; i++) {
-                System.out.println("[DEBUG] 第" + (i+1) + "个订单详情插入结果: " + results[i]);
-                if (results[i] <= 0) {
+                if (results[i] <= 0 && results[i] != Statement.SUCCESS_NO_INFO) {
                     System.out.println("[ERROR] 第" + (i+1) + "个订单详情插入失败，影响行数: " + results[i]);
                     return false;
                 }
             }
-            
-            System.out.println("[DEBUG] 所有订单详情插入成功");
             return true;
-        } catch (SQLException e) {
-            System.out.println("[ERROR] 批量插入订单详情失败，SQL异常: " + e.getMessage());
-            System.out.println("[ERROR] SQL状态码: " + e.getSQLState());
-            System.out.println("[ERROR] 错误代码: " + e.getErrorCode());
-            e.printStackTrace();
-            return false;
         }
     }
 
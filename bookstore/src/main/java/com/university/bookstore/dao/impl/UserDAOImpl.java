@@ -6,13 +6,22 @@ import com.university.bookstore.util.DBUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 用户数据访问对象实现类
  */
 public class UserDAOImpl implements UserDAO {
 
+    /**
+     * IN 子句单批最大参数个数
+     */
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
+
     /**
      * 根据用户名和密码查找用户（用于登录验证）
      */
@@ -83,6 +92,52 @@ public class UserDAOImpl implements UserDAO {
         return null;
     }
 
+    /**
+     * 根据ID集合批量查找用户
+     * ID去重后按 IN_CLAUSE_BATCH_SIZE 分批，避免单条SQL参数过多
+     */
+    @Override
+    public List<User> findByIds(Collection<Integer> ids) {
+        List<User> users = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return users;
+        }
+        
+        Set<Integer> distinctIds = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                distinctIds.add(id);
+            }
+        }
+        if (distinctIds.isEmpty()) {
+            return users;
+        }
+        
+        List<Integer> idList = new ArrayList<>(distinctIds);
+        try (Connection conn = DBUtil.getConnection()) {
+            for (int from = 0; from < idList.size(); from += IN_CLAUSE_BATCH_SIZE) {
+                List<Integer> batch = idList.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, idList.size()));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                String sql = "SELECT * FROM t_user WHERE id IN (" + placeholders + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setInt(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            users.add(mapResultSetToUser(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("批量查询用户失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return users;
+    }
+
     /**
      * 查找所有用户
      */
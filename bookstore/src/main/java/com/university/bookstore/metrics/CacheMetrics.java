@@ -0,0 +1,64 @@
+package com.university.bookstore.metrics;
+
+import com.university.bookstore.util.CacheManager;
+
+/**
+ * 缓存管理器的JMX实现，每次读取属性时取最新统计
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+
+    @Override
+    public int getSize() {
+        return CacheManager.stats().getSize();
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return CacheManager.stats().getWeightedSize();
+    }
+
+    @Override
+    public long getMaximumWeight() {
+        return CacheManager.stats().getMaximumWeight();
+    }
+
+    @Override
+    public long getHitCount() {
+        return CacheManager.stats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return CacheManager.stats().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return CacheManager.stats().getHitRate();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return CacheManager.stats().getEvictionCount();
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return CacheManager.stats().getExpirationCount();
+    }
+
+    @Override
+    public void clear() {
+        CacheManager.clear();
+    }
+
+    @Override
+    public void clearRegion(String region) {
+        CacheManager.clearRegion(region);
+    }
+
+    @Override
+    public void invalidateTag(String tag) {
+        CacheManager.invalidateTags(tag);
+    }
+}
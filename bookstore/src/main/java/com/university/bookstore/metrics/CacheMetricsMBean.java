@@ -0,0 +1,38 @@
+package com.university.bookstore.metrics;
+
+/**
+ * 缓存管理器的JMX接口
+ */
+public interface CacheMetricsMBean {
+
+    int getSize();
+
+    long getWeightedSize();
+
+    long getMaximumWeight();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getExpirationCount();
+
+    /**
+     * 清空所有缓存
+     */
+    void clear();
+
+    /**
+     * 清除一个缓存区域（键中第一个冒号之前的部分，如 books_search）
+     */
+    void clearRegion(String region);
+
+    /**
+     * 按标签失效缓存，如 books:list、book:42
+     */
+    void invalidateTag(String tag);
+}
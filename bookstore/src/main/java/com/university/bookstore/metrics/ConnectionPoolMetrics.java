@@ -0,0 +1,68 @@
+package com.university.bookstore.metrics;
+
+import com.university.bookstore.util.DBUtil;
+import com.university.bookstore.util.JdbcInstrumentation;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * 数据库连接池的JMX实现，数据源未初始化时各计数返回0
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolMetricsMBean {
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        return pool != null ? pool.getIdleConnections() : 0;
+    }
+
+    @Override
+    public int getTotalConnections() {
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        return pool != null ? pool.getTotalConnections() : 0;
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return DBUtil.getMaximumPoolSize();
+    }
+
+    @Override
+    public double getPoolWaitP99Millis() {
+        return JdbcInstrumentation.getPoolWaitSnapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getPoolWaitMaxMillis() {
+        return JdbcInstrumentation.getPoolWaitSnapshot().getMaxMillis();
+    }
+
+    @Override
+    public double getConnectionHoldP99Millis() {
+        return JdbcInstrumentation.getConnectionHoldSnapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getConnectionHoldMaxMillis() {
+        return JdbcInstrumentation.getConnectionHoldSnapshot().getMaxMillis();
+    }
+
+    @Override
+    public void softEvictConnections() {
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        if (pool != null) {
+            pool.softEvictConnections();
+        }
+    }
+}
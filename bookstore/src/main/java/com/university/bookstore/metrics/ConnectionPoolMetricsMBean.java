@@ -0,0 +1,31 @@
+package com.university.bookstore.metrics;
+
+/**
+ * 数据库连接池的JMX接口
+ * 等待时间和持有时间只在开启JDBC埋点时有数据
+ */
+public interface ConnectionPoolMetricsMBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getThreadsAwaitingConnection();
+
+    int getMaximumPoolSize();
+
+    double getPoolWaitP99Millis();
+
+    double getPoolWaitMaxMillis();
+
+    double getConnectionHoldP99Millis();
+
+    double getConnectionHoldMaxMillis();
+
+    /**
+     * 软驱逐空闲连接，正在使用的连接归还后关闭
+     */
+    void softEvictConnections();
+}
@@ -0,0 +1,84 @@
+package com.university.bookstore.metrics;
+
+import com.university.bookstore.util.PerformanceMonitor;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 把应用指标注册到平台 MBeanServer，供 JConsole/VisualVM 查看
+ *
+ * com.university.bookstore:type=Cache            缓存统计，可清空缓存/区域/标签
+ * com.university.bookstore:type=ConnectionPool   连接池状态
+ * com.university.bookstore:type=Performance      统计开关与重置
+ * com.university.bookstore:type=Operation,name=* 每个被监控操作的次数与分位数，
+ *                                                 操作第一次被记录时自动注册
+ */
+public class MetricsRegistry {
+
+    private static final String DOMAIN = "com.university.bookstore";
+
+    private static final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+    private static final Consumer<String> operationRegistrar = MetricsRegistry::registerOperation;
+    private static boolean started = false;
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * 注册所有MBean
+     */
+    public static synchronized void register() {
+        if (started) {
+            return;
+        }
+        register(new CacheMetrics(), "type=Cache");
+        register(new ConnectionPoolMetrics(), "type=ConnectionPool");
+        register(new PerformanceControl(), "type=Performance");
+        PerformanceMonitor.addOperationListener(operationRegistrar);
+        started = true;
+        System.out.println("JMX指标已注册: " + DOMAIN);
+    }
+
+    /**
+     * 注销所有MBean
+     */
+    public static synchronized void unregister() {
+        if (!started) {
+            return;
+        }
+        PerformanceMonitor.removeOperationListener(operationRegistrar);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                System.err.println("注销MBean失败: " + name + " - " + e.getMessage());
+            }
+        }
+        registered.clear();
+        started = false;
+    }
+
+    private static void registerOperation(String operation) {
+        register(new OperationMetrics(operation), "type=Operation,name=" + ObjectName.quote(operation));
+    }
+
+    private static void register(Object mbean, String properties) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+            registered.add(name);
+        } catch (InstanceAlreadyExistsException e) {
+            // 统计被清空后同名操作再次出现，沿用已注册的MBean
+        } catch (JMException e) {
+            System.err.println("注册MBean失败: " + properties + " - " + e.getMessage());
+        }
+    }
+}
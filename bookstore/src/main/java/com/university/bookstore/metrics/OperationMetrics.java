@@ -0,0 +1,80 @@
+package com.university.bookstore.metrics;
+
+import com.university.bookstore.util.PerformanceMonitor;
+
+/**
+ * 单个被监控操作的JMX实现，数据来自 PerformanceMonitor
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    private final String name;
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return PerformanceMonitor.getSnapshot(name).getCount();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return PerformanceMonitor.getSnapshot(name).getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return PerformanceMonitor.getPercentile(name, 50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return PerformanceMonitor.getPercentile(name, 90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return PerformanceMonitor.getPercentile(name, 99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return PerformanceMonitor.getPercentile(name, 99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return PerformanceMonitor.getSnapshot(name).getMaxMillis();
+    }
+
+    @Override
+    public long getWindowCount() {
+        return PerformanceMonitor.getWindowSnapshot(name).getCount();
+    }
+
+    @Override
+    public double getWindowP99Millis() {
+        return PerformanceMonitor.getWindowSnapshot(name).getPercentileMillis(99);
+    }
+
+    @Override
+    public double getWindowMaxMillis() {
+        return PerformanceMonitor.getWindowSnapshot(name).getMaxMillis();
+    }
+
+    @Override
+    public double getAllocatedBytesPerCall() {
+        return PerformanceMonitor.getAllocatedBytesPerCall(name);
+    }
+
+    @Override
+    public long getMaxAllocatedBytes() {
+        return PerformanceMonitor.getMaxAllocatedBytes(name);
+    }
+}
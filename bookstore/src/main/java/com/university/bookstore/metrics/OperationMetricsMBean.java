@@ -0,0 +1,37 @@
+package com.university.bookstore.metrics;
+
+/**
+ * 单个被监控操作的JMX接口
+ * 不带 Window 的属性为自启动（或上次重置）以来的累计值，带 Window 的为最近1分钟
+ */
+public interface OperationMetricsMBean {
+
+    String getName();
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    long getWindowCount();
+
+    double getWindowP99Millis();
+
+    double getWindowMaxMillis();
+
+    /**
+     * 每次调用平均分配的堆内存（字节）
+     */
+    double getAllocatedBytesPerCall();
+
+    long getMaxAllocatedBytes();
+}
@@ -0,0 +1,86 @@
+package com.university.bookstore.metrics;
+
+import com.university.bookstore.util.FlightRecording;
+import com.university.bookstore.util.JdbcInstrumentation;
+import com.university.bookstore.util.LatencySnapshot;
+import com.university.bookstore.util.PerformanceMonitor;
+import com.university.bookstore.util.SlowQueryLog;
+import com.university.bookstore.util.SqlStatistics;
+
+import java.util.List;
+
+/**
+ * 性能统计开关与重置的JMX实现
+ */
+public class PerformanceControl implements PerformanceControlMBean {
+
+    @Override
+    public String[] getOperationNames() {
+        return PerformanceMonitor.getSnapshots().keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public boolean isJdbcInstrumentationEnabled() {
+        return JdbcInstrumentation.isEnabled();
+    }
+
+    @Override
+    public void setJdbcInstrumentationEnabled(boolean enabled) {
+        JdbcInstrumentation.setEnabled(enabled);
+    }
+
+    @Override
+    public boolean isFlightRecorderEventsEnabled() {
+        return FlightRecording.isEnabled();
+    }
+
+    @Override
+    public void setFlightRecorderEventsEnabled(boolean enabled) {
+        FlightRecording.setEnabled(enabled);
+    }
+
+    @Override
+    public boolean isSlowQueryLogEnabled() {
+        return SlowQueryLog.isEnabled();
+    }
+
+    @Override
+    public void setSlowQueryLogEnabled(boolean enabled) {
+        SlowQueryLog.setEnabled(enabled);
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return SlowQueryLog.getThresholdMillis();
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        SlowQueryLog.setThresholdMillis(thresholdMillis);
+    }
+
+    @Override
+    public void resetStatistics() {
+        PerformanceMonitor.clearStatistics();
+    }
+
+    @Override
+    public void resetJdbcStatistics() {
+        JdbcInstrumentation.reset();
+    }
+
+    @Override
+    public String[] topStatements(int limit) {
+        List<SqlStatistics> statistics = JdbcInstrumentation.getStatistics();
+        int count = Math.max(0, Math.min(limit, statistics.size()));
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            SqlStatistics stats = statistics.get(i);
+            LatencySnapshot latency = stats.getLatency();
+            lines[i] = String.format("total=%.3fms count=%d rows=%d p99=%.3fms  %s",
+                    stats.getTotalNanos() / 1_000_000.0, stats.getExecutionCount(), stats.getRowCount(),
+                    latency.getPercentileMillis(99), stats.getSql());
+        }
+        return lines;
+    }
+}
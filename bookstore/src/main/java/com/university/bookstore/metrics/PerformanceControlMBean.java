@@ -0,0 +1,40 @@
+package com.university.bookstore.metrics;
+
+/**
+ * 性能统计开关与重置的JMX接口
+ */
+public interface PerformanceControlMBean {
+
+    String[] getOperationNames();
+
+    boolean isJdbcInstrumentationEnabled();
+
+    void setJdbcInstrumentationEnabled(boolean enabled);
+
+    boolean isFlightRecorderEventsEnabled();
+
+    void setFlightRecorderEventsEnabled(boolean enabled);
+
+    boolean isSlowQueryLogEnabled();
+
+    void setSlowQueryLogEnabled(boolean enabled);
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /**
+     * 清空所有操作的耗时统计
+     */
+    void resetStatistics();
+
+    /**
+     * 清空SQL统计、连接池等待和持有时间
+     */
+    void resetJdbcStatistics();
+
+    /**
+     * 返回按总耗时排序的前 limit 条SQL统计
+     */
+    String[] topStatements(int limit);
+}
@@ -0,0 +1,198 @@
+package com.university.bookstore.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.university.bookstore.util.CacheManager;
+import com.university.bookstore.util.CacheStats;
+import com.university.bookstore.util.DBUtil;
+import com.university.bookstore.util.JdbcInstrumentation;
+import com.university.bookstore.util.LatencySnapshot;
+import com.university.bookstore.util.PerformanceMonitor;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prometheus 文本格式的指标导出
+ *
+ * 使用JDK自带的 com.sun.net.httpserver 在本地端口提供 GET /metrics，内容包括：
+ * 各操作的耗时摘要（分位数、总和、次数）和内存分配量、缓存统计、连接池状态，
+ * 以及开启JDBC埋点时的连接池等待和连接持有时间摘要。
+ *
+ * 默认不启动；设置系统属性 bookstore.metrics.port 后在 PerformanceConfig 初始化时启动，
+ * 默认只监听 127.0.0.1，可用 bookstore.metrics.host 修改。
+ */
+public class PrometheusExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private PrometheusExporter() {
+    }
+
+    /**
+     * 配置了 bookstore.metrics.port 时启动导出服务
+     */
+    public static void startIfConfigured() {
+        Integer port = Integer.getInteger("bookstore.metrics.port");
+        if (port != null) {
+            start(System.getProperty("bookstore.metrics.host", "127.0.0.1"), port);
+        }
+    }
+
+    /**
+     * 启动导出服务
+     * @param host 监听地址
+     * @param port 监听端口
+     */
+    public static synchronized void start(String host, int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpServer.createContext("/metrics", PrometheusExporter::handle);
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MetricsExporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            httpServer.setExecutor(executor);
+            httpServer.start();
+            server = httpServer;
+            System.out.println("指标导出已启动: http://" + host + ":" + port + "/metrics");
+        } catch (IOException e) {
+            System.err.println("指标导出启动失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 停止导出服务
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("生成指标失败: " + e.getMessage());
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 生成当前所有指标的文本
+     */
+    static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        Map<String, LatencySnapshot> operations = PerformanceMonitor.getSnapshots();
+        header(out, "bookstore_operation_latency_seconds", "summary", "Latency of monitored operations");
+        for (Map.Entry<String, LatencySnapshot> operation : operations.entrySet()) {
+            summary(out, "bookstore_operation_latency_seconds",
+                    "operation=\"" + escape(operation.getKey()) + "\"", operation.getValue());
+        }
+        if (PerformanceMonitor.isAllocationTrackingSupported()) {
+            header(out, "bookstore_operation_allocated_bytes_total", "counter",
+                    "Heap bytes allocated by the calling thread during monitored operations");
+            for (String operation : operations.keySet()) {
+                out.append("bookstore_operation_allocated_bytes_total{operation=\"").append(escape(operation)).append("\"} ")
+                   .append(PerformanceMonitor.getTotalAllocatedBytes(operation)).append('\n');
+            }
+        }
+
+        CacheStats cache = CacheManager.stats();
+        gauge(out, "bookstore_cache_entries", "Number of cache entries", cache.getSize());
+        gauge(out, "bookstore_cache_weight", "Current total weight of cache entries", cache.getWeightedSize());
+        gauge(out, "bookstore_cache_max_weight", "Maximum total weight of the cache", cache.getMaximumWeight());
+        counter(out, "bookstore_cache_hits_total", "Cache hits", cache.getHitCount());
+        counter(out, "bookstore_cache_misses_total", "Cache misses", cache.getMissCount());
+        counter(out, "bookstore_cache_evictions_total", "Entries evicted for capacity", cache.getEvictionCount());
+        counter(out, "bookstore_cache_expirations_total", "Entries removed after expiring", cache.getExpirationCount());
+
+        HikariPoolMXBean pool = DBUtil.getPoolMXBean();
+        if (pool != null) {
+            gauge(out, "bookstore_db_pool_active_connections", "Connections in use", pool.getActiveConnections());
+            gauge(out, "bookstore_db_pool_idle_connections", "Idle connections", pool.getIdleConnections());
+            gauge(out, "bookstore_db_pool_total_connections", "Open connections", pool.getTotalConnections());
+            gauge(out, "bookstore_db_pool_pending_threads", "Threads waiting for a connection",
+                    pool.getThreadsAwaitingConnection());
+            gauge(out, "bookstore_db_pool_max_connections", "Maximum pool size", DBUtil.getMaximumPoolSize());
+        }
+
+        if (JdbcInstrumentation.isEnabled()) {
+            header(out, "bookstore_db_pool_wait_seconds", "summary", "Time spent waiting for a pooled connection");
+            summary(out, "bookstore_db_pool_wait_seconds", null, JdbcInstrumentation.getPoolWaitSnapshot());
+            header(out, "bookstore_db_connection_hold_seconds", "summary", "Time a connection is held before returning");
+            summary(out, "bookstore_db_connection_hold_seconds", null, JdbcInstrumentation.getConnectionHoldSnapshot());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        header(out, name, "counter", help);
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencySnapshot snapshot) {
+        String prefix = labels != null ? labels + "," : "";
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+               .append(format(snapshot.getValueAtPercentile(quantile * 100) / 1e9)).append('\n');
+        }
+        String suffix = labels != null ? "{" + labels + "}" : "";
+        out.append(name).append("_sum").append(suffix).append(' ')
+           .append(format(snapshot.getTotalNanos() / 1e9)).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ')
+           .append(snapshot.getCount()).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.9g", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -2,6 +2,7 @@ package com.university.bookstore.model;
 
 import javafx.beans.property.*;
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 
 /**
  * 教材实体类
@@ -16,6 +17,7 @@ public class Book {
     private BigDecimal price;
     private Integer stock;
     private String description;
+    private Timestamp updateTime;
 
     /**
      * 默认构造函数
@@ -148,6 +150,14 @@ public class Book {
         this.description = description;
     }
 
+    public Timestamp getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Timestamp updateTime) {
+        this.updateTime = updateTime;
+    }
+
     @Override
     public String toString() {
         return "Book{" +
@@ -41,6 +41,20 @@ public class Order {
         public String getDisplayName() {
             return displayName;
         }
+
+        /**
+         * 根据显示名称查找订单状态
+         * @param displayName 显示名称，如"待支付"
+         * @return 对应的订单状态，未匹配（如"全部订单"）时返回null
+         */
+        public static OrderStatus fromDisplayName(String displayName) {
+            for (OrderStatus status : values()) {
+                if (status.displayName.equals(displayName)) {
+                    return status;
+                }
+            }
+            return null;
+        }
     }
 
     /**
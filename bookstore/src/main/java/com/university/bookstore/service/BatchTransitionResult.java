@@ -0,0 +1,109 @@
+package com.university.bookstore.service;
+
+import com.university.bookstore.dao.TransitionResult;
+import com.university.bookstore.model.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量订单状态操作的结果
+ * 按提交顺序记录每个订单的迁移结果；分块执行时某一块数据库失败，该块订单记为失败并附带错误信息
+ */
+public class BatchTransitionResult {
+
+    private final Order.OrderStatus targetStatus;
+    private final Map<Integer, TransitionResult> outcomes = new LinkedHashMap<>();
+    private final Map<Integer, String> errors = new LinkedHashMap<>();
+
+    public BatchTransitionResult(Order.OrderStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    /**
+     * 记录一块订单的迁移结果
+     */
+    public void addOutcomes(Map<Integer, TransitionResult> chunkOutcomes) {
+        outcomes.putAll(chunkOutcomes);
+    }
+
+    /**
+     * 记录一块因数据库异常整体回滚的订单
+     */
+    public void addError(List<Integer> orderIds, String message) {
+        for (Integer orderId : orderIds) {
+            errors.put(orderId, message);
+        }
+    }
+
+    public Order.OrderStatus getTargetStatus() {
+        return targetStatus;
+    }
+
+    /**
+     * 每个订单的迁移结果（不含因异常回滚的订单）
+     */
+    public Map<Integer, TransitionResult> getOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    /**
+     * 因数据库异常未能处理的订单及错误信息
+     */
+    public Map<Integer, String> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * 迁移成功的订单ID
+     */
+    public List<Integer> getSucceededIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (Map.Entry<Integer, TransitionResult> entry : outcomes.entrySet()) {
+            if (entry.getValue().isApplied()) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    public int getSucceededCount() {
+        return getSucceededIds().size();
+    }
+
+    public int getFailedCount() {
+        return outcomes.size() + errors.size() - getSucceededCount();
+    }
+
+    /**
+     * 失败原因的可读描述，每个订单一行
+     */
+    public String describeFailures() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, TransitionResult> entry : outcomes.entrySet()) {
+            TransitionResult result = entry.getValue();
+            if (result.isApplied()) {
+                continue;
+            }
+            sb.append("订单 ").append(entry.getKey()).append(": ");
+            if (result.isNotFound()) {
+                sb.append("不存在");
+            } else {
+                sb.append("当前状态为").append(result.getCurrentStatus().getDisplayName());
+            }
+            sb.append('\n');
+        }
+        for (Map.Entry<Integer, String> entry : errors.entrySet()) {
+            sb.append("订单 ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchTransitionResult{" + targetStatus + ", 成功 " + getSucceededCount() + ", 失败 " + getFailedCount() + "}";
+    }
+}
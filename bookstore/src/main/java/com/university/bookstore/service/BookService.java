@@ -1,5 +1,6 @@
 package com.university.bookstore.service;
 
+import com.university.bookstore.dao.KeysetPage;
 import com.university.bookstore.model.Book;
 
 import java.math.BigDecimal;
@@ -50,6 +51,49 @@ public interface BookService {
      */
     int getTotalBookCount();
     
+    /**
+     * 键集分页：获取ID大于 afterId 的下一页图书（按ID升序）
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param afterId 上一页最后一本图书的ID，为null时从第一页开始
+     * @param pageSize 每页大小
+     * @return 图书列表
+     */
+    List<Book> getBooksPageAfter(String keyword, Integer afterId, int pageSize);
+    
+    /**
+     * 键集分页：获取ID小于 beforeId 的上一页图书（按ID升序）
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param beforeId 当前页第一本图书的ID
+     * @param pageSize 每页大小
+     * @return 图书列表
+     */
+    List<Book> getBooksPageBefore(String keyword, Integer beforeId, int pageSize);
+    
+    /**
+     * 按偏移量获取一页图书（跳页时使用，按ID升序）
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时不过滤
+     * @param offset 偏移量
+     * @param pageSize 每页大小
+     * @return 图书列表
+     */
+    List<Book> getBooksPageByOffset(String keyword, int offset, int pageSize);
+    
+    /**
+     * 统计匹配关键词的图书数量（带缓存）
+     * @param keyword 搜索关键词，为空时统计全部
+     * @return 图书数量
+     */
+    int countBooks(String keyword);
+    
+    /**
+     * 计算图书在按ID排序的分页结果中所在的页码
+     * @param keyword 搜索关键词，为空时不过滤
+     * @param bookId 图书ID
+     * @param pageSize 每页大小
+     * @return 页码（从1开始）
+     */
+    int getBookPageNumber(String keyword, Integer bookId, int pageSize);
+    
     /**
      * 根据标题搜索图书
      * @param title 标题关键词
@@ -180,4 +224,22 @@ public interface BookService {
      * @return 热门图书列表
      */
     List<Book> getPopularBooks(int limit);
-}
\ No newline at end of file
+    
+    /**
+     * 基于令牌的分页：获取下一页图书（按ID升序）
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），与 getBooksPageAfter 相同，为空时查询全部图书
+     * @param token 上一页返回的 nextToken，为null时获取第一页
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    KeysetPage<Book> getBooksAfter(String keyword, String token, int pageSize);
+    
+    /**
+     * 基于令牌的分页：获取上一页图书（按ID升序）
+     * @param keyword 搜索关键词（匹配书名、作者、ISBN），为空时查询全部图书
+     * @param token 当前页返回的 prevToken
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    KeysetPage<Book> getBooksBefore(String keyword, String token, int pageSize);
+}
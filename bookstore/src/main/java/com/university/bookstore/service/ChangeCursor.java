@@ -0,0 +1,121 @@
+package com.university.bookstore.service;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 变更游标
+ * 记录某个消费者已经看到的位置 (update_time, id)，增量拉取时从该位置继续。
+ *
+ * update_time 精度为秒，并且是语句执行时写入的，而不是事务提交时：同一秒内ID更小的行、
+ * 语句执行后过一会儿才提交的事务，都可能出现在水位之前。因此每次拉取从水位往前
+ * OVERLAP_MILLIS 重新读取，已经交给调用方、update_time 和内容指纹都未变的行按ID去重
+ * （同一秒内的再次修改 update_time 不变，靠内容指纹发现）。
+ * 上一次拉取被截断时不回退，按 (update_time, id) 继续往后读，保证追得上。
+ */
+public class ChangeCursor {
+
+    /**
+     * 每次拉取回退重读的时长，覆盖秒级时间戳和事务提交延迟
+     */
+    public static final long OVERLAP_MILLIS = 10_000;
+
+    private final Integer studentId;
+    private Timestamp watermark;
+    private Integer lastId;
+    private boolean truncated;
+    // 重叠窗口内已交出的行：ID -> 交出时的 update_time 和内容指纹
+    private final Map<Integer, Delivered> delivered = new HashMap<>();
+
+    private static final class Delivered {
+        final Timestamp updateTime;
+        final int fingerprint;
+
+        Delivered(Timestamp updateTime, int fingerprint) {
+            this.updateTime = updateTime;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * @param studentId 只关注该学生的订单，为null时关注全部
+     * @param watermark 起始更新时间
+     */
+    public ChangeCursor(Integer studentId, Timestamp watermark) {
+        this.studentId = studentId;
+        this.watermark = watermark != null ? watermark : new Timestamp(0);
+        this.lastId = 0;
+    }
+
+    /**
+     * 本次拉取的起始更新时间：正常时为水位减去重叠时长，上次被截断时为水位本身
+     */
+    public Timestamp getScanFrom() {
+        if (truncated) {
+            return watermark;
+        }
+        return new Timestamp(Math.max(0, watermark.getTime() - OVERLAP_MILLIS));
+    }
+
+    /**
+     * 本次拉取在起始更新时间上要跳过的最大ID：上次被截断时为水位上已读到的最大ID，否则为0（包含起始时间本身）
+     */
+    public Integer getScanAfterId() {
+        return truncated ? lastId : 0;
+    }
+
+    /**
+     * 记录拉取到的一条记录并推进水位（记录需按 (update_time, id) 升序传入）
+     * @param id 记录ID
+     * @param updateTime 记录更新时间
+     * @param fingerprint 记录内容指纹（会被界面展示或使用的字段的哈希）
+     * @return 是否需要交给调用方；重叠窗口内已交出且未变化的记录返回false
+     */
+    public boolean accept(Integer id, Timestamp updateTime, int fingerprint) {
+        if (updateTime == null) {
+            return true;
+        }
+        Delivered previous = delivered.put(id, new Delivered(updateTime, fingerprint));
+        boolean fresh = previous == null || !previous.updateTime.equals(updateTime) || previous.fingerprint != fingerprint;
+
+        if (updateTime.after(watermark)) {
+            watermark = updateTime;
+            lastId = id;
+        } else if (updateTime.equals(watermark) && id > lastId) {
+            lastId = id;
+        }
+        return fresh;
+    }
+
+    /**
+     * 一次拉取结束后丢弃重叠窗口之外的去重记录
+     */
+    public void prune() {
+        long from = watermark.getTime() - OVERLAP_MILLIS;
+        delivered.values().removeIf(entry -> entry.updateTime.getTime() < from);
+    }
+
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    public Timestamp getWatermark() {
+        return watermark;
+    }
+
+    public Integer getLastId() {
+        return lastId;
+    }
+
+    /**
+     * 上一次拉取是否因条数上限被截断（变更过多，调用方应整页重新加载）
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+}
@@ -0,0 +1,41 @@
+package com.university.bookstore.service;
+
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.Order;
+
+import java.util.List;
+
+/**
+ * 数据变更订阅服务接口
+ * 基于 update_time 增量返回上次拉取之后变更的记录，替代定时全表刷新。
+ * 每次拉取回退一段重叠时间重新读取（见 ChangeCursor），同一记录可能重复交出，调用方应按ID覆盖
+ */
+public interface ChangeFeedService {
+    
+    /**
+     * 打开教材变更游标，从当前最新的更新时间开始
+     * @return 教材变更游标
+     */
+    ChangeCursor openBookCursor();
+    
+    /**
+     * 打开订单变更游标，从当前最新的更新时间开始
+     * @param studentId 只关注该学生的订单，为null时关注全部
+     * @return 订单变更游标
+     */
+    ChangeCursor openOrderCursor(Integer studentId);
+    
+    /**
+     * 拉取游标之后变更的教材，并推进游标
+     * @param cursor 教材变更游标
+     * @return 变更的教材列表
+     */
+    List<Book> pollBookChanges(ChangeCursor cursor);
+    
+    /**
+     * 拉取游标之后变更的订单，并推进游标
+     * @param cursor 订单变更游标
+     * @return 变更的订单列表
+     */
+    List<Order> pollOrderChanges(ChangeCursor cursor);
+}
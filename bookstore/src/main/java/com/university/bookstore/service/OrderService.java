@@ -1,5 +1,7 @@
 package com.university.bookstore.service;
 
+import com.university.bookstore.dao.KeysetPage;
+import com.university.bookstore.dao.OrderQuery;
 import com.university.bookstore.model.Order;
 import com.university.bookstore.model.OrderDetail;
 import com.university.bookstore.model.CartItem;
@@ -67,6 +69,40 @@ public interface OrderService {
      */
     int getTotalOrderCount();
     
+    /**
+     * 键集分页：获取排在 last 之后的下一页订单（按创建时间、ID倒序）
+     * @param query 查询条件
+     * @param last 上一页最后一个订单，为null时从第一页开始
+     * @param pageSize 每页大小
+     * @return 订单列表
+     */
+    List<Order> getOrdersPageAfter(OrderQuery query, Order last, int pageSize);
+    
+    /**
+     * 键集分页：获取排在 first 之前的上一页订单（按创建时间、ID倒序）
+     * @param query 查询条件
+     * @param first 当前页第一个订单
+     * @param pageSize 每页大小
+     * @return 订单列表
+     */
+    List<Order> getOrdersPageBefore(OrderQuery query, Order first, int pageSize);
+    
+    /**
+     * 按偏移量获取一页订单（跳页时使用，按创建时间、ID倒序）
+     * @param query 查询条件
+     * @param offset 偏移量
+     * @param pageSize 每页大小
+     * @return 订单列表
+     */
+    List<Order> getOrdersPageByOffset(OrderQuery query, int offset, int pageSize);
+    
+    /**
+     * 统计满足条件的订单数量（带短时缓存）
+     * @param query 查询条件
+     * @return 订单数量
+     */
+    int countOrders(OrderQuery query);
+    
     /**
      * 更新订单状态
      * @param orderId 订单ID
@@ -97,6 +133,29 @@ public interface OrderService {
      */
     boolean shipOrder(Integer orderId);
     
+    /**
+     * 批量确认订单（管理员操作），待支付和已支付的订单可以确认
+     * 按块执行带条件的批量更新，每块一个事务
+     * @param orderIds 订单ID列表
+     * @return 每个订单的处理结果
+     */
+    BatchTransitionResult confirmOrders(List<Integer> orderIds);
+    
+    /**
+     * 批量发货（管理员操作），只有已确认的订单可以发货
+     * @param orderIds 订单ID列表
+     * @return 每个订单的处理结果
+     */
+    BatchTransitionResult shipOrders(List<Integer> orderIds);
+    
+    /**
+     * 批量取消订单（管理员操作），待支付和已确认的订单可以取消
+     * 每块订单的状态迁移和库存退回在同一事务中完成，库存按教材汇总后一次批量退回
+     * @param orderIds 订单ID列表
+     * @return 每个订单的处理结果
+     */
+    BatchTransitionResult cancelOrders(List<Integer> orderIds);
+    
     /**
      * 完成订单
      * @param orderId 订单ID
@@ -200,4 +259,22 @@ public interface OrderService {
      * @return 确认收货成功返回true，否则返回false
      */
     boolean confirmReceipt(Integer orderId);
-}
\ No newline at end of file
+    
+    /**
+     * 基于令牌的分页：获取下一页订单（按创建时间、ID倒序）
+     * @param query 查询条件（状态、学生等），为null时不过滤
+     * @param token 上一页返回的 nextToken，为null时获取第一页
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    KeysetPage<Order> getOrdersAfter(OrderQuery query, String token, int pageSize);
+    
+    /**
+     * 基于令牌的分页：获取上一页订单（按创建时间、ID倒序）
+     * @param query 查询条件（状态、学生等），为null时不过滤
+     * @param token 当前页返回的 prevToken
+     * @param pageSize 每页大小
+     * @return 分页结果
+     */
+    KeysetPage<Order> getOrdersBefore(OrderQuery query, String token, int pageSize);
+}
@@ -1,8 +1,11 @@
 package com.university.bookstore.service;
 
+import com.university.bookstore.model.Order;
 import com.university.bookstore.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户业务逻辑服务接口
@@ -47,6 +50,19 @@ public interface UserService {
      */
     User getUserById(Integer id);
     
+    /**
+     * 根据ID集合批量获取用户
+     * @param ids 用户ID集合
+     * @return 用户ID到用户对象的映射
+     */
+    Map<Integer, User> getUsersByIds(Collection<Integer> ids);
+    
+    /**
+     * 为订单列表批量关联下单学生（一次查询），结果写入 Order.student
+     * @param orders 订单列表
+     */
+    void attachStudents(List<Order> orders);
+    
     /**
      * 根据用户名获取用户信息
      * @param username 用户名
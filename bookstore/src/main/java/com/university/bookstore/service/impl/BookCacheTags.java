@@ -0,0 +1,56 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 图书缓存标签
+ * 分页和搜索结果按所含图书打 book:<id> 标签，单本图书的库存或信息变化只使包含它的缓存失效；
+ * 图书增删会改变分页和搜索结果的组成，需要同时使 LIST、SEARCH、COUNT 失效。
+ */
+final class BookCacheTags {
+    
+    /** 按ID排序的图书分页 */
+    static final String LIST = "books:list";
+    
+    /** 按关键词搜索的图书结果 */
+    static final String SEARCH = "books:search";
+    
+    /** 图书数量统计 */
+    static final String COUNT = "books:count";
+    
+    private BookCacheTags() {}
+    
+    /**
+     * 单本图书的标签
+     */
+    static String book(Integer id) {
+        return "book:" + id;
+    }
+    
+    /**
+     * 一组图书的标签
+     */
+    static List<String> books(Collection<Integer> ids) {
+        List<String> tags = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            tags.add(book(id));
+        }
+        return tags;
+    }
+    
+    /**
+     * 缓存结果页的标签：结果类型标签加上页内每本图书的标签
+     */
+    static List<String> page(String kind, List<Book> books) {
+        List<String> tags = new ArrayList<>(books.size() + 1);
+        tags.add(kind);
+        for (Book book : books) {
+            tags.add(book(book.getId()));
+        }
+        return tags;
+    }
+}
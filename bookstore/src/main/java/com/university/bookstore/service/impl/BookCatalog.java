@@ -0,0 +1,353 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.impl.BookDAOImpl;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.service.ChangeCursor;
+import com.university.bookstore.service.ChangeFeedService;
+import com.university.bookstore.util.PerformanceMonitor;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内图书目录
+ *
+ * 启动时把 t_book 整表加载为按ID和ISBN索引的不可变快照，读操作直接读取当前快照，无需加锁；
+ * 写操作复制快照、修改副本后整体替换（写时复制），每次替换版本号加一。
+ * 本进程的写入在成功后调用 refresh/remove 立即生效；其他进程的写入通过 update_time
+ * 增量同步（每10秒），删除无法通过增量发现，由每5分钟一次的整表重载兜底。
+ * refresh、增量同步和整表加载都在同一把锁内"读数据库再写入快照"，后读到的数据一定后写入，
+ * 较早读到的旧库存不会覆盖较新的库存。
+ *
+ * 目录中的库存只用于展示和预检查，扣减库存仍以数据库带条件的UPDATE为准。
+ */
+public class BookCatalog {
+
+    private static final long SYNC_INTERVAL_SECONDS = 10;
+    private static final int FULL_RELOAD_EVERY_SYNCS = 30; // 30次增量同步（约5分钟）整表重载一次
+
+    private static volatile BookCatalog instance;
+
+    /**
+     * 目录变更监听器，在新快照生效后于写线程中回调
+     */
+    public interface Listener {
+
+        /**
+         * 目录整表（重新）加载
+         * @param books 全部图书（快照中的共享实例，不可修改）
+         */
+        void onReload(Collection<Book> books);
+
+        /**
+         * 目录部分更新
+         * @param updated 新增或修改的图书（快照中的共享实例，不可修改）
+         * @param removedIds 被移除的图书ID
+         */
+        void onChange(Collection<Book> updated, Collection<Integer> removedIds);
+    }
+
+    /**
+     * 不可变快照
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, Collections.emptyMap(), Collections.emptyMap());
+
+        final long version;
+        final Map<Integer, Book> byId;
+        final Map<String, Book> byIsbn;
+
+        Snapshot(long version, Map<Integer, Book> byId, Map<String, Book> byIsbn) {
+            this.version = version;
+            this.byId = byId;
+            this.byIsbn = byIsbn;
+        }
+    }
+
+    private final BookDAO bookDAO;
+    private final ChangeFeedService changeFeedService;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded = false;
+    private ChangeCursor cursor;
+    private ScheduledExecutorService scheduler;
+    private int syncCount = 0;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private BookCatalog() {
+        this.bookDAO = new BookDAOImpl();
+        this.changeFeedService = new ChangeFeedServiceImpl();
+    }
+
+    /**
+     * 获取图书目录单例（不会触发加载）
+     */
+    public static BookCatalog getInstance() {
+        if (instance == null) {
+            synchronized (BookCatalog.class) {
+                if (instance == null) {
+                    instance = new BookCatalog();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 整表加载目录，并启动后台增量同步
+     */
+    public synchronized void load() {
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start("BookCatalog.load");
+        try {
+            loadSnapshot();
+        } finally {
+            sample.stop();
+        }
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "BookCatalogSync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::sync, SYNC_INTERVAL_SECONDS, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        System.out.println("图书目录加载完成，共 " + snapshot.byId.size() + " 本图书");
+    }
+
+    /**
+     * 整表读取图书并替换快照，通知监听器
+     */
+    private void loadSnapshot() {
+        // 先记录水位再加载整表：加载期间发生的变更会在下次增量同步时重新应用
+        ChangeCursor newCursor = changeFeedService.openBookCursor();
+        if (newCursor.getWatermark() == null) {
+            newCursor = new ChangeCursor(null, new Timestamp(0));
+        }
+
+        List<Book> books = bookDAO.findAll();
+        Map<Integer, Book> byId = new HashMap<>(books.size() * 2);
+        Map<String, Book> byIsbn = new HashMap<>(books.size() * 2);
+        for (Book book : books) {
+            byId.put(book.getId(), book);
+            if (book.getIsbn() != null) {
+                byIsbn.put(book.getIsbn(), book);
+            }
+        }
+        snapshot = new Snapshot(snapshot.version + 1, byId, byIsbn);
+        cursor = newCursor;
+        loaded = true;
+        for (Listener listener : listeners) {
+            listener.onReload(Collections.unmodifiableCollection(byId.values()));
+        }
+    }
+
+    /**
+     * 注册目录变更监听器；目录已加载时立即以当前内容回调一次 onReload
+     * @param listener 监听器
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (loaded) {
+            listener.onReload(Collections.unmodifiableCollection(snapshot.byId.values()));
+        }
+    }
+
+    /**
+     * 目录是否已加载；未加载时调用方应直接查询数据库
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 当前快照版本号，每次目录内容变化加一
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * 目录中的图书数量
+     */
+    public int size() {
+        return snapshot.byId.size();
+    }
+
+    /**
+     * 根据ID查找图书
+     * @param id 图书ID
+     * @return 图书副本，不存在时返回null
+     */
+    public Book findById(Integer id) {
+        return copyOf(snapshot.byId.get(id));
+    }
+
+    /**
+     * 根据ISBN查找图书
+     * @param isbn ISBN号
+     * @return 图书副本，不存在时返回null
+     */
+    public Book findByIsbn(String isbn) {
+        return copyOf(snapshot.byIsbn.get(isbn));
+    }
+
+    /**
+     * 按ID列表批量查找图书，保持传入顺序，跳过不存在的ID
+     * @param ids 图书ID列表
+     * @return 图书副本列表
+     */
+    public List<Book> findByIds(List<Integer> ids) {
+        Snapshot current = snapshot;
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Book book = current.byId.get(id);
+            if (book != null) {
+                books.add(copyOf(book));
+            }
+        }
+        return books;
+    }
+
+    /**
+     * 查询图书当前库存，不复制对象
+     * @param id 图书ID
+     * @return 库存数量，图书不存在时返回null
+     */
+    public Integer getStock(Integer id) {
+        Book book = snapshot.byId.get(id);
+        return book != null ? book.getStock() : null;
+    }
+
+    /**
+     * 从数据库重新读取指定图书并写入目录，数据库中已不存在的图书从目录移除
+     * 读取和写入在同一把锁内，与增量同步互相排队，避免读到的旧数据覆盖同步写入的新数据
+     * @param ids 图书ID集合
+     */
+    public synchronized void refresh(Collection<Integer> ids) {
+        if (!loaded || ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<Book> books = bookDAO.findByIds(ids);
+        Set<Integer> missing = new HashSet<>(ids);
+        for (Book book : books) {
+            missing.remove(book.getId());
+        }
+        apply(books, missing);
+    }
+
+    /**
+     * 从数据库重新读取单本图书并写入目录
+     * @param id 图书ID
+     */
+    public void refresh(Integer id) {
+        if (id != null) {
+            refresh(Collections.singleton(id));
+        }
+    }
+
+    /**
+     * 从目录中移除图书
+     * @param id 图书ID
+     */
+    public void remove(Integer id) {
+        if (loaded && id != null) {
+            apply(Collections.emptyList(), Collections.singleton(id));
+        }
+    }
+
+    /**
+     * 停止后台同步
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 写时复制：在快照副本上应用更新和删除后整体替换
+     */
+    private synchronized void apply(List<Book> updated, Collection<Integer> removedIds) {
+        Snapshot current = snapshot;
+        Map<Integer, Book> byId = new HashMap<>(current.byId);
+        Map<String, Book> byIsbn = new HashMap<>(current.byIsbn);
+
+        for (Integer id : removedIds) {
+            Book old = byId.remove(id);
+            if (old != null && old.getIsbn() != null) {
+                byIsbn.remove(old.getIsbn());
+            }
+        }
+        for (Book book : updated) {
+            Book old = byId.put(book.getId(), book);
+            if (old != null && old.getIsbn() != null && !old.getIsbn().equals(book.getIsbn())) {
+                byIsbn.remove(old.getIsbn());
+            }
+            if (book.getIsbn() != null) {
+                byIsbn.put(book.getIsbn(), book);
+            }
+        }
+        snapshot = new Snapshot(current.version + 1, byId, byIsbn);
+        for (Listener listener : listeners) {
+            listener.onChange(updated, removedIds);
+        }
+    }
+
+    /**
+     * 后台增量同步：拉取其他进程写入的变更，定期整表重载以发现删除
+     */
+    private void sync() {
+        try {
+            if (++syncCount % FULL_RELOAD_EVERY_SYNCS == 0) {
+                load();
+                return;
+            }
+
+            // 拉取和写入快照在同一把锁内，与 refresh 互相排队
+            synchronized (this) {
+                List<Book> changes = new ArrayList<>();
+                do {
+                    changes.addAll(changeFeedService.pollBookChanges(cursor));
+                } while (cursor.isTruncated());
+                if (!changes.isEmpty()) {
+                    apply(changes, Collections.emptyList());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("图书目录同步失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 复制图书对象，避免调用方修改快照中的共享实例
+     */
+    private static Book copyOf(Book book) {
+        if (book == null) {
+            return null;
+        }
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setIsbn(book.getIsbn());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPublisher(book.getPublisher());
+        copy.setPrice(book.getPrice());
+        copy.setStock(book.getStock());
+        copy.setDescription(book.getDescription());
+        copy.setUpdateTime(book.getUpdateTime());
+        return copy;
+    }
+}
@@ -0,0 +1,319 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 图书全文检索的内存倒排索引
+ *
+ * 书名、作者、出版社、ISBN 按字符切分为一元和二元片段（适合没有空格分词的中文书名），
+ * 每个字段分别建立片段到图书ID的倒排表。查询词按二元片段求交集得到候选，
+ * 再校验字段确实包含查询词（与 LIKE '%词%' 语义一致），因此也天然支持前缀搜索。
+ * 多个以空格分隔的查询词之间是"且"的关系。
+ *
+ * 索引跟随 BookCatalog：目录整表加载时重建，单本图书增删改时增量更新。
+ */
+public class BookSearchIndex implements BookCatalog.Listener {
+
+    /**
+     * 可检索字段及其排序权重
+     */
+    public enum Field {
+        TITLE(4), AUTHOR(2), PUBLISHER(1), ISBN(3);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /** 综合搜索的字段（与 BookDAO.searchBooks 一致） */
+    public static final Set<Field> KEYWORD_FIELDS = Collections.unmodifiableSet(EnumSet.of(Field.TITLE, Field.AUTHOR, Field.ISBN));
+
+    private static volatile BookSearchIndex instance;
+
+    /**
+     * 已建立索引的图书：各字段归一化后的文本
+     */
+    private static final class Document {
+        final int id;
+        final String[] fields = new String[Field.values().length];
+
+        Document(Book book) {
+            this.id = book.getId();
+            fields[Field.TITLE.ordinal()] = normalize(book.getTitle());
+            fields[Field.AUTHOR.ordinal()] = normalize(book.getAuthor());
+            fields[Field.PUBLISHER.ordinal()] = normalize(book.getPublisher());
+            fields[Field.ISBN.ordinal()] = normalize(book.getIsbn());
+        }
+
+        String field(Field field) {
+            return fields[field.ordinal()];
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    // 每个字段一张倒排表：片段 -> 图书ID集合
+    private final List<Map<String, Set<Integer>>> postings = new ArrayList<>();
+    private volatile boolean ready = false;
+
+    private BookSearchIndex() {
+        for (int i = 0; i < Field.values().length; i++) {
+            postings.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 获取索引单例，首次获取时注册到图书目录
+     */
+    public static BookSearchIndex getInstance() {
+        if (instance == null) {
+            synchronized (BookSearchIndex.class) {
+                if (instance == null) {
+                    BookSearchIndex index = new BookSearchIndex();
+                    BookCatalog.getInstance().addListener(index);
+                    instance = index;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 索引是否已建立；未建立时调用方应回退到数据库查询
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onReload(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            for (Map<String, Set<Integer>> posting : postings) {
+                posting.clear();
+            }
+            for (Book book : books) {
+                add(book);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChange(Collection<Book> updated, Collection<Integer> removedIds) {
+        lock.writeLock().lock();
+        try {
+            for (Integer id : removedIds) {
+                removeDocument(id);
+            }
+            for (Book book : updated) {
+                removeDocument(book.getId());
+                add(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按相关度排序检索
+     * 排序依据：字段权重，字段以查询词开头或完全相同时加分；同分时书名短的、ID小的在前
+     * @param query 查询词，空格分隔的多个词需同时匹配
+     * @param fields 检索的字段
+     * @return 匹配的图书ID
+     */
+    public List<Integer> search(String query, Set<Field> fields) {
+        String[] terms = terms(query);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = new HashMap<>();
+            for (Integer id : match(terms, fields)) {
+                scores.put(id, score(documents.get(id), terms, fields));
+            }
+            List<Integer> ids = new ArrayList<>(scores.keySet());
+            ids.sort((a, b) -> {
+                int byScore = Integer.compare(scores.get(b), scores.get(a));
+                if (byScore != 0) {
+                    return byScore;
+                }
+                int byLength = Integer.compare(documents.get(a).field(Field.TITLE).length(),
+                                               documents.get(b).field(Field.TITLE).length());
+                return byLength != 0 ? byLength : Integer.compare(a, b);
+            });
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索并按ID升序返回，用于与数据库分页保持相同顺序
+     * @param query 查询词
+     * @param fields 检索的字段
+     * @return 匹配的图书ID（升序）
+     */
+    public List<Integer> searchOrderedById(String query, Set<Field> fields) {
+        String[] terms = terms(query);
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>(match(terms, fields));
+            Collections.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 找出每个查询词都至少在一个字段中出现的图书（调用方持有读锁）
+     */
+    private Set<Integer> match(String[] terms, Set<Field> fields) {
+        Set<Integer> result = null;
+        for (String term : terms) {
+            Set<Integer> termMatches = new HashSet<>();
+            for (Field field : fields) {
+                for (Integer id : candidates(term, field)) {
+                    Document document = documents.get(id);
+                    if (document != null && document.field(field).contains(term)) {
+                        termMatches.add(id);
+                    }
+                }
+            }
+            if (result == null) {
+                result = termMatches;
+            } else {
+                result.retainAll(termMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : Collections.emptySet();
+    }
+
+    /**
+     * 通过倒排表求候选：单字查一元片段，多字对所有二元片段求交集
+     */
+    private Set<Integer> candidates(String term, Field field) {
+        Map<String, Set<Integer>> posting = postings.get(field.ordinal());
+        if (term.length() == 1) {
+            return posting.getOrDefault(term, Collections.emptySet());
+        }
+
+        // 从最短的倒排表开始求交集
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i + 1 < term.length(); i++) {
+            Set<Integer> ids = posting.get(term.substring(i, i + 2));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Integer> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private int score(Document document, String[] terms, Set<Field> fields) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (Field field : fields) {
+                String text = document.field(field);
+                int score = 0;
+                if (text.equals(term)) {
+                    score = field.weight * 4;
+                } else if (text.startsWith(term)) {
+                    score = field.weight * 2;
+                } else if (text.contains(term)) {
+                    score = field.weight;
+                }
+                best = Math.max(best, score);
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * 建立单本图书的索引（调用方持有写锁）
+     */
+    private void add(Book book) {
+        if (book.getId() == null) {
+            return;
+        }
+        Document document = new Document(book);
+        documents.put(document.id, document);
+        for (Field field : Field.values()) {
+            Map<String, Set<Integer>> posting = postings.get(field.ordinal());
+            for (String gram : grams(document.field(field))) {
+                posting.computeIfAbsent(gram, g -> new HashSet<>()).add(document.id);
+            }
+        }
+    }
+
+    /**
+     * 移除单本图书的索引（调用方持有写锁）
+     */
+    private void removeDocument(Integer id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (Field field : Field.values()) {
+            Map<String, Set<Integer>> posting = postings.get(field.ordinal());
+            for (String gram : grams(document.field(field))) {
+                Set<Integer> ids = posting.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        posting.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 文本的一元和二元片段
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static String[] terms(String query) {
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,6 +1,7 @@
 package com.university.bookstore.service.impl;
 
 import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.KeysetPage;
 import com.university.bookstore.dao.impl.BookDAOImpl;
 import com.university.bookstore.model.Book;
 import com.university.bookstore.service.BookService;
@@ -8,7 +9,9 @@ import com.university.bookstore.util.CacheManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,9 +21,13 @@ import java.util.stream.Collectors;
 public class BookServiceImpl implements BookService {
     
     private final BookDAO bookDAO;
+    private final BookCatalog catalog;
+    private final BookSearchIndex searchIndex;
     
     public BookServiceImpl() {
         this.bookDAO = new BookDAOImpl();
+        this.catalog = BookCatalog.getInstance();
+        this.searchIndex = BookSearchIndex.getInstance();
     }
     
     @Override
@@ -28,6 +35,12 @@ public class BookServiceImpl implements BookService {
         if (id == null) {
             return null;
         }
+        if (catalog.isLoaded()) {
+            Book book = catalog.findById(id);
+            if (book != null) {
+                return book;
+            }
+        }
         return bookDAO.findById(id);
     }
     
@@ -36,6 +49,12 @@ public class BookServiceImpl implements BookService {
         if (isbn == null || isbn.trim().isEmpty()) {
             return null;
         }
+        if (catalog.isLoaded()) {
+            Book book = catalog.findByIsbn(isbn.trim());
+            if (book != null) {
+                return book;
+            }
+        }
         return bookDAO.findByIsbn(isbn.trim());
     }
     
@@ -49,7 +68,7 @@ public class BookServiceImpl implements BookService {
      */
     public List<Book> getAllBooksForceRefresh() {
         // 先清除相关缓存
-        CacheManager.clearByPattern("books_");
+        CacheManager.invalidateTags(BookCacheTags.LIST, BookCacheTags.SEARCH, BookCacheTags.COUNT);
         return bookDAO.findAll();
     }
     
@@ -58,7 +77,7 @@ public class BookServiceImpl implements BookService {
      */
     public List<Book> searchBooksForceRefresh(String keyword) {
         // 先清除相关缓存
-        CacheManager.clearByPattern("books_");
+        CacheManager.invalidateTags(BookCacheTags.SEARCH, BookCacheTags.COUNT);
         return bookDAO.findByTitleLike(keyword);
     }
     
@@ -78,8 +97,8 @@ public class BookServiceImpl implements BookService {
         int offset = (page - 1) * pageSize;
         List<Book> books = bookDAO.findWithPagination(offset, pageSize);
         
-        // 缓存结果
-        CacheManager.put(cacheKey, books, 60000); // 缓存1分钟
+        // 缓存结果，按页内图书打标签
+        CacheManager.put(cacheKey, books, 60000, BookCacheTags.page(BookCacheTags.LIST, books)); // 缓存1分钟
         
         return books;
     }
@@ -102,8 +121,8 @@ public class BookServiceImpl implements BookService {
         int offset = (page - 1) * pageSize;
         List<Book> books = bookDAO.findByTitleWithPagination(keyword, offset, pageSize);
         
-        // 缓存结果
-        CacheManager.put(cacheKey, books, 60000); // 缓存1分钟
+        // 缓存结果，按页内图书打标签
+        CacheManager.put(cacheKey, books, 60000, BookCacheTags.page(BookCacheTags.SEARCH, books)); // 缓存1分钟
         
         return books;
     }
@@ -119,7 +138,7 @@ public class BookServiceImpl implements BookService {
         }
         
         int count = bookDAO.getTotalCount();
-        CacheManager.put(cacheKey, count, 120000); // 缓存2分钟
+        CacheManager.put(cacheKey, count, 120000, List.of(BookCacheTags.COUNT)); // 缓存2分钟
         
         return count;
     }
@@ -135,7 +154,7 @@ public class BookServiceImpl implements BookService {
         }
         
         int count = bookDAO.getTotalCountByTitle(keyword);
-        CacheManager.put(cacheKey, count, 120000); // 缓存2分钟
+        CacheManager.put(cacheKey, count, 120000, List.of(BookCacheTags.COUNT)); // 缓存2分钟
         
         return count;
     }
@@ -145,11 +164,117 @@ public class BookServiceImpl implements BookService {
         return bookDAO.getTotalCount();
     }
     
+    @Override
+    public List<Book> getBooksPageAfter(String keyword, Integer afterId, int pageSize) {
+        if (pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        List<Integer> matchedIds = indexedKeywordMatches(keyword);
+        if (matchedIds != null) {
+            int from = afterId != null ? firstIndexAbove(matchedIds, afterId) : 0;
+            return catalog.findByIds(matchedIds.subList(from, Math.min(from + pageSize, matchedIds.size())));
+        }
+        return bookDAO.findPageAfter(keyword, afterId, pageSize);
+    }
+    
+    @Override
+    public List<Book> getBooksPageBefore(String keyword, Integer beforeId, int pageSize) {
+        if (beforeId == null || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        List<Integer> matchedIds = indexedKeywordMatches(keyword);
+        if (matchedIds != null) {
+            int to = firstIndexAbove(matchedIds, beforeId - 1);
+            return catalog.findByIds(matchedIds.subList(Math.max(0, to - pageSize), to));
+        }
+        return bookDAO.findPageBefore(keyword, beforeId, pageSize);
+    }
+    
+    @Override
+    public List<Book> getBooksPageByOffset(String keyword, int offset, int pageSize) {
+        if (offset < 0 || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        List<Integer> matchedIds = indexedKeywordMatches(keyword);
+        if (matchedIds != null) {
+            int from = Math.min(offset, matchedIds.size());
+            return catalog.findByIds(matchedIds.subList(from, Math.min(from + pageSize, matchedIds.size())));
+        }
+        return bookDAO.findPageByOffset(keyword, offset, pageSize);
+    }
+    
+    @Override
+    public int countBooks(String keyword) {
+        List<Integer> matchedIds = indexedKeywordMatches(keyword);
+        if (matchedIds != null) {
+            return matchedIds.size();
+        }
+        
+        String normalized = keyword != null ? keyword.trim() : "";
+        String cacheKey = CacheManager.generateKey("books_count", normalized);
+        Integer cachedCount = CacheManager.get(cacheKey);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        
+        int count = bookDAO.getTotalCountByKeyword(normalized);
+        CacheManager.put(cacheKey, count, 30000, List.of(BookCacheTags.COUNT)); // 缓存30秒
+        return count;
+    }
+    
+    @Override
+    public int getBookPageNumber(String keyword, Integer bookId, int pageSize) {
+        if (bookId == null || pageSize <= 0) {
+            return 1;
+        }
+        List<Integer> matchedIds = indexedKeywordMatches(keyword);
+        if (matchedIds != null) {
+            return firstIndexAbove(matchedIds, bookId - 1) / pageSize + 1;
+        }
+        return bookDAO.countBefore(keyword, bookId) / pageSize + 1;
+    }
+    
+    /**
+     * 用倒排索引求关键词匹配的图书ID（升序）
+     * @return 匹配的ID列表；关键词为空或索引不可用时返回null，由调用方查询数据库
+     */
+    private List<Integer> indexedKeywordMatches(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty() || !isSearchIndexAvailable()) {
+            return null;
+        }
+        return searchIndex.searchOrderedById(keyword, BookSearchIndex.KEYWORD_FIELDS);
+    }
+    
+    private boolean isSearchIndexAvailable() {
+        return catalog.isLoaded() && searchIndex.isReady();
+    }
+    
+    /**
+     * 在升序ID列表中找到第一个大于 id 的位置
+     */
+    private static int firstIndexAbove(List<Integer> sortedIds, int id) {
+        int position = Collections.binarySearch(sortedIds, id);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+    
+    @Override
+    public KeysetPage<Book> getBooksAfter(String keyword, String token, int pageSize) {
+        return bookDAO.findAfter(keyword, token, pageSize);
+    }
+    
+    @Override
+    public KeysetPage<Book> getBooksBefore(String keyword, String token, int pageSize) {
+        return bookDAO.findBefore(keyword, token, pageSize);
+    }
+    
     @Override
     public List<Book> searchBooksByTitle(String title) {
         if (title == null || title.trim().isEmpty()) {
             return getAllBooks();
         }
+        if (isSearchIndexAvailable()) {
+            return catalog.findByIds(searchIndex.search(title, EnumSet.of(BookSearchIndex.Field.TITLE)));
+        }
         return bookDAO.findByTitleLike(title.trim());
     }
     
@@ -158,6 +283,9 @@ public class BookServiceImpl implements BookService {
         if (author == null || author.trim().isEmpty()) {
             return getAllBooks();
         }
+        if (isSearchIndexAvailable()) {
+            return catalog.findByIds(searchIndex.search(author, EnumSet.of(BookSearchIndex.Field.AUTHOR)));
+        }
         return bookDAO.findByAuthorLike(author.trim());
     }
     
@@ -174,6 +302,10 @@ public class BookServiceImpl implements BookService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return getAllBooks();
         }
+        if (isSearchIndexAvailable()) {
+            // 按相关度排序：书名命中优先，以关键词开头的排在前面
+            return catalog.findByIds(searchIndex.search(keyword, BookSearchIndex.KEYWORD_FIELDS));
+        }
         return bookDAO.searchBooks(keyword.trim());
     }
     
@@ -216,8 +348,9 @@ public class BookServiceImpl implements BookService {
         
         boolean result = bookDAO.insert(book);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 新图书会改变分页、搜索结果和数量
+            CacheManager.invalidateTags(BookCacheTags.LIST, BookCacheTags.SEARCH, BookCacheTags.COUNT);
+            catalog.refresh(book.getId());
         }
         return result;
     }
@@ -246,8 +379,9 @@ public class BookServiceImpl implements BookService {
         
         boolean result = bookDAO.update(book);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 书名、作者等变化可能改变搜索结果；按ID排序的分页只有包含该书的页受影响
+            CacheManager.invalidateTags(BookCacheTags.book(book.getId()), BookCacheTags.SEARCH, BookCacheTags.COUNT);
+            catalog.refresh(book.getId());
         }
         return result;
     }
@@ -259,8 +393,9 @@ public class BookServiceImpl implements BookService {
         }
         boolean result = bookDAO.delete(id);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 删除图书会改变分页、搜索结果和数量
+            CacheManager.invalidateTags(BookCacheTags.book(id), BookCacheTags.LIST, BookCacheTags.SEARCH, BookCacheTags.COUNT);
+            catalog.remove(id);
         }
         return result;
     }
@@ -272,8 +407,9 @@ public class BookServiceImpl implements BookService {
         }
         boolean result = bookDAO.updateStock(id, stock);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 库存变化只影响包含该书的缓存
+            CacheManager.invalidateTags(BookCacheTags.book(id));
+            catalog.refresh(id);
         }
         return result;
     }
@@ -291,8 +427,9 @@ public class BookServiceImpl implements BookService {
         
         boolean result = bookDAO.reduceStock(id, quantity);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 库存变化只影响包含该书的缓存
+            CacheManager.invalidateTags(BookCacheTags.book(id));
+            catalog.refresh(id);
         }
         return result;
     }
@@ -303,16 +440,12 @@ public class BookServiceImpl implements BookService {
             return false;
         }
         
-        Book book = bookDAO.findById(id);
-        if (book == null) {
-            return false;
-        }
-        
-        int newStock = book.getStock() + quantity;
-        boolean result = bookDAO.updateStock(id, newStock);
+        // 相对更新，并发增减库存不会互相覆盖
+        boolean result = bookDAO.increaseStock(id, quantity);
         if (result) {
-            // 清除相关缓存
-            CacheManager.clearByPattern("books_");
+            // 库存变化只影响包含该书的缓存
+            CacheManager.invalidateTags(BookCacheTags.book(id));
+            catalog.refresh(id);
         }
         return result;
     }
@@ -323,6 +456,14 @@ public class BookServiceImpl implements BookService {
             return false;
         }
         
+        // 目录显示库存充足时直接通过（扣减时的条件UPDATE仍会兜底），不足时再以数据库为准
+        if (catalog.isLoaded()) {
+            Integer stock = catalog.getStock(id);
+            if (stock != null && stock >= quantity) {
+                return true;
+            }
+        }
+        
         Book book = bookDAO.findById(id);
         if (book == null) {
             return false;
@@ -0,0 +1,88 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.dao.impl.BookDAOImpl;
+import com.university.bookstore.dao.impl.OrderDAOImpl;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.Order;
+import com.university.bookstore.service.ChangeCursor;
+import com.university.bookstore.service.ChangeFeedService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 数据变更订阅服务实现类
+ */
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+    
+    /**
+     * 单次拉取的最大变更条数，超过时游标标记为截断
+     */
+    private static final int MAX_CHANGES_PER_POLL = 200;
+    
+    private final BookDAO bookDAO;
+    private final OrderDAO orderDAO;
+    
+    public ChangeFeedServiceImpl() {
+        this.bookDAO = new BookDAOImpl();
+        this.orderDAO = new OrderDAOImpl();
+    }
+    
+    @Override
+    public ChangeCursor openBookCursor() {
+        return new ChangeCursor(null, bookDAO.getLatestUpdateTime());
+    }
+    
+    @Override
+    public ChangeCursor openOrderCursor(Integer studentId) {
+        return new ChangeCursor(studentId, orderDAO.getLatestUpdateTime(studentId));
+    }
+    
+    @Override
+    public List<Book> pollBookChanges(ChangeCursor cursor) {
+        // 从水位往前重叠一段重新读取，已交出且未再变化的行由游标去重
+        List<Book> rows = bookDAO.findUpdatedSince(cursor.getScanFrom(), cursor.getScanAfterId(), MAX_CHANGES_PER_POLL);
+        cursor.setTruncated(rows.size() >= MAX_CHANGES_PER_POLL);
+        List<Book> changes = new ArrayList<>();
+        for (Book book : rows) {
+            if (cursor.accept(book.getId(), book.getUpdateTime(), fingerprint(book))) {
+                changes.add(book);
+            }
+        }
+        cursor.prune();
+        return changes;
+    }
+    
+    @Override
+    public List<Order> pollOrderChanges(ChangeCursor cursor) {
+        List<Order> rows = orderDAO.findUpdatedSince(cursor.getStudentId(), cursor.getScanFrom(),
+                cursor.getScanAfterId(), MAX_CHANGES_PER_POLL);
+        cursor.setTruncated(rows.size() >= MAX_CHANGES_PER_POLL);
+        List<Order> changes = new ArrayList<>();
+        for (Order order : rows) {
+            if (cursor.accept(order.getId(), order.getUpdateTime(), fingerprint(order))) {
+                changes.add(order);
+            }
+        }
+        cursor.prune();
+        return changes;
+    }
+    
+    /**
+     * 教材内容指纹，用于发现同一秒内的再次修改
+     */
+    private static int fingerprint(Book book) {
+        return Objects.hash(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(),
+                book.getPrice(), book.getStock(), book.getDescription());
+    }
+    
+    /**
+     * 订单内容指纹，用于发现同一秒内的再次修改
+     */
+    private static int fingerprint(Order order) {
+        return Objects.hash(order.getOrderNumber(), order.getStatus(), order.getTotalPrice(), order.getStudentId());
+    }
+}
@@ -0,0 +1,117 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.dao.NodeLeaseDAO;
+import com.university.bookstore.dao.impl.NodeLeaseDAOImpl;
+import com.university.bookstore.util.OrderNumberGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本实例的订单号节点号
+ *
+ * 客户端部署在大量机器上，不逐台配置节点号：第一次生成订单号时从 t_node_lease 租用一个
+ * 节点号（0-999），后台线程每分钟续租，租期5分钟。进程退出后租约不释放，自然过期后才能被复用，
+ * 因此重启的实例不会拿回刚用过的节点号、在同一秒内重复发出订单号。
+ * 机器休眠超过租期时租约可能已被其他实例接管，续租失败后重新租用并切换节点号。
+ *
+ * 设置了系统属性 bookstore.node.id 时直接使用该节点号，不访问数据库（需自行保证各实例不同）。
+ */
+public class NodeIdLease {
+
+    private static final int LEASE_SECONDS = Integer.getInteger("bookstore.node.leaseSeconds", 300);
+    private static final Integer CONFIGURED_NODE_ID = Integer.getInteger("bookstore.node.id");
+
+    private static volatile NodeIdLease instance;
+
+    private final NodeLeaseDAO leaseDAO;
+    private final String holder;
+    private volatile OrderNumberGenerator generator;
+    private volatile int nodeId = -1;
+    private ScheduledExecutorService scheduler;
+
+    private NodeIdLease() {
+        this.leaseDAO = new NodeLeaseDAOImpl();
+        // 进程号@主机名，再加随机后缀，保证每个进程唯一
+        this.holder = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 获取节点号租约单例（不会触发租用）
+     */
+    public static NodeIdLease getInstance() {
+        if (instance == null) {
+            synchronized (NodeIdLease.class) {
+                if (instance == null) {
+                    instance = new NodeIdLease();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 获取使用本实例节点号的订单号生成器，第一次调用时租用节点号
+     * @throws IllegalStateException 无法租到节点号（数据库不可用或节点号已用尽）
+     */
+    public OrderNumberGenerator getGenerator() {
+        OrderNumberGenerator current = generator;
+        if (current == null) {
+            synchronized (this) {
+                if (generator == null) {
+                    generator = new OrderNumberGenerator(CONFIGURED_NODE_ID != null ? CONFIGURED_NODE_ID : lease());
+                    startRenewal();
+                }
+                current = generator;
+            }
+        }
+        return current;
+    }
+
+    private int lease() {
+        try {
+            int leased = leaseDAO.acquire(holder, OrderNumberGenerator.MAX_NODE_ID, LEASE_SECONDS);
+            if (leased < 0) {
+                throw new IllegalStateException("无法分配订单号节点号：" + (OrderNumberGenerator.MAX_NODE_ID + 1) +
+                        " 个节点号均在使用中，可通过 -Dbookstore.node.id 手动指定");
+            }
+            nodeId = leased;
+            System.out.println("[INFO] 订单号节点号: " + leased + " (" + holder + ")");
+            return leased;
+        } catch (SQLException e) {
+            throw new IllegalStateException("无法分配订单号节点号：" + e.getMessage(), e);
+        }
+    }
+
+    private void startRenewal() {
+        if (CONFIGURED_NODE_ID != null || scheduler != null) {
+            return;
+        }
+        long period = Math.max(1, LEASE_SECONDS / 5);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NodeIdLeaseRenewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 续租；租约已丢失时重新租用并切换生成器的节点号。数据库暂时不可用时保留当前节点号，下次再试
+     */
+    private void renew() {
+        try {
+            if (leaseDAO.renew(nodeId, holder, LEASE_SECONDS)) {
+                return;
+            }
+            System.out.println("[WARN] 订单号节点号 " + nodeId + " 的租约已失效，重新租用");
+            generator.setNodeId(lease());
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("续租订单号节点号失败: " + e.getMessage());
+        }
+    }
+}
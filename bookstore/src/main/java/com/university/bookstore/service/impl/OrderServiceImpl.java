@@ -1,34 +1,66 @@
 package com.university.bookstore.service.impl;
 
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.dao.KeysetPage;
 import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.dao.OrderQuery;
+import com.university.bookstore.dao.TransitionResult;
+import com.university.bookstore.dao.impl.BookDAOImpl;
 import com.university.bookstore.dao.impl.OrderDAOImpl;
+import com.university.bookstore.model.Book;
 import com.university.bookstore.model.Order;
 import com.university.bookstore.model.OrderDetail;
 import com.university.bookstore.model.CartItem;
+import com.university.bookstore.service.BatchTransitionResult;
 import com.university.bookstore.service.OrderService;
-import com.university.bookstore.service.BookService;
+import com.university.bookstore.util.CacheManager;
+import com.university.bookstore.util.DBUtil;
+import com.university.bookstore.util.OrderNumberGenerator;
+import com.university.bookstore.util.PerformanceMonitor;
 
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
 
 /**
  * 订单业务逻辑服务实现类
  */
 public class OrderServiceImpl implements OrderService {
     
+    // 可以取消的订单状态，与 canCancelOrder 一致
+    private static final Set<Order.OrderStatus> CANCELLABLE =
+            EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+    // 批量操作每个事务处理的订单数，控制 IN 列表长度和行锁持有时间
+    private static final int BATCH_CHUNK_SIZE = 200;
+    // 订单号与已有订单冲突时最多尝试的次数
+    private static final int MAX_ORDER_NUMBER_ATTEMPTS = 3;
+    
     private final OrderDAO orderDAO;
-    private final BookService bookService;
+    private final BookDAO bookDAO;
+    private final OrderStatistics statistics;
+    // 为null时使用节点号租约的生成器
+    private final OrderNumberGenerator orderNumberGenerator;
     
     public OrderServiceImpl() {
-        this.orderDAO = new OrderDAOImpl();
-        this.bookService = new BookServiceImpl();
+        this(new OrderDAOImpl(), new BookDAOImpl(), null);
+    }
+    
+    /**
+     * 指定依赖的构造函数，供基准测试替换数据访问层和订单号生成器
+     */
+    OrderServiceImpl(OrderDAO orderDAO, BookDAO bookDAO, OrderNumberGenerator orderNumberGenerator) {
+        this.orderDAO = orderDAO;
+        this.bookDAO = bookDAO;
+        this.statistics = OrderStatistics.getInstance();
+        this.orderNumberGenerator = orderNumberGenerator;
     }
     
     @Override
@@ -40,6 +72,7 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("创建订单失败：学生ID或购物车信息无效");
         }
         
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start("createOrder");
         try {
             // 验证库存
             System.out.println("[DEBUG] 开始验证库存");
@@ -62,49 +95,54 @@ public class OrderServiceImpl implements OrderService {
             
             System.out.println("[DEBUG] 准备插入订单，订单号: " + order.getOrderNumber());
             
-            // 插入订单
-            if (!orderDAO.insert(order)) {
-                System.out.println("[ERROR] 插入订单到数据库失败");
-                throw new RuntimeException("创建订单失败：无法保存订单到数据库");
-            }
-            
-            System.out.println("[DEBUG] 订单插入成功，订单ID: " + order.getId());
-            
-            // 创建订单详情
-            List<OrderDetail> orderDetails = new ArrayList<>();
-            for (CartItem item : cartItems) {
-                OrderDetail detail = new OrderDetail();
-                detail.setOrderId(order.getId());
-                detail.setBookId(item.getBook().getId());
-                detail.setQuantity(item.getQuantity());
-                detail.setPrice(item.getBook().getPrice());
-                orderDetails.add(detail);
-                System.out.println("[DEBUG] 添加订单详情 - 图书ID: " + item.getBook().getId() + ", 数量: " + item.getQuantity() + ", 单价: " + item.getBook().getPrice());
-            }
-            
-            System.out.println("[DEBUG] 准备插入订单详情，详情数量: " + orderDetails.size());
-            
-            // 批量插入订单详情
-            if (!orderDAO.insertOrderDetails(orderDetails)) {
-                System.out.println("[ERROR] 插入订单详情失败，开始回滚订单");
-                // 如果插入订单详情失败，删除已创建的订单
-                orderDAO.delete(order.getId());
-                throw new RuntimeException("创建订单失败：无法保存订单详情到数据库");
-            }
-            
-            System.out.println("[DEBUG] 订单详情插入成功，开始减少库存");
-            
-            // 减少库存
-            for (CartItem item : cartItems) {
-                System.out.println("[DEBUG] 减少库存 - 图书ID: " + item.getBook().getId() + ", 减少数量: " + item.getQuantity());
-                if (!bookService.reduceBookStock(item.getBook().getId(), item.getQuantity())) {
-                    System.out.println("[ERROR] 减少库存失败 - 图书ID: " + item.getBook().getId());
-                    // 如果减少库存失败，需要回滚
-                    // 这里简化处理，实际应该使用事务
-                    throw new RuntimeException("创建订单失败：无法减少商品库存");
+            // 订单、订单详情和库存扣减在同一连接、同一事务内完成，任一步失败整体回滚。
+            // 订单号由节点号和序号保证唯一，租约失效等极端情况下与已有订单号冲突时换一个订单号重试
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    DBUtil.executeInTransaction(conn -> {
+                        if (!orderDAO.insert(conn, order)) {
+                            throw new RuntimeException("创建订单失败：无法保存订单到数据库");
+                        }
+                    
+                        List<OrderDetail> orderDetails = new ArrayList<>();
+                        for (CartItem item : cartItems) {
+                            OrderDetail detail = new OrderDetail();
+                            detail.setOrderId(order.getId());
+                            detail.setBookId(item.getBook().getId());
+                            detail.setQuantity(item.getQuantity());
+                            detail.setPrice(item.getBook().getPrice());
+                            orderDetails.add(detail);
+                        }
+                        if (!orderDAO.insertOrderDetails(conn, orderDetails)) {
+                            throw new RuntimeException("创建订单失败：无法保存订单详情到数据库");
+                        }
+                    
+                        // 所有行的条件扣减一次批量发送，任一行失败整体回滚
+                        List<Integer> failedBookIds = bookDAO.reduceStockBatch(conn, aggregateCartQuantities(cartItems));
+                        if (!failedBookIds.isEmpty()) {
+                            System.out.println("[ERROR] 减少库存失败 - 图书ID: " + failedBookIds);
+                            throw new RuntimeException("创建订单失败：商品" + describeBooks(cartItems, failedBookIds) + "库存不足");
+                        }
+                        return order;
+                    });
+                    break;
+                } catch (SQLException e) {
+                    if (attempt < MAX_ORDER_NUMBER_ATTEMPTS && isDuplicateOrderNumber(e)) {
+                        System.out.println("[WARN] 订单号 " + order.getOrderNumber() + " 已存在，重新生成");
+                        order.setOrderNumber(generateOrderNumber());
+                        continue;
+                    }
+                    throw new RuntimeException("创建订单失败：" + e.getMessage(), e);
                 }
             }
             
+            // 事务已提交，只清除库存变化的图书和订单数量相关的缓存
+            Set<Integer> changedBookIds = aggregateCartQuantities(cartItems).keySet();
+            CacheManager.invalidateTags(BookCacheTags.books(changedBookIds));
+            BookCatalog.getInstance().refresh(changedBookIds);
+            CacheManager.clearByPattern("orders_");
+            statistics.onCreated(order);
+            
             System.out.println("[DEBUG] 订单创建成功，订单ID: " + order.getId());
             return order;
             
@@ -112,6 +150,8 @@ public class OrderServiceImpl implements OrderService {
             System.out.println("[ERROR] 创建订单过程中发生异常: " + e.getMessage());
             e.printStackTrace();
             throw e;
+        } finally {
+            sample.stop();
         }
     }
     
@@ -167,12 +207,97 @@ public class OrderServiceImpl implements OrderService {
         return orderDAO.getTotalCount();
     }
     
+    @Override
+    public List<Order> getOrdersPageAfter(OrderQuery query, Order last, int pageSize) {
+        if (pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        if (last == null) {
+            return orderDAO.findPageAfter(query, null, null, pageSize);
+        }
+        return orderDAO.findPageAfter(query, last.getCreateTime(), last.getId(), pageSize);
+    }
+    
+    @Override
+    public List<Order> getOrdersPageBefore(OrderQuery query, Order first, int pageSize) {
+        if (first == null || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        return orderDAO.findPageBefore(query, first.getCreateTime(), first.getId(), pageSize);
+    }
+    
+    @Override
+    public List<Order> getOrdersPageByOffset(OrderQuery query, int offset, int pageSize) {
+        if (offset < 0 || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        return orderDAO.findPageByOffset(query, offset, pageSize);
+    }
+    
+    @Override
+    public KeysetPage<Order> getOrdersAfter(OrderQuery query, String token, int pageSize) {
+        return orderDAO.findAfter(query, token, pageSize);
+    }
+    
+    @Override
+    public KeysetPage<Order> getOrdersBefore(OrderQuery query, String token, int pageSize) {
+        return orderDAO.findBefore(query, token, pageSize);
+    }
+    
+    @Override
+    public int countOrders(OrderQuery query) {
+        String cacheKey = CacheManager.generateKey("orders_count", query != null ? query.signature() : "");
+        Integer cachedCount = CacheManager.get(cacheKey);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        
+        int count = orderDAO.getTotalCount(query);
+        CacheManager.put(cacheKey, count, 10000); // 缓存10秒，订单状态变化时主动清除
+        return count;
+    }
+    
+    /**
+     * 带条件地迁移订单状态，成功后清除订单计数缓存并更新统计计数
+     * @param orderId 订单ID
+     * @param from 允许的起始状态
+     * @param to 目标状态
+     * @return 是否迁移成功
+     */
+    private boolean transition(Integer orderId, Set<Order.OrderStatus> from, Order.OrderStatus to) {
+        TransitionResult result = applyTransition(orderId, from, to);
+        return result != null && result.isApplied();
+    }
+    
+    /**
+     * 带条件地迁移订单状态（自动提交的一条带 status IN 条件的UPDATE）
+     * @return 迁移结果，数据库异常时返回null
+     */
+    private TransitionResult applyTransition(Integer orderId, Set<Order.OrderStatus> from, Order.OrderStatus to) {
+        try {
+            TransitionResult result = orderDAO.transitionStatus(orderId, from, to);
+            if (!result.isApplied()) {
+                System.out.println("[INFO] 订单 " + orderId + " 未能变更为 " + to + ": " + result);
+                return result;
+            }
+            CacheManager.clearByPattern("orders_");
+            statistics.onStatusChanged(result.getStudentId(), result.getPreviousStatus(), to);
+            return result;
+        } catch (SQLException e) {
+            System.err.println("更新订单状态失败: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
     @Override
     public boolean updateOrderStatus(Integer orderId, Order.OrderStatus status) {
         if (orderId == null || status == null) {
             return false;
         }
-        return orderDAO.updateStatus(orderId, status);
+        // 管理员直接改状态：任何其他状态都可以迁移过来；订单已是该状态时视为成功（与原来的直接UPDATE一致）
+        TransitionResult result = applyTransition(orderId, EnumSet.complementOf(EnumSet.of(status)), status);
+        return result != null && (result.isApplied() || result.getCurrentStatus() == status);
     }
     
     @Override
@@ -181,24 +306,40 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        Order order = orderDAO.findById(orderId);
-        if (order == null) {
+        // 只有待处理和已确认的订单可以取消。状态迁移和库存退回在同一事务中：
+        // 迁移成功才退回库存，并发取消不会重复退回；退回按教材汇总后一次批量相对更新
+        Map<Integer, Integer> restored = new HashMap<>();
+        TransitionResult result;
+        try {
+            result = DBUtil.executeInTransaction(conn -> {
+                TransitionResult transition = orderDAO.transitionStatus(conn, orderId, CANCELLABLE, Order.OrderStatus.CANCELLED);
+                if (transition.isApplied()) {
+                    Map<Integer, Integer> quantities = orderDAO.sumItemQuantitiesByBook(conn, Collections.singletonList(orderId));
+                    List<Integer> missing = bookDAO.addStockBatch(conn, quantities);
+                    if (!missing.isEmpty()) {
+                        System.out.println("[WARN] 退回库存时教材已不存在: " + missing);
+                    }
+                    restored.putAll(quantities);
+                }
+                return transition;
+            });
+        } catch (SQLException e) {
+            System.err.println("取消订单失败: " + e.getMessage());
+            e.printStackTrace();
             return false;
         }
         
-        // 检查是否可以取消
-        if (!canCancelOrder(orderId)) {
+        if (!result.isApplied()) {
+            System.out.println("[INFO] 订单 " + orderId + " 未能变更为 " + Order.OrderStatus.CANCELLED + ": " + result);
             return false;
         }
-        
-        // 恢复库存
-        List<OrderDetail> details = orderDAO.findOrderDetailsByOrderId(orderId);
-        for (OrderDetail detail : details) {
-            bookService.addBookStock(detail.getBookId(), detail.getQuantity());
+        CacheManager.clearByPattern("orders_");
+        statistics.onStatusChanged(result.getStudentId(), result.getPreviousStatus(), Order.OrderStatus.CANCELLED);
+        if (!restored.isEmpty()) {
+            CacheManager.invalidateTags(BookCacheTags.books(restored.keySet()));
+            BookCatalog.getInstance().refresh(restored.keySet());
         }
-        
-        // 更新订单状态
-        return orderDAO.updateStatus(orderId, Order.OrderStatus.CANCELLED);
+        return true;
     }
     
     @Override
@@ -207,12 +348,7 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        Order order = orderDAO.findById(orderId);
-        if (order == null || (order.getStatus() != Order.OrderStatus.PENDING && order.getStatus() != Order.OrderStatus.PAID)) {
-            return false;
-        }
-        
-        return orderDAO.updateStatus(orderId, Order.OrderStatus.CONFIRMED);
+        return transition(orderId, EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PAID), Order.OrderStatus.CONFIRMED);
     }
     
     @Override
@@ -221,11 +357,84 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        if (!canShipOrder(orderId)) {
-            return false;
+        // 只有已确认的订单可以发货
+        return transition(orderId, EnumSet.of(Order.OrderStatus.CONFIRMED), Order.OrderStatus.SHIPPED);
+    }
+    
+    @Override
+    public BatchTransitionResult confirmOrders(List<Integer> orderIds) {
+        return transitionAll(orderIds, EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PAID),
+                Order.OrderStatus.CONFIRMED);
+    }
+    
+    @Override
+    public BatchTransitionResult shipOrders(List<Integer> orderIds) {
+        return transitionAll(orderIds, EnumSet.of(Order.OrderStatus.CONFIRMED), Order.OrderStatus.SHIPPED);
+    }
+    
+    @Override
+    public BatchTransitionResult cancelOrders(List<Integer> orderIds) {
+        return transitionAll(orderIds, CANCELLABLE, Order.OrderStatus.CANCELLED);
+    }
+    
+    /**
+     * 分块批量迁移订单状态，每块一个事务：锁定并读取状态、一条UPDATE迁移符合条件的订单，
+     * 取消时再按教材汇总这些订单的数量一次批量退回库存。某块失败只回滚该块。
+     */
+    private BatchTransitionResult transitionAll(List<Integer> orderIds, Set<Order.OrderStatus> from, Order.OrderStatus to) {
+        BatchTransitionResult report = new BatchTransitionResult(to);
+        if (orderIds == null || orderIds.isEmpty()) {
+            return report;
+        }
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        ids.remove(null);
+        
+        Map<Integer, Integer> restoredStock = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + BATCH_CHUNK_SIZE, ids.size()));
+            Map<Integer, Integer> chunkStock = new HashMap<>();
+            try {
+                Map<Integer, TransitionResult> outcomes = DBUtil.executeInTransaction(conn -> {
+                    Map<Integer, TransitionResult> results = orderDAO.transitionStatusBatch(conn, chunk, from, to);
+                    if (to == Order.OrderStatus.CANCELLED) {
+                        List<Integer> cancelled = new ArrayList<>();
+                        results.forEach((id, result) -> {
+                            if (result.isApplied()) {
+                                cancelled.add(id);
+                            }
+                        });
+                        Map<Integer, Integer> quantities = orderDAO.sumItemQuantitiesByBook(conn, cancelled);
+                        List<Integer> missing = bookDAO.addStockBatch(conn, quantities);
+                        if (!missing.isEmpty()) {
+                            System.out.println("[WARN] 退回库存时教材已不存在: " + missing);
+                        }
+                        chunkStock.putAll(quantities);
+                    }
+                    return results;
+                });
+                report.addOutcomes(outcomes);
+                chunkStock.forEach((bookId, quantity) -> restoredStock.merge(bookId, quantity, Integer::sum));
+                for (TransitionResult result : outcomes.values()) {
+                    if (result.isApplied()) {
+                        statistics.onStatusChanged(result.getStudentId(), result.getPreviousStatus(), to);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("批量更新订单状态失败: " + e.getMessage());
+                e.printStackTrace();
+                report.addError(new ArrayList<>(chunk), e.getMessage());
+            }
         }
         
-        return orderDAO.updateStatus(orderId, Order.OrderStatus.SHIPPED);
+        if (report.getSucceededCount() > 0) {
+            CacheManager.clearByPattern("orders_");
+        }
+        if (!restoredStock.isEmpty()) {
+            CacheManager.invalidateTags(BookCacheTags.books(restoredStock.keySet()));
+            BookCatalog.getInstance().refresh(restoredStock.keySet());
+        }
+        System.out.println("[INFO] 批量变更订单为 " + to + ": " + report);
+        return report;
     }
     
     @Override
@@ -234,12 +443,7 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        Order order = orderDAO.findById(orderId);
-        if (order == null || order.getStatus() != Order.OrderStatus.SHIPPED) {
-            return false;
-        }
-        
-        return orderDAO.updateStatus(orderId, Order.OrderStatus.COMPLETED);
+        return transition(orderId, EnumSet.of(Order.OrderStatus.SHIPPED), Order.OrderStatus.COMPLETED);
     }
     
     @Override
@@ -248,11 +452,20 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
+        Order order = orderDAO.findById(orderId);
+        
         // 先删除订单详情
         orderDAO.deleteOrderDetails(orderId);
         
         // 再删除订单
-        return orderDAO.delete(orderId);
+        boolean result = orderDAO.delete(orderId);
+        if (result) {
+            CacheManager.clearByPattern("orders_");
+            if (order != null) {
+                statistics.onDeleted(order);
+            }
+        }
+        return result;
     }
     
     @Override
@@ -283,8 +496,16 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        for (CartItem item : cartItems) {
-            if (!bookService.checkBookStock(item.getBook().getId(), item.getQuantity())) {
+        // 一次 IN 查询取回所有教材的库存，同一教材出现在多行时按合计数量校验
+        Map<Integer, Integer> quantities = aggregateCartQuantities(cartItems);
+        Map<Integer, Integer> stocks = new HashMap<>();
+        for (Book book : bookDAO.findByIds(quantities.keySet())) {
+            stocks.put(book.getId(), book.getStock());
+        }
+        
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Integer stock = stocks.get(entry.getKey());
+            if (stock == null || stock < entry.getValue()) {
                 return false;
             }
         }
@@ -292,24 +513,50 @@ public class OrderServiceImpl implements OrderService {
         return true;
     }
     
+    /**
+     * 按教材ID合计购物车中的购买数量
+     * @param cartItems 购物车项目列表
+     * @return 教材ID到合计数量的映射
+     */
+    private Map<Integer, Integer> aggregateCartQuantities(List<CartItem> cartItems) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (CartItem item : cartItems) {
+            quantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    /**
+     * 将教材ID列表转换为书名描述，用于错误提示
+     */
+    private String describeBooks(List<CartItem> cartItems, List<Integer> bookIds) {
+        List<String> titles = new ArrayList<>();
+        for (CartItem item : cartItems) {
+            if (bookIds.contains(item.getBook().getId()) && !titles.contains(item.getBook().getTitle())) {
+                titles.add(item.getBook().getTitle());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String title : titles) {
+            sb.append("《").append(title).append("》");
+        }
+        return sb.toString();
+    }
+    
     @Override
     public String generateOrderNumber() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMddHHmmss");
-        String timestamp = sdf.format(new Date());
-        
-        // 添加随机数确保唯一性
-        Random random = new Random();
-        int randomNum = random.nextInt(1000);
-        
-        String orderNumber = "ORD" + timestamp + String.format("%03d", randomNum);
-        
-        // 检查订单号是否已存在
-        while (orderDAO.existsByOrderNumber(orderNumber)) {
-            randomNum = random.nextInt(1000);
-            orderNumber = "ORD" + timestamp + String.format("%03d", randomNum);
-        }
-        
-        return orderNumber;
+        // 节点号加原子序号保证唯一，不需要再查询数据库确认
+        OrderNumberGenerator generator = orderNumberGenerator != null
+                ? orderNumberGenerator : NodeIdLease.getInstance().getGenerator();
+        return generator.next();
+    }
+    
+    /**
+     * 是否为订单号唯一约束冲突
+     */
+    private static boolean isDuplicateOrderNumber(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                && e.getMessage() != null && e.getMessage().toLowerCase().contains("order_number");
     }
     
     @Override
@@ -324,8 +571,7 @@ public class OrderServiceImpl implements OrderService {
         }
         
         // 只有待处理和已确认的订单可以取消
-        return order.getStatus() == Order.OrderStatus.PENDING || 
-               order.getStatus() == Order.OrderStatus.CONFIRMED;
+        return CANCELLABLE.contains(order.getStatus());
     }
     
     @Override
@@ -345,56 +591,17 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     public int getPendingOrderCount() {
-        return getOrdersByStatus(Order.OrderStatus.PENDING).size();
+        return statistics.getCount(Order.OrderStatus.PENDING);
     }
     
     @Override
     public int getTodayOrderCount() {
-        // 获取今天的开始时间
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startOfDay = calendar.getTime();
-        
-        // 获取今天的结束时间
-        calendar.add(Calendar.DAY_OF_MONTH, 1);
-        Date startOfNextDay = calendar.getTime();
-        
-        // 统计今天的订单
-        List<Order> allOrders = getAllOrders();
-        int count = 0;
-        for (Order order : allOrders) {
-            if (order.getCreateTime().compareTo(startOfDay) >= 0 && 
-                order.getCreateTime().compareTo(startOfNextDay) < 0) {
-                count++;
-            }
-        }
-        
-        return count;
+        return statistics.getTodayCount();
     }
     
     @Override
     public Map<Order.OrderStatus, Integer> getStudentOrderStatistics(Integer studentId) {
-        Map<Order.OrderStatus, Integer> statistics = new HashMap<>();
-        
-        // 初始化所有状态的计数为0
-        for (Order.OrderStatus status : Order.OrderStatus.values()) {
-            statistics.put(status, 0);
-        }
-        
-        if (studentId == null) {
-            return statistics;
-        }
-        
-        List<Order> orders = getOrdersByStudentId(studentId);
-        for (Order order : orders) {
-            Order.OrderStatus status = order.getStatus();
-            statistics.put(status, statistics.get(status) + 1);
-        }
-        
-        return statistics;
+        return statistics.getStudentCounts(studentId);
     }
     
     @Override
@@ -403,13 +610,8 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
         
-        // 检查订单是否可以支付
-        if (!canPayOrder(orderId)) {
-            return false;
-        }
-        
-        // 直接处理支付，更新订单状态为已支付
-        return orderDAO.updateStatus(orderId, Order.OrderStatus.PAID);
+        // 只有待支付状态的订单可以支付，直接更新订单状态为已支付
+        return transition(orderId, EnumSet.of(Order.OrderStatus.PENDING), Order.OrderStatus.PAID);
     }
     
     @Override
@@ -473,18 +675,8 @@ public class OrderServiceImpl implements OrderService {
         }
         
         try {
-            Order order = orderDAO.findById(orderId);
-            if (order == null) {
-                return false;
-            }
-            
-            // 只有已发货状态的订单可以确认收货
-            if (order.getStatus() != Order.OrderStatus.SHIPPED) {
-                return false;
-            }
-            
-            // 更新订单状态为已完成
-            return orderDAO.updateStatus(orderId, Order.OrderStatus.COMPLETED);
+            // 只有已发货状态的订单可以确认收货，更新订单状态为已完成
+            return transition(orderId, EnumSet.of(Order.OrderStatus.SHIPPED), Order.OrderStatus.COMPLETED);
         } catch (Exception e) {
             System.err.println("确认收货失败: " + e.getMessage());
             return false;
@@ -0,0 +1,362 @@
+package com.university.bookstore.service.impl;
+
+import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.dao.impl.OrderDAOImpl;
+import com.university.bookstore.model.Order;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 增量维护的订单计数
+ *
+ * 按状态、按创建日期两组全局计数器，第一次读取时用聚合SQL（GROUP BY）建立一次初始值，
+ * 之后由本进程的下单、状态变更和删除直接增减，读取是O(1)，不再为计数而加载订单列表。
+ * 计数器使用 LongAdder，并发下单时各线程写不同的分段，不争用同一个缓存行。
+ *
+ * 按学生的计数与全局计数器相互独立：在该学生第一次被查询时单独聚合（走 user_id 索引），
+ * 不会触发全表聚合，之后随该学生订单的下单、状态迁移和删除增减。单条状态迁移只发一条UPDATE、
+ * 不回读订单，不知道订单所属学生时丢弃已加载的按学生计数（下次查询重新聚合，客户端进程通常只加载了当前学生）；
+ * 从多个起始状态迁移时原状态也未知，标记全局计数器过期，下次读取时重新聚合。
+ *
+ * 其他进程的写入不会反映到本进程的计数中。需要时可设置 bookstore.orderStats.reseedSeconds
+ * 定期用聚合SQL重建全局计数器（默认0，不重建）；重建期间到达的增减会记录下来补到新的计数器上。
+ */
+public class OrderStatistics {
+
+    // 按日计数保留的天数
+    private static final int RETAINED_DAYS = 31;
+    private static final long RESEED_SECONDS = Long.getLong("bookstore.orderStats.reseedSeconds", 0);
+
+    private static volatile OrderStatistics instance;
+
+    /**
+     * 一组全局计数器，重建时整体替换；重建期间另用一组记录增减
+     */
+    private static final class Counters {
+        final Map<Order.OrderStatus, LongAdder> byStatus = newStatusCounters();
+        final Map<LocalDate, LongAdder> byDay = new ConcurrentHashMap<>();
+
+        void addAll(Counters delta) {
+            delta.byStatus.forEach((status, adder) -> byStatus.get(status).add(adder.sum()));
+            delta.byDay.forEach((day, adder) -> {
+                LongAdder target = byDay.get(day);
+                if (target != null) {
+                    target.add(adder.sum());
+                } else if (adder.sum() > 0) {
+                    byDay.computeIfAbsent(day, d -> new LongAdder()).add(adder.sum());
+                }
+            });
+        }
+    }
+
+    private final OrderDAO orderDAO;
+    private volatile Counters counters;
+    // 重建期间到达的增减，重建完成后补到新的计数器上；不在重建时为null
+    private Counters pendingDelta;
+    // 增减持读锁（可并发），重建开始记录和替换计数器时持写锁，保证每次增减要么在新计数器的聚合之前、要么被记录
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 有无法增量调整的变更（原状态未知），下次读取时重建
+    private volatile boolean stale;
+    private final Map<Integer, Map<Order.OrderStatus, LongAdder>> byStudent = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private OrderStatistics() {
+        this.orderDAO = new OrderDAOImpl();
+    }
+
+    /**
+     * 获取订单统计单例（不会触发加载）
+     */
+    public static OrderStatistics getInstance() {
+        if (instance == null) {
+            synchronized (OrderStatistics.class) {
+                if (instance == null) {
+                    instance = new OrderStatistics();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 用聚合SQL重建全局计数器，失败时保留原有计数
+     * 聚合查询期间到达的增减记录在 pendingDelta 中，替换时补到新的计数器上。
+     * 在查询开始前提交、查询开始后才回调的变更会被重复计入，这段窗口只有提交到回调之间的几微秒
+     * @return 是否重建成功
+     */
+    public synchronized boolean reseed() {
+        LocalDate firstDay = LocalDate.now().minusDays(RETAINED_DAYS - 1);
+        Counters seeded = new Counters();
+        stale = false;
+        lock.writeLock().lock();
+        try {
+            pendingDelta = new Counters();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            orderDAO.countGroupByStatus(null).forEach((status, count) -> seeded.byStatus.get(status).add(count));
+            orderDAO.countGroupByDay(Timestamp.valueOf(firstDay.atStartOfDay())).forEach((day, count) -> {
+                LongAdder adder = new LongAdder();
+                adder.add(count);
+                seeded.byDay.put(day, adder);
+            });
+        } catch (SQLException e) {
+            System.err.println("重建订单统计失败: " + e.getMessage());
+            e.printStackTrace();
+            stale = true;
+            lock.writeLock().lock();
+            try {
+                pendingDelta = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            seeded.addAll(pendingDelta);
+            pendingDelta = null;
+            counters = seeded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        startScheduler();
+        return true;
+    }
+
+    private void startScheduler() {
+        if (scheduler != null || RESEED_SECONDS <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OrderStatisticsReseed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reseed, RESEED_SECONDS, RESEED_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 取当前全局计数器，尚未建立或已过期时先从数据库建立
+     * @return 计数器，数据库不可用时返回null
+     */
+    private Counters current() {
+        Counters current = counters;
+        if (current == null || stale) {
+            synchronized (this) {
+                if (counters == null || stale) {
+                    reseed();
+                }
+                current = counters;
+            }
+        }
+        return current;
+    }
+
+    // ========== 读取 ==========
+
+    /**
+     * 某状态的订单数量
+     */
+    public int getCount(Order.OrderStatus status) {
+        Counters current = current();
+        return current != null ? (int) current.byStatus.get(status).sum() : 0;
+    }
+
+    /**
+     * 某天创建的订单数量，只保留最近31天
+     */
+    public int getCountForDay(LocalDate day) {
+        Counters current = current();
+        if (current == null) {
+            return 0;
+        }
+        LongAdder adder = current.byDay.get(day);
+        return adder != null ? (int) adder.sum() : 0;
+    }
+
+    /**
+     * 今天创建的订单数量
+     */
+    public int getTodayCount() {
+        return getCountForDay(LocalDate.now());
+    }
+
+    /**
+     * 学生各状态的订单数量（只聚合该学生，不建立全局计数器）
+     * @param studentId 学生ID，为null时全部为0
+     * @return 包含所有状态的映射，没有订单的状态为0
+     */
+    public Map<Order.OrderStatus, Integer> getStudentCounts(Integer studentId) {
+        Map<Order.OrderStatus, Integer> result = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.OrderStatus, LongAdder> student = studentId != null ? studentCounters(studentId) : null;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            result.put(status, student != null ? (int) student.get(status).sum() : 0);
+        }
+        return result;
+    }
+
+    /**
+     * 取学生的计数器，不存在时按学生聚合一次
+     * @return 计数器，查询失败时返回null（不缓存）
+     */
+    private Map<Order.OrderStatus, LongAdder> studentCounters(Integer studentId) {
+        Map<Order.OrderStatus, LongAdder> student = byStudent.get(studentId);
+        if (student != null) {
+            return student;
+        }
+        Map<Order.OrderStatus, LongAdder> loaded = newStatusCounters();
+        try {
+            orderDAO.countGroupByStatus(studentId).forEach((status, count) -> loaded.get(status).add(count));
+        } catch (SQLException e) {
+            System.err.println("统计学生订单失败: " + e.getMessage());
+            return null;
+        }
+        Map<Order.OrderStatus, LongAdder> existing = byStudent.putIfAbsent(studentId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // ========== 增量更新 ==========
+    // 全局计数器尚未建立且不在建立过程中时忽略，建立时的聚合查询会包含这些已提交的变更
+
+    /**
+     * 订单已创建（事务已提交）
+     */
+    public void onCreated(Order order) {
+        if (order.getStatus() == null) {
+            return;
+        }
+        Map<Order.OrderStatus, LongAdder> student = byStudent.get(order.getStudentId());
+        if (student != null) {
+            student.get(order.getStatus()).increment();
+        }
+        LocalDate day = order.getCreateTime() != null ? order.getCreateTime().toLocalDateTime().toLocalDate() : LocalDate.now();
+        lock.readLock().lock();
+        try {
+            Counters current = counters;
+            if (current != null) {
+                addCreated(current, order.getStatus(), day, 1, false);
+            }
+            if (pendingDelta != null) {
+                addCreated(pendingDelta, order.getStatus(), day, 1, true);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Counters current = counters;
+        if (current != null && current.byDay.size() > RETAINED_DAYS) {
+            LocalDate firstDay = LocalDate.now().minusDays(RETAINED_DAYS - 1);
+            current.byDay.keySet().removeIf(d -> d.isBefore(firstDay));
+        }
+    }
+
+    /**
+     * 订单状态已变更（事务已提交）
+     * @param studentId 订单所属学生ID，未知时丢弃所有按学生的计数
+     * @param from 原状态，未知时标记全局计数器过期
+     * @param to 新状态
+     */
+    public void onStatusChanged(Integer studentId, Order.OrderStatus from, Order.OrderStatus to) {
+        if (to == null || from == to) {
+            return;
+        }
+        if (from != null) {
+            lock.readLock().lock();
+            try {
+                Counters current = counters;
+                if (current != null) {
+                    moveStatus(current, from, to);
+                }
+                if (pendingDelta != null) {
+                    moveStatus(pendingDelta, from, to);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        } else {
+            stale = true;
+        }
+
+        if (studentId == null) {
+            byStudent.clear();
+            return;
+        }
+        // 尚未加载的学生不需要调整，第一次查询时的聚合会包含这次变更
+        Map<Order.OrderStatus, LongAdder> student = byStudent.get(studentId);
+        if (student == null) {
+            return;
+        }
+        if (from != null) {
+            student.get(from).decrement();
+            student.get(to).increment();
+        } else {
+            byStudent.remove(studentId);
+        }
+    }
+
+    /**
+     * 订单已删除
+     */
+    public void onDeleted(Order order) {
+        if (order.getStatus() == null) {
+            return;
+        }
+        Map<Order.OrderStatus, LongAdder> student = byStudent.get(order.getStudentId());
+        if (student != null) {
+            student.get(order.getStatus()).decrement();
+        }
+        LocalDate day = order.getCreateTime() != null ? order.getCreateTime().toLocalDateTime().toLocalDate() : null;
+        lock.readLock().lock();
+        try {
+            Counters current = counters;
+            if (current != null) {
+                addCreated(current, order.getStatus(), day, -1, false);
+            }
+            if (pendingDelta != null) {
+                addCreated(pendingDelta, order.getStatus(), day, -1, true);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按状态和创建日期增减一个订单
+     * @param recording 是否记录到重建期间的增减中（删除时也要记下日期）；否则删除只调整仍保留的日期
+     */
+    private static void addCreated(Counters target, Order.OrderStatus status, LocalDate day, int delta, boolean recording) {
+        target.byStatus.get(status).add(delta);
+        if (day == null) {
+            return;
+        }
+        LongAdder adder = delta > 0 || recording ? target.byDay.computeIfAbsent(day, d -> new LongAdder()) : target.byDay.get(day);
+        if (adder != null) {
+            adder.add(delta);
+        }
+    }
+
+    private static void moveStatus(Counters target, Order.OrderStatus from, Order.OrderStatus to) {
+        target.byStatus.get(from).decrement();
+        target.byStatus.get(to).increment();
+    }
+
+    private static Map<Order.OrderStatus, LongAdder> newStatusCounters() {
+        Map<Order.OrderStatus, LongAdder> map = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            map.put(status, new LongAdder());
+        }
+        return map;
+    }
+}
@@ -2,11 +2,17 @@ package com.university.bookstore.service.impl;
 
 import com.university.bookstore.dao.UserDAO;
 import com.university.bookstore.dao.impl.UserDAOImpl;
+import com.university.bookstore.model.Order;
 import com.university.bookstore.model.User;
 import com.university.bookstore.service.UserService;
 
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 用户业务逻辑服务实现类
@@ -90,6 +96,37 @@ public class UserServiceImpl implements UserService {
         return userDAO.findById(id);
     }
     
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) {
+        Map<Integer, User> userMap = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return userMap;
+        }
+        for (User user : userDAO.findByIds(ids)) {
+            userMap.put(user.getId(), user);
+        }
+        return userMap;
+    }
+    
+    @Override
+    public void attachStudents(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return;
+        }
+        
+        Set<Integer> studentIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getStudentId() != null) {
+                studentIds.add(order.getStudentId());
+            }
+        }
+        
+        Map<Integer, User> students = getUsersByIds(studentIds);
+        for (Order order : orders) {
+            order.setStudent(students.get(order.getStudentId()));
+        }
+    }
+    
     @Override
     public User getUserByUsername(String username) {
         if (username == null) {
@@ -0,0 +1,485 @@
+package com.university.bookstore.tools;
+
+import com.university.bookstore.model.Order;
+import com.university.bookstore.model.User;
+import com.university.bookstore.util.DBUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 测试数据生成器
+ *
+ * 按规模系数向当前数据源（DBUtil，可配合 -Dbookstore.db.profile=h2）批量写入
+ * 院系、用户（三种角色）、教材、课程、课程教材和订单（含订单项）。
+ * 教材在订单和课程中的出现频率服从Zipf分布，少数热门教材占大部分销量，
+ * 下单学生也有轻度偏斜，接近真实的访问分布。
+ *
+ * 用法：
+ *   java -cp bookstore-1.0-SNAPSHOT.jar com.university.bookstore.tools.DataGenerator --scale=10
+ * 参数（均为 --名称=值，可单独覆盖规模系数推算出的数量）：
+ *   scale        规模系数，默认1（1万教材、1万学生、10万订单）
+ *   departments / teachers / students / books / courses / orders  各类数据的数量，0表示跳过
+ *   skew         教材热度的Zipf指数，默认1.1
+ *   days         订单时间分布在最近多少天内，默认365
+ *   batch        每批插入和提交的行数，默认1000
+ *   seed         随机种子，默认42，相同参数生成相同数据
+ *
+ * 已有数据不会被删除，新数据的ID从各表当前最大ID之后开始。
+ * 数据库需要 t_department/t_course/t_course_book 表（MySQL见 database/course_tables.sql）。
+ */
+public class DataGenerator {
+
+    private static final String[] SURNAMES = {
+            "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周", "徐", "孙", "马", "朱", "胡",
+            "郭", "何", "高", "林", "罗", "郑", "梁", "谢", "宋", "唐", "许", "韩", "冯", "邓", "曹",
+            "彭", "曾", "肖", "田", "董", "袁", "潘", "于", "蒋", "蔡", "欧阳", "司马"};
+    private static final String[] GIVEN_NAME_CHARS = {
+            "伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "军", "洋", "勇", "艳", "杰", "娟", "涛",
+            "明", "超", "秀", "霞", "平", "刚", "桂", "英", "华", "玉", "文", "辉", "建", "国", "志",
+            "晓", "红", "宇", "浩", "鑫", "欣", "怡", "佳", "思", "雨", "子", "涵", "晨", "博", "睿",
+            "嘉", "雪", "琳", "婷", "俊", "鹏", "飞", "宁", "海", "春", "林", "亮", "斌", "凯", "慧"};
+    private static final String[] DEPARTMENTS = {
+            "计算机科学与技术学院", "软件学院", "电子信息工程学院", "数学科学学院", "物理学院",
+            "化学化工学院", "生命科学学院", "机械工程学院", "土木工程学院", "材料科学与工程学院",
+            "经济学院", "管理学院", "法学院", "外国语学院", "文学院", "新闻传播学院", "历史学院",
+            "哲学系", "马克思主义学院", "艺术学院", "医学院", "环境科学与工程学院", "自动化学院",
+            "建筑学院"};
+    private static final String[] SUBJECTS = {
+            "数据结构", "算法设计与分析", "操作系统", "计算机网络", "数据库系统", "编译原理",
+            "计算机组成原理", "软件工程", "人工智能", "机器学习", "深度学习", "计算机图形学",
+            "分布式系统", "信息安全", "Java程序设计", "C语言程序设计", "Python程序设计",
+            "高等数学", "线性代数", "概率论与数理统计", "离散数学", "数学分析", "复变函数",
+            "常微分方程", "数值分析", "大学物理", "量子力学", "电磁学", "理论力学", "热力学",
+            "有机化学", "无机化学", "分析化学", "生物化学", "细胞生物学", "遗传学",
+            "微观经济学", "宏观经济学", "计量经济学", "会计学", "财务管理", "市场营销",
+            "管理学", "组织行为学", "民法学", "刑法学", "宪法学", "大学英语", "英美文学",
+            "中国古代文学", "中国现代文学", "中国近现代史纲要", "马克思主义基本原理",
+            "电路分析", "模拟电子技术", "数字电子技术", "信号与系统", "自动控制原理",
+            "材料力学", "结构力学", "工程制图", "机械设计", "环境工程学", "建筑设计原理"};
+    private static final String[] BOOK_SUFFIXES = {
+            "", "教程", "原理", "导论", "基础", "概论", "原理与应用", "实验指导", "习题解析",
+            "学习辅导", "案例教程", "（英文版）", "精讲"};
+    private static final String[] COURSE_SUFFIXES = {"", "A", "B", "实验", "（双语）", "专题", "进阶"};
+    private static final String[] PUBLISHERS = {
+            "高等教育出版社", "清华大学出版社", "机械工业出版社", "人民邮电出版社", "电子工业出版社",
+            "北京大学出版社", "科学出版社", "中国人民大学出版社", "复旦大学出版社", "外语教学与研究出版社",
+            "上海外语教育出版社", "浙江大学出版社", "西安电子科技大学出版社", "化学工业出版社",
+            "法律出版社", "北京航空航天大学出版社", "华中科技大学出版社", "武汉大学出版社"};
+    private static final String[] LEVELS = {"本科低年级", "本科高年级", "研究生", "专业课", "公共基础课"};
+
+    // 订单状态及权重，已完成订单占多数
+    private static final Order.OrderStatus[] STATUSES = {
+            Order.OrderStatus.COMPLETED, Order.OrderStatus.SHIPPED, Order.OrderStatus.CONFIRMED,
+            Order.OrderStatus.PAID, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED};
+    private static final int[] STATUS_WEIGHTS = {55, 8, 7, 10, 10, 10};
+    // 每单教材种数 1~5 的权重
+    private static final int[] ITEM_COUNT_WEIGHTS = {45, 30, 13, 8, 4};
+
+    private static final DateTimeFormatter ORDER_NUMBER_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final Map<String, String> options;
+    private final Random random;
+    private final int batchSize;
+    private final double skew;
+    private final int days;
+
+    private Connection connection;
+
+    public DataGenerator(Map<String, String> options) {
+        this.options = options;
+        this.random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+        this.batchSize = intOption("batch", 1000);
+        this.skew = Double.parseDouble(options.getOrDefault("skew", "1.1"));
+        this.days = intOption("days", 365);
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if ("--help".equals(arg) || !arg.startsWith("--") || !arg.contains("=")) {
+                System.out.println("用法: DataGenerator [--scale=1] [--books=N] [--students=N] [--teachers=N] "
+                        + "[--departments=N] [--courses=N] [--orders=N] [--skew=1.1] [--days=365] "
+                        + "[--batch=1000] [--seed=42]");
+                return;
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            new DataGenerator(options).run();
+            System.out.printf("数据生成完成，总耗时 %.1f 秒%n", (System.currentTimeMillis() - start) / 1000.0);
+        } catch (SQLException e) {
+            System.err.println("数据生成失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtil.closeDataSource();
+        }
+    }
+
+    /**
+     * 按依赖顺序生成全部数据
+     */
+    public void run() throws SQLException {
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1"));
+        int departments = intOption("departments", Math.min(DEPARTMENTS.length, (int) Math.ceil(12 * scale)));
+        int teachers = intOption("teachers", (int) (300 * scale));
+        int students = intOption("students", (int) (10_000 * scale));
+        int books = intOption("books", (int) (10_000 * scale));
+        int courses = intOption("courses", (int) (600 * scale));
+        int orders = intOption("orders", (int) (100_000 * scale));
+
+        connection = DBUtil.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            generateDepartments(departments);
+            generateUsers(User.UserRole.ADMIN, Math.max(1, (int) Math.ceil(scale)));
+            generateUsers(User.UserRole.TEACHER, teachers);
+            generateUsers(User.UserRole.STUDENT, students);
+            generateBooks(books);
+            generateCourses(courses);
+            generateOrders(orders);
+            connection.setAutoCommit(true);
+            finish();
+        } finally {
+            DBUtil.closeConnection(connection);
+        }
+    }
+
+    private void generateDepartments(int count) throws SQLException {
+        int baseId = maxId("t_department");
+        insertBatches("院系", "INSERT INTO t_department (id, name) VALUES (?, ?)", count, (stmt, i) -> {
+            int id = baseId + i + 1;
+            String name = DEPARTMENTS[(id - 1) % DEPARTMENTS.length];
+            int round = (id - 1) / DEPARTMENTS.length;
+            stmt.setInt(1, id);
+            stmt.setString(2, round == 0 ? name : name + "（" + (round + 1) + "校区）");
+        });
+    }
+
+    private void generateUsers(User.UserRole role, int count) throws SQLException {
+        int baseId = maxId("t_user");
+        String prefix = "gen_" + role.name().toLowerCase();
+        int enrollYear = Year.now().getValue() - 3;
+        insertBatches(role.getDisplayName(),
+                "INSERT INTO t_user (id, username, password, role, name, student_id, create_time) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)", count, (stmt, i) -> {
+            int id = baseId + i + 1;
+            stmt.setInt(1, id);
+            stmt.setString(2, prefix + id);
+            stmt.setString(3, role.name().toLowerCase() + "123");
+            stmt.setString(4, role.name());
+            stmt.setString(5, personName());
+            if (role == User.UserRole.STUDENT) {
+                stmt.setString(6, String.format("%d%07d", enrollYear + random.nextInt(4), id));
+            } else {
+                stmt.setNull(6, Types.VARCHAR);
+            }
+            stmt.setTimestamp(7, randomTime(days * 3));
+        });
+    }
+
+    private void generateBooks(int count) throws SQLException {
+        int baseId = maxId("t_book");
+        insertBatches("教材",
+                "INSERT INTO t_book (id, isbn, title, author, publisher, price, stock, description, create_time, update_time) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", count, (stmt, i) -> {
+            int id = baseId + i + 1;
+            String subject = pick(SUBJECTS);
+            String title = subject + pick(BOOK_SUFFIXES);
+            int edition = 1 + random.nextInt(9);
+            if (edition > 1) {
+                title += "(第" + edition + "版)";
+            }
+            String author = personName();
+            if (random.nextInt(4) == 0) {
+                author += "、" + personName();
+            }
+            // 价格集中在30~80元，少数专业书上百元
+            double price = Math.min(398, Math.max(9.9, Math.exp(4.0 + random.nextGaussian() * 0.45)));
+            int stock = random.nextInt(10) == 0 ? random.nextInt(10) : 20 + random.nextInt(480);
+            Timestamp created = randomTime(days * 2);
+
+            stmt.setInt(1, id);
+            stmt.setString(2, isbn(id));
+            stmt.setString(3, title);
+            stmt.setString(4, author);
+            stmt.setString(5, pick(PUBLISHERS));
+            stmt.setBigDecimal(6, BigDecimal.valueOf(price).setScale(1, RoundingMode.HALF_UP).setScale(2));
+            stmt.setInt(7, stock);
+            stmt.setString(8, subject + "课程教材，适合" + pick(LEVELS) + "学生使用");
+            stmt.setTimestamp(9, created);
+            stmt.setTimestamp(10, created);
+        });
+    }
+
+    private void generateCourses(int count) throws SQLException {
+        if (count <= 0) {
+            return;
+        }
+        List<Integer> departmentIds = queryIds("SELECT id FROM t_department");
+        List<Integer> teacherIds = queryIds("SELECT id FROM t_user WHERE role = 'TEACHER'");
+        List<Integer> bookIds = queryIds("SELECT id FROM t_book");
+        if (departmentIds.isEmpty() || teacherIds.isEmpty() || bookIds.isEmpty()) {
+            System.out.println("缺少院系、教师或教材，跳过课程生成");
+            return;
+        }
+
+        int baseId = maxId("t_course");
+        insertBatches("课程",
+                "INSERT INTO t_course (id, course_code, course_name, department_id, teacher_id) VALUES (?, ?, ?, ?, ?)",
+                count, (stmt, i) -> {
+            int id = baseId + i + 1;
+            int departmentId = departmentIds.get(random.nextInt(departmentIds.size()));
+            stmt.setInt(1, id);
+            stmt.setString(2, String.format("C%02d%05d", departmentId % 100, id));
+            stmt.setString(3, pick(SUBJECTS) + pick(COURSE_SUFFIXES));
+            stmt.setInt(4, departmentId);
+            stmt.setInt(5, teacherIds.get(random.nextInt(teacherIds.size())));
+        });
+
+        // 每门课1~4本教材，热门教材被更多课程选用
+        ZipfSampler popularity = new ZipfSampler(bookIds.size(), skew, random);
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int courseId = baseId + i + 1;
+            Set<Integer> chosen = new HashSet<>();
+            int books = 1 + random.nextInt(4);
+            while (chosen.size() < Math.min(books, bookIds.size())) {
+                chosen.add(bookIds.get(popularity.next(random)));
+            }
+            for (int bookId : chosen) {
+                pairs.add(new int[]{courseId, bookId});
+            }
+        }
+        insertBatches("课程教材", "INSERT INTO t_course_book (course_id, book_id) VALUES (?, ?)",
+                pairs.size(), (stmt, i) -> {
+            stmt.setInt(1, pairs.get(i)[0]);
+            stmt.setInt(2, pairs.get(i)[1]);
+        });
+    }
+
+    private void generateOrders(int count) throws SQLException {
+        if (count <= 0) {
+            return;
+        }
+        List<Integer> studentIds = queryIds("SELECT id FROM t_user WHERE role = 'STUDENT'");
+        List<Integer> bookIds = new ArrayList<>();
+        List<BigDecimal> prices = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, price FROM t_book")) {
+            while (rs.next()) {
+                bookIds.add(rs.getInt(1));
+                prices.add(rs.getBigDecimal(2));
+            }
+        }
+        if (studentIds.isEmpty() || bookIds.isEmpty()) {
+            System.out.println("缺少学生或教材，跳过订单生成");
+            return;
+        }
+
+        ZipfSampler bookPopularity = new ZipfSampler(bookIds.size(), skew, random);
+        ZipfSampler buyerActivity = new ZipfSampler(studentIds.size(), 0.6, random);
+        int baseId = maxId("t_order");
+        long now = System.currentTimeMillis();
+        long started = System.currentTimeMillis();
+
+        String orderSql = "INSERT INTO t_order (id, order_number, user_id, total_amount, status, create_time, update_time) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String itemSql = "INSERT INTO t_order_item (order_id, book_id, quantity, price) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement orderStmt = connection.prepareStatement(orderSql);
+             PreparedStatement itemStmt = connection.prepareStatement(itemSql)) {
+            Set<Integer> chosen = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                int orderId = baseId + i + 1;
+                Timestamp created = randomTime(days);
+                long updated = Math.min(now, created.getTime() + (long) (random.nextDouble() * 3 * DAY_MILLIS));
+
+                BigDecimal total = BigDecimal.ZERO;
+                chosen.clear();
+                int items = Math.min(1 + weighted(ITEM_COUNT_WEIGHTS), bookIds.size());
+                while (chosen.size() < items) {
+                    int index = bookPopularity.next(random);
+                    if (!chosen.add(index)) {
+                        continue;
+                    }
+                    int quantity = random.nextInt(10) == 0 ? 2 + random.nextInt(4) : 1;
+                    BigDecimal price = prices.get(index);
+                    itemStmt.setInt(1, orderId);
+                    itemStmt.setInt(2, bookIds.get(index));
+                    itemStmt.setInt(3, quantity);
+                    itemStmt.setBigDecimal(4, price);
+                    itemStmt.addBatch();
+                    total = total.add(price.multiply(BigDecimal.valueOf(quantity)));
+                }
+
+                orderStmt.setInt(1, orderId);
+                orderStmt.setString(2, "ORD" + created.toLocalDateTime().format(ORDER_NUMBER_TIME)
+                        + String.format("%08d", orderId));
+                orderStmt.setInt(3, studentIds.get(buyerActivity.next(random)));
+                orderStmt.setBigDecimal(4, total);
+                orderStmt.setString(5, STATUSES[weighted(STATUS_WEIGHTS)].name());
+                orderStmt.setTimestamp(6, created);
+                orderStmt.setTimestamp(7, new Timestamp(updated));
+                orderStmt.addBatch();
+
+                if ((i + 1) % batchSize == 0 || i == count - 1) {
+                    // 先写订单再写订单项，满足外键约束
+                    orderStmt.executeBatch();
+                    itemStmt.executeBatch();
+                    connection.commit();
+                    progress("订单", i + 1, count, started);
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * 修正H2自增序列并更新统计信息
+     * MySQL在显式写入ID后会自动推进 AUTO_INCREMENT，H2需要手动重置
+     */
+    private void finish() throws SQLException {
+        String[] tables = {"t_department", "t_user", "t_book", "t_course", "t_order"};
+        try (Statement stmt = connection.createStatement()) {
+            if (DBUtil.isEmbedded()) {
+                for (String table : tables) {
+                    stmt.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(table) + 1));
+                }
+                stmt.execute("ANALYZE");
+            } else {
+                stmt.execute("ANALYZE TABLE t_department, t_user, t_book, t_course, t_course_book, t_order, t_order_item");
+            }
+        }
+    }
+
+    /**
+     * 按批执行插入，每批提交一次
+     */
+    private void insertBatches(String label, String sql, int count, RowBinder binder) throws SQLException {
+        if (count <= 0) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                binder.bind(stmt, i);
+                stmt.addBatch();
+                if ((i + 1) % batchSize == 0 || i == count - 1) {
+                    stmt.executeBatch();
+                    connection.commit();
+                    progress(label, i + 1, count, started);
+                }
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private void progress(String label, int done, int total, long started) {
+        // 大约每10%输出一次
+        int step = Math.max(batchSize, total / 10 / batchSize * batchSize);
+        if (done % step == 0 || done == total) {
+            double seconds = Math.max(0.001, (System.currentTimeMillis() - started) / 1000.0);
+            System.out.printf("%s: %d/%d (%.0f 行/秒)%n", label, done, total, done / seconds);
+        }
+    }
+
+    private int maxId(String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private List<Integer> queryIds(String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private String personName() {
+        StringBuilder name = new StringBuilder(pick(SURNAMES));
+        name.append(pick(GIVEN_NAME_CHARS));
+        if (random.nextInt(3) > 0) {
+            name.append(pick(GIVEN_NAME_CHARS));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 以979-1开头、带正确校验位的13位ISBN，不与真实教材的978号段冲突
+     */
+    private static String isbn(int id) {
+        String body = String.format("9791%08d", id);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private Timestamp randomTime(int withinDays) {
+        long offset = (long) (random.nextDouble() * withinDays * DAY_MILLIS);
+        return new Timestamp(System.currentTimeMillis() - offset);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private int weighted(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * 为批量插入的第i行绑定参数
+     */
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+}
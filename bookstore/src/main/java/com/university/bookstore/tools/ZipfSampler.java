@@ -0,0 +1,63 @@
+package com.university.bookstore.tools;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf分布采样器
+ *
+ * 排名为k（从1开始）的元素被抽中的概率与 1/k^s 成正比，s 越大越集中在头部。
+ * 预先计算累积分布，每次采样是一次二分查找；排名到元素下标的映射经过随机打乱，
+ * 热门元素不会总是ID最小的那些。
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+    private final int[] rankToIndex;
+
+    /**
+     * @param size 元素个数
+     * @param exponent 偏斜指数s，0为均匀分布，常用 0.8~1.2
+     * @param random 用于打乱排名的随机数
+     */
+    public ZipfSampler(int size, double exponent, Random random) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("元素个数必须大于0");
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+
+        rankToIndex = new int[size];
+        for (int i = 0; i < size; i++) {
+            rankToIndex[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rankToIndex[i];
+            rankToIndex[i] = rankToIndex[j];
+            rankToIndex[j] = tmp;
+        }
+    }
+
+    /**
+     * 抽取一个元素下标
+     * @param random 随机数
+     * @return 0 到 size-1 之间的下标
+     */
+    public int next(Random random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = position >= 0 ? position : -position - 1;
+        return rankToIndex[Math.min(rank, rankToIndex.length - 1)];
+    }
+
+    public int size() {
+        return rankToIndex.length;
+    }
+}
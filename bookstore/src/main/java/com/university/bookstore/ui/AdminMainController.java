@@ -1,8 +1,11 @@
 package com.university.bookstore.ui;
 
+import com.university.bookstore.dao.OrderQuery;
 import com.university.bookstore.model.*;
 import com.university.bookstore.service.*;
 import com.university.bookstore.service.impl.*;
+import com.university.bookstore.util.FlightRecording;
+import com.university.bookstore.util.PerformanceMonitor;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,6 +27,7 @@ import java.util.*;
 import java.util.Optional;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.function.Function;
 
 /**
  * 管理员主界面控制器
@@ -153,7 +157,14 @@ public class AdminMainController extends BaseController implements Initializable
     
     // 自动刷新定时器
     private Timer autoRefreshTimer;
-    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒自动刷新
+    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒轮询一次增量变更
+    private static final int FULL_RESYNC_TICKS = 12; // 每12次轮询（约1分钟）整页重新同步一次，用于发现删除
+    
+    // 增量变更订阅
+    private ChangeFeedService changeFeedService;
+    private ChangeCursor bookCursor;
+    private ChangeCursor orderCursor;
+    private int autoRefreshTicks = 0;
     
     // 当前编辑的图书
     private Book currentEditingBook;
@@ -167,6 +178,8 @@ public class AdminMainController extends BaseController implements Initializable
     private int totalBookPages = 1; // 图书总页数
     private int currentOrderPage = 1; // 当前订单页码
     private int totalOrderPages = 1; // 订单总页数
+    private final KeysetPager<Book> bookPager = new KeysetPager<>();
+    private final KeysetPager<Order> orderPager = new KeysetPager<>();
     private int currentUserPage = 1; // 当前用户页码
     private int totalUserPages = 1; // 用户总页数
     private String currentBookSearchKeyword = ""; // 当前图书搜索关键词
@@ -185,9 +198,10 @@ public class AdminMainController extends BaseController implements Initializable
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // 初始化服务
-        bookService = new BookServiceImpl();
-        orderService = new OrderServiceImpl();
-        userService = new UserServiceImpl();
+        bookService = FlightRecording.trace(BookService.class, new BookServiceImpl());
+        orderService = FlightRecording.trace(OrderService.class, new OrderServiceImpl());
+        userService = FlightRecording.trace(UserService.class, new UserServiceImpl());
+        changeFeedService = new ChangeFeedServiceImpl();
         
         // 初始化表格
         initializeBookTable();
@@ -253,7 +267,7 @@ public class AdminMainController extends BaseController implements Initializable
     private void initializeOrderTable() {
         orderNumberColumn.setCellValueFactory(new PropertyValueFactory<>("orderNumber"));
         orderStudentColumn.setCellValueFactory(cellData -> {
-            User student = userService.getUserById(cellData.getValue().getStudentId());
+            User student = cellData.getValue().getStudent();
             return new SimpleStringProperty(student != null ? student.getName() : "未知");
         });
         orderTotalColumn.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
@@ -268,6 +282,9 @@ public class AdminMainController extends BaseController implements Initializable
             return new SimpleStringProperty("");
         });
         
+        // 订单表支持多选，选中多个订单时确认/发货/取消按批量处理
+        orderTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        
         // 设置价格格式
         orderTotalColumn.setCellFactory(column -> new TableCell<Order, BigDecimal>() {
             @Override
@@ -416,31 +433,12 @@ public class AdminMainController extends BaseController implements Initializable
      * 加载图书数据（支持强制刷新）
      */
     private void loadBooksWithPagination(boolean forceRefresh) {
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start("loadBooksWithPagination");
         try {
-            List<Book> allBooks;
-            if (currentBookSearchKeyword.isEmpty()) {
-                if (forceRefresh) {
-                    allBooks = bookService.getAllBooksForceRefresh();
-                } else {
-                    allBooks = bookService.getAllBooks();
-                }
-            } else {
-                if (forceRefresh) {
-                    allBooks = bookService.searchBooksForceRefresh(currentBookSearchKeyword);
-                } else {
-                    allBooks = bookService.searchBooks(currentBookSearchKeyword);
-                }
+            if (forceRefresh) {
+                bookPager.reset();
             }
-            
-            // 计算总页数
-            totalBookPages = (int) Math.ceil((double) allBooks.size() / ITEMS_PER_PAGE);
-            if (totalBookPages == 0) totalBookPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
+            List<Book> pageBooks = loadBookPage();
             
             // 强制刷新TableView
             bookTable.setItems(null);
@@ -456,7 +454,22 @@ public class AdminMainController extends BaseController implements Initializable
             
         } catch (Exception e) {
             showErrorAlert("加载失败", "加载图书数据失败：" + e.getMessage());
+        } finally {
+            sample.stop();
+        }
+    }
+    
+    /**
+     * 统计总数并只查询当前页的图书，相邻翻页按ID定位
+     */
+    private List<Book> loadBookPage() {
+        int totalCount = bookService.countBooks(currentBookSearchKeyword);
+        totalBookPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+        if (currentBookPage > totalBookPages) {
+            currentBookPage = totalBookPages;
         }
+        return bookPager.load(currentBookSearchKeyword,
+                KeysetPager.books(bookService, currentBookSearchKeyword), currentBookPage, ITEMS_PER_PAGE);
     }
     
     /**
@@ -472,37 +485,24 @@ public class AdminMainController extends BaseController implements Initializable
             }
         }
         
-        // 如果当前页面没有，搜索所有页面
+        // 如果当前页面没有，计算图书所在的页面
         try {
-            List<Book> allBooks;
-            if (currentBookSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentBookSearchKeyword);
+            int targetPage = bookService.getBookPageNumber(currentBookSearchKeyword, bookId, ITEMS_PER_PAGE);
+            if (targetPage != currentBookPage) {
+                currentBookPage = targetPage;
+                loadBooksWithPagination(true); // 强制刷新
             }
             
-            // 找到图书所在的页面
-            for (int i = 0; i < allBooks.size(); i++) {
-                if (allBooks.get(i).getId().equals(bookId)) {
-                    int targetPage = (i / ITEMS_PER_PAGE) + 1;
-                    if (targetPage != currentBookPage) {
-                        currentBookPage = targetPage;
-                        loadBooksWithPagination(true); // 强制刷新
+            // 选择图书
+            Platform.runLater(() -> {
+                for (Book tableBook : bookTable.getItems()) {
+                    if (tableBook.getId().equals(bookId)) {
+                        bookTable.getSelectionModel().select(tableBook);
+                        loadBookToForm(tableBook);
+                        break;
                     }
-                    
-                    // 选择图书
-                    Platform.runLater(() -> {
-                        for (Book tableBook : bookTable.getItems()) {
-                            if (tableBook.getId().equals(bookId)) {
-                                bookTable.getSelectionModel().select(tableBook);
-                                loadBookToForm(tableBook);
-                                break;
-                            }
-                        }
-                    });
-                    return;
                 }
-            }
+            });
         } catch (Exception e) {
             System.err.println("查找图书失败: " + e.getMessage());
         }
@@ -513,22 +513,7 @@ public class AdminMainController extends BaseController implements Initializable
      */
     private void loadBooksWithPaginationOnly() {
         try {
-            List<Book> allBooks;
-            if (currentBookSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentBookSearchKeyword);
-            }
-            
-            // 计算总页数
-            totalBookPages = (int) Math.ceil((double) allBooks.size() / ITEMS_PER_PAGE);
-            if (totalBookPages == 0) totalBookPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
+            List<Book> pageBooks = loadBookPage();
             bookTable.setItems(FXCollections.observableArrayList(pageBooks));
             
         } catch (Exception e) {
@@ -552,51 +537,7 @@ public class AdminMainController extends BaseController implements Initializable
      */
     private void loadOrdersWithPagination() {
         try {
-            List<Order> allOrders;
-            if (!currentOrderSearchKeyword.isEmpty()) {
-                // 根据订单号搜索
-                Order order = orderService.getOrderByOrderNumber(currentOrderSearchKeyword);
-                allOrders = order != null ? Arrays.asList(order) : new ArrayList<>();
-            } else if ("全部订单".equals(currentOrderFilter)) {
-                allOrders = orderService.getAllOrders();
-            } else {
-                // 将字符串转换为OrderStatus枚举
-                Order.OrderStatus status;
-                switch (currentOrderFilter) {
-                    case "待支付":
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                    case "已支付":
-                        status = Order.OrderStatus.PAID;
-                        break;
-                    case "已确认":
-                        status = Order.OrderStatus.CONFIRMED;
-                        break;
-                    case "已发货":
-                        status = Order.OrderStatus.SHIPPED;
-                        break;
-                    case "已完成":
-                        status = Order.OrderStatus.COMPLETED;
-                        break;
-                    case "已取消":
-                        status = Order.OrderStatus.CANCELLED;
-                        break;
-                    default:
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                }
-                allOrders = orderService.getOrdersByStatus(status);
-            }
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
             // 更新分页控件
@@ -615,51 +556,7 @@ public class AdminMainController extends BaseController implements Initializable
      */
     private void loadOrdersWithPaginationOnly() {
         try {
-            List<Order> allOrders;
-            if (!currentOrderSearchKeyword.isEmpty()) {
-                // 根据订单号搜索
-                Order order = orderService.getOrderByOrderNumber(currentOrderSearchKeyword);
-                allOrders = order != null ? Arrays.asList(order) : new ArrayList<>();
-            } else if ("全部订单".equals(currentOrderFilter)) {
-                allOrders = orderService.getAllOrders();
-            } else {
-                // 将字符串转换为OrderStatus枚举
-                Order.OrderStatus status;
-                switch (currentOrderFilter) {
-                    case "待支付":
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                    case "已支付":
-                        status = Order.OrderStatus.PAID;
-                        break;
-                    case "已确认":
-                        status = Order.OrderStatus.CONFIRMED;
-                        break;
-                    case "已发货":
-                        status = Order.OrderStatus.SHIPPED;
-                        break;
-                    case "已完成":
-                        status = Order.OrderStatus.COMPLETED;
-                        break;
-                    case "已取消":
-                        status = Order.OrderStatus.CANCELLED;
-                        break;
-                    default:
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                }
-                allOrders = orderService.getOrdersByStatus(status);
-            }
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
         } catch (Exception e) {
@@ -667,6 +564,34 @@ public class AdminMainController extends BaseController implements Initializable
         }
     }
     
+    /**
+     * 按当前搜索和筛选条件只查询当前页的订单，并批量关联下单学生
+     */
+    private List<Order> loadOrderPage() {
+        List<Order> pageOrders;
+        if (!currentOrderSearchKeyword.isEmpty()) {
+            // 根据订单号搜索，最多一条结果
+            Order order = orderService.getOrderByOrderNumber(currentOrderSearchKeyword);
+            pageOrders = order != null ? new ArrayList<>(Arrays.asList(order)) : new ArrayList<>();
+            totalOrderPages = 1;
+            currentOrderPage = 1;
+            orderPager.reset();
+        } else {
+            // "全部订单"时状态为null，表示不过滤
+            OrderQuery query = new OrderQuery(Order.OrderStatus.fromDisplayName(currentOrderFilter), null);
+            int totalCount = orderService.countOrders(query);
+            totalOrderPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+            if (currentOrderPage > totalOrderPages) {
+                currentOrderPage = totalOrderPages;
+            }
+            pageOrders = new ArrayList<>(orderPager.load(query.signature(),
+                    KeysetPager.orders(orderService, query), currentOrderPage, ITEMS_PER_PAGE));
+        }
+        // 一次批量查询关联本页订单的学生，避免单元格渲染时逐行查库
+        userService.attachStudents(pageOrders);
+        return pageOrders;
+    }
+    
     /**
      * 加载用户数据
      */
@@ -892,6 +817,10 @@ public class AdminMainController extends BaseController implements Initializable
     
     @FXML
     private void handleConfirmOrder() {
+        if (orderTable.getSelectionModel().getSelectedItems().size() > 1) {
+            handleBatchTransition("确认", orderService::confirmOrders);
+            return;
+        }
         Order selectedOrder = orderTable.getSelectionModel().getSelectedItem();
         if (selectedOrder == null) {
             showWarningAlert("请选择订单", "请先选择要确认的订单");
@@ -924,6 +853,10 @@ public class AdminMainController extends BaseController implements Initializable
     
     @FXML
     private void handleShipOrder() {
+        if (orderTable.getSelectionModel().getSelectedItems().size() > 1) {
+            handleBatchTransition("发货", orderService::shipOrders);
+            return;
+        }
         Order selectedOrder = orderTable.getSelectionModel().getSelectedItem();
         if (selectedOrder == null) {
             showWarningAlert("请选择订单", "请先选择要发货的订单");
@@ -956,6 +889,10 @@ public class AdminMainController extends BaseController implements Initializable
     
     @FXML
     private void handleCancelOrder() {
+        if (orderTable.getSelectionModel().getSelectedItems().size() > 1) {
+            handleBatchTransition("取消", orderService::cancelOrders);
+            return;
+        }
         Order selectedOrder = orderTable.getSelectionModel().getSelectedItem();
         if (selectedOrder == null) {
             showWarningAlert("请选择订单", "请先选择要取消的订单");
@@ -986,6 +923,36 @@ public class AdminMainController extends BaseController implements Initializable
         }
     }
     
+    /**
+     * 批量确认/发货/取消选中的订单，状态不符合的订单跳过，最后汇总结果
+     * @param action 操作名称
+     * @param operation 批量操作
+     */
+    private void handleBatchTransition(String action, Function<List<Integer>, BatchTransitionResult> operation) {
+        List<Integer> orderIds = new ArrayList<>();
+        for (Order order : orderTable.getSelectionModel().getSelectedItems()) {
+            orderIds.add(order.getId());
+        }
+        if (!showConfirmDialog("批量" + action, "确定要" + action + "选中的 " + orderIds.size() + " 个订单吗？\n状态不符合的订单将被跳过。")) {
+            return;
+        }
+        try {
+            BatchTransitionResult result = operation.apply(orderIds);
+            orderTable.getSelectionModel().clearSelection();
+            loadOrders();
+            orderTable.refresh();
+            String summary = "成功" + action + " " + result.getSucceededCount() + " 个订单";
+            if (result.getFailedCount() == 0) {
+                showInfoAlert("批量" + action + "完成", summary);
+            } else {
+                showWarningAlert("批量" + action + "完成", summary + "，" + result.getFailedCount() + " 个订单未处理：\n"
+                        + result.describeFailures());
+            }
+        } catch (Exception e) {
+            showErrorAlert("批量" + action + "失败", "批量" + action + "订单失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 刷新订单列表
      */
@@ -1198,7 +1165,7 @@ public class AdminMainController extends BaseController implements Initializable
         StringBuilder sb = new StringBuilder();
         sb.append("订单号：").append(order.getOrderNumber()).append("\n");
         
-        User student = userService.getUserById(order.getStudentId());
+        User student = order.getStudent() != null ? order.getStudent() : userService.getUserById(order.getStudentId());
         sb.append("学生姓名：").append(student != null ? student.getName() : "未知").append("\n");
         sb.append("学生用户名：").append(student != null ? student.getUsername() : "未知").append("\n");
         if (student != null && student.getStudentId() != null) {
@@ -1541,33 +1508,88 @@ public class AdminMainController extends BaseController implements Initializable
     
     /**
      * 启动自动刷新功能
+     * 定时线程只拉取上次之后变更的记录，再在JavaFX线程中就地合并到当前页
      */
     private void startAutoRefresh() {
         if (autoRefreshTimer != null) {
             autoRefreshTimer.cancel();
         }
+        bookCursor = null;
+        orderCursor = null;
+        autoRefreshTicks = 0;
         
         autoRefreshTimer = new Timer(true); // 设置为守护线程
         autoRefreshTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                // 在JavaFX应用线程中执行刷新操作
-                Platform.runLater(() -> {
-                    try {
-                        // 刷新图书、订单和用户数据，保持当前页和搜索/筛选条件
-                        // 如果正在编辑图书，跳过图书数据刷新以避免覆盖用户输入
-                        if (!isEditingBook) {
-                            loadBooksWithPagination(true); // 强制刷新
-                        }
-                        loadOrdersWithPagination();
-                        loadUsersWithPagination();
-                    } catch (Exception e) {
-                        // 静默处理异常，避免干扰用户操作
-                        System.err.println("自动刷新失败: " + e.getMessage());
+                try {
+                    pollChanges();
+                } catch (Exception e) {
+                    // 静默处理异常，避免干扰用户操作
+                    System.err.println("自动刷新失败: " + e.getMessage());
+                }
+            }
+        }, 0, AUTO_REFRESH_INTERVAL);
+    }
+    
+    /**
+     * 拉取增量变更（在定时线程中执行，不阻塞界面）
+     */
+    private void pollChanges() {
+        if (bookCursor == null || orderCursor == null) {
+            bookCursor = changeFeedService.openBookCursor();
+            orderCursor = changeFeedService.openOrderCursor(null);
+            return;
+        }
+        
+        List<Book> bookChanges = changeFeedService.pollBookChanges(bookCursor);
+        boolean booksTruncated = bookCursor.isTruncated();
+        List<Order> orderChanges = changeFeedService.pollOrderChanges(orderCursor);
+        boolean ordersTruncated = orderCursor.isTruncated();
+        userService.attachStudents(orderChanges);
+        
+        boolean fullResync = ++autoRefreshTicks % FULL_RESYNC_TICKS == 0;
+        if (!fullResync && bookChanges.isEmpty() && orderChanges.isEmpty()) {
+            return;
+        }
+        
+        Platform.runLater(() -> {
+            try {
+                if (fullResync) {
+                    // 定期整页同步，覆盖删除等无法通过 update_time 发现的变更
+                    if (!isEditingBook) {
+                        loadBooksWithPagination(true);
                     }
-                });
+                    loadOrdersWithPagination();
+                    loadUsersWithPagination();
+                    return;
+                }
+                
+                // 如果正在编辑图书，跳过图书数据刷新以避免覆盖用户输入
+                if (!isEditingBook && (booksTruncated || patchItems(bookTable.getItems(), bookChanges, Book::getId,
+                        book -> bookMatchesKeyword(book, currentBookSearchKeyword), book -> false))) {
+                    loadBooksWithPagination(true);
+                }
+                if (ordersTruncated || patchItems(orderTable.getItems(), orderChanges, Order::getId,
+                        this::orderMatchesCurrentFilter,
+                        order -> currentOrderSearchKeyword.isEmpty() &&
+                                 orderFallsWithinPage(orderTable.getItems(), order, ITEMS_PER_PAGE))) {
+                    loadOrdersWithPagination();
+                }
+            } catch (Exception e) {
+                System.err.println("自动刷新失败: " + e.getMessage());
             }
-        }, AUTO_REFRESH_INTERVAL, AUTO_REFRESH_INTERVAL);
+        });
+    }
+    
+    /**
+     * 判断订单是否满足当前的订单号搜索和状态筛选条件
+     */
+    private boolean orderMatchesCurrentFilter(Order order) {
+        if (!currentOrderSearchKeyword.isEmpty()) {
+            return currentOrderSearchKeyword.equals(order.getOrderNumber());
+        }
+        return "全部订单".equals(currentOrderFilter) || order.getStatus().getDisplayName().equals(currentOrderFilter);
     }
     
     /**
@@ -1,5 +1,7 @@
 package com.university.bookstore.ui;
 
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.Order;
 import com.university.bookstore.model.User;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -9,7 +11,10 @@ import javafx.stage.Stage;
 import javafx.scene.Node;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * 基础控制器类，提供公共功能
@@ -86,6 +91,70 @@ public abstract class BaseController {
         return result.isPresent() && result.get() == ButtonType.OK;
     }
     
+    /**
+     * 将增量变更就地合并到当前页的数据列表
+     * 已在当前页且仍满足筛选条件的记录直接替换；离开筛选条件或需要新进入当前页的记录无法就地合并
+     * @param items 当前页数据（表格的 items）
+     * @param changes 变更记录
+     * @param idOf 取记录ID
+     * @param matchesView 记录是否满足当前的搜索/筛选条件
+     * @param entersPage 不在当前页但满足条件的记录是否应出现在当前页
+     * @return 存在无法就地合并的变更时返回true，调用方应重新加载当前页
+     */
+    protected <T> boolean patchItems(List<T> items, List<T> changes, Function<T, Integer> idOf,
+                                     Predicate<T> matchesView, Predicate<T> entersPage) {
+        boolean needsReload = false;
+        for (T changed : changes) {
+            Integer id = idOf.apply(changed);
+            int index = -1;
+            for (int i = 0; i < items.size(); i++) {
+                if (id.equals(idOf.apply(items.get(i)))) {
+                    index = i;
+                    break;
+                }
+            }
+            
+            boolean matches = matchesView.test(changed);
+            if (index >= 0) {
+                if (matches) {
+                    items.set(index, changed);
+                } else {
+                    needsReload = true;
+                }
+            } else if (matches && entersPage.test(changed)) {
+                needsReload = true;
+            }
+        }
+        return needsReload;
+    }
+    
+    /**
+     * 判断图书是否匹配搜索关键词（书名、作者、ISBN包含关键词，忽略大小写，与 searchBooks 一致）
+     */
+    protected boolean bookMatchesKeyword(Book book, String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            return true;
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        return (book.getTitle() != null && book.getTitle().toLowerCase().contains(lowerKeyword)) ||
+               (book.getAuthor() != null && book.getAuthor().toLowerCase().contains(lowerKeyword)) ||
+               (book.getIsbn() != null && book.getIsbn().toLowerCase().contains(lowerKeyword));
+    }
+    
+    /**
+     * 判断订单按创建时间倒序排列时是否落在当前页范围内（当前页未满，或不早于当前页最后一条）
+     */
+    protected boolean orderFallsWithinPage(List<Order> items, Order order, int pageSize) {
+        if (order.getCreateTime() == null) {
+            return false;
+        }
+        if (items.size() < pageSize) {
+            return true;
+        }
+        Order last = items.get(items.size() - 1);
+        return last.getCreateTime() == null || !order.getCreateTime().before(last.getCreateTime());
+    }
+    
     /**
      * 检查用户权限
      */
@@ -0,0 +1,167 @@
+package com.university.bookstore.ui;
+
+import com.university.bookstore.dao.OrderQuery;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.model.Order;
+import com.university.bookstore.service.BookService;
+import com.university.bookstore.service.OrderService;
+
+import java.util.List;
+
+/**
+ * 分页控件的键集翻页辅助类
+ * 记住上次加载页的首行和末行：相邻翻页时按键值定位（WHERE id > ? LIMIT n），
+ * 只有跳页或查询条件变化时才退回偏移量分页
+ */
+class KeysetPager<T> {
+
+    /**
+     * 分页数据来源
+     */
+    interface PageSource<T> {
+
+        /** 第一页 */
+        List<T> first(int pageSize);
+
+        /** 排在 last 之后的一页 */
+        List<T> after(T last, int pageSize);
+
+        /** 排在 first 之前的一页（结果按正常顺序） */
+        List<T> before(T first, int pageSize);
+
+        /** 从 first 开始（包含 first）的一页，用于刷新当前页 */
+        List<T> from(T first, int pageSize);
+
+        /** 按偏移量取一页 */
+        List<T> offset(int offset, int pageSize);
+    }
+
+    private String loadedSignature;
+    private int loadedPage;
+    private T firstRow;
+    private T lastRow;
+
+    /**
+     * 加载指定页
+     * @param signature 查询条件签名，变化时不使用上次记住的位置
+     * @param source 数据来源
+     * @param page 页码（从1开始）
+     * @param pageSize 每页大小
+     * @return 该页数据
+     */
+    List<T> load(String signature, PageSource<T> source, int page, int pageSize) {
+        boolean sameQuery = signature.equals(loadedSignature) && firstRow != null;
+        List<T> rows;
+        boolean seek = true;
+
+        if (page <= 1) {
+            rows = source.first(pageSize);
+        } else if (sameQuery && page == loadedPage + 1) {
+            rows = source.after(lastRow, pageSize);
+        } else if (sameQuery && page == loadedPage - 1) {
+            rows = source.before(firstRow, pageSize);
+        } else if (sameQuery && page == loadedPage) {
+            rows = source.from(firstRow, pageSize);
+        } else {
+            rows = source.offset((page - 1) * pageSize, pageSize);
+            seek = false;
+        }
+
+        // 定位行可能已被删除或数据大幅变化，此时退回偏移量分页
+        if (seek && page > 1 && (rows.isEmpty() || (page < loadedPage && rows.size() < pageSize))) {
+            rows = source.offset((page - 1) * pageSize, pageSize);
+        }
+
+        loadedSignature = signature;
+        loadedPage = page;
+        firstRow = rows.isEmpty() ? null : rows.get(0);
+        lastRow = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return rows;
+    }
+
+    /**
+     * 忘记上次加载的位置，下次加载从偏移量开始
+     */
+    void reset() {
+        loadedSignature = null;
+        loadedPage = 0;
+        firstRow = null;
+        lastRow = null;
+    }
+
+    /**
+     * 计算总页数（至少为1）
+     */
+    static int pageCount(int totalCount, int pageSize) {
+        int pages = (totalCount + pageSize - 1) / pageSize;
+        return Math.max(pages, 1);
+    }
+
+    /**
+     * 图书分页来源，按ID升序
+     */
+    static PageSource<Book> books(BookService bookService, String keyword) {
+        return new PageSource<Book>() {
+            @Override
+            public List<Book> first(int pageSize) {
+                return bookService.getBooksPageAfter(keyword, null, pageSize);
+            }
+
+            @Override
+            public List<Book> after(Book last, int pageSize) {
+                return bookService.getBooksPageAfter(keyword, last.getId(), pageSize);
+            }
+
+            @Override
+            public List<Book> before(Book first, int pageSize) {
+                return bookService.getBooksPageBefore(keyword, first.getId(), pageSize);
+            }
+
+            @Override
+            public List<Book> from(Book first, int pageSize) {
+                return bookService.getBooksPageAfter(keyword, first.getId() - 1, pageSize);
+            }
+
+            @Override
+            public List<Book> offset(int offset, int pageSize) {
+                return bookService.getBooksPageByOffset(keyword, offset, pageSize);
+            }
+        };
+    }
+
+    /**
+     * 订单分页来源，按创建时间、ID倒序
+     */
+    static PageSource<Order> orders(OrderService orderService, OrderQuery query) {
+        return new PageSource<Order>() {
+            @Override
+            public List<Order> first(int pageSize) {
+                return orderService.getOrdersPageAfter(query, null, pageSize);
+            }
+
+            @Override
+            public List<Order> after(Order last, int pageSize) {
+                return orderService.getOrdersPageAfter(query, last, pageSize);
+            }
+
+            @Override
+            public List<Order> before(Order first, int pageSize) {
+                return orderService.getOrdersPageBefore(query, first, pageSize);
+            }
+
+            @Override
+            public List<Order> from(Order first, int pageSize) {
+                // 倒序中 (createTime, id + 1) 恰好排在 first 之前，从它之后取即包含 first
+                Order anchor = new Order();
+                anchor.setCreateTime(first.getCreateTime());
+                anchor.setId(first.getId() + 1);
+                return orderService.getOrdersPageAfter(query, anchor, pageSize);
+            }
+
+            @Override
+            public List<Order> offset(int offset, int pageSize) {
+                return orderService.getOrdersPageByOffset(query, offset, pageSize);
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.university.bookstore.ui;
 import com.university.bookstore.model.User;
 import com.university.bookstore.service.UserService;
 import com.university.bookstore.service.impl.UserServiceImpl;
+import com.university.bookstore.util.FlightRecording;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -42,7 +43,7 @@ public class LoginController implements Initializable {
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        userService = new UserServiceImpl();
+        userService = FlightRecording.trace(UserService.class, new UserServiceImpl());
         
         // 移除角色下拉框初始化，系统将自动识别用户角色
         
@@ -3,6 +3,7 @@ package com.university.bookstore.ui;
 import com.university.bookstore.model.User;
 import com.university.bookstore.service.UserService;
 import com.university.bookstore.service.impl.UserServiceImpl;
+import com.university.bookstore.util.FlightRecording;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -47,7 +48,7 @@ public class RegisterController extends BaseController implements Initializable
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        userService = new UserServiceImpl();
+        userService = FlightRecording.trace(UserService.class, new UserServiceImpl());
         
         // 初始化角色下拉框
         roleComboBox.getItems().addAll("学生", "教师");
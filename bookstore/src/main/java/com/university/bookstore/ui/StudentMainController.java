@@ -1,8 +1,11 @@
 package com.university.bookstore.ui;
 
+import com.university.bookstore.dao.OrderQuery;
 import com.university.bookstore.model.*;
 import com.university.bookstore.service.*;
 import com.university.bookstore.service.impl.*;
+import com.university.bookstore.util.FlightRecording;
+import com.university.bookstore.util.PerformanceMonitor;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -136,7 +139,14 @@ public class StudentMainController extends BaseController implements Initializab
     
     // 自动刷新定时器
     private Timer autoRefreshTimer;
-    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒自动刷新
+    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒轮询一次增量变更
+    private static final int FULL_RESYNC_TICKS = 12; // 每12次轮询（约1分钟）整页重新同步一次，用于发现删除
+    
+    // 增量变更订阅
+    private ChangeFeedService changeFeedService;
+    private ChangeCursor bookCursor;
+    private ChangeCursor orderCursor;
+    private int autoRefreshTicks = 0;
     
     // 分页相关字段
     private static final int ITEMS_PER_PAGE = 20; // 每页显示的项目数，增加到20以更好填充列表
@@ -144,6 +154,8 @@ public class StudentMainController extends BaseController implements Initializab
     private int totalBookPages = 1; // 图书总页数
     private int currentOrderPage = 1; // 当前订单页码
     private int totalOrderPages = 1; // 订单总页数
+    private final KeysetPager<Book> bookPager = new KeysetPager<>();
+    private final KeysetPager<Order> orderPager = new KeysetPager<>();
     private String currentSearchKeyword = ""; // 当前搜索关键词
     private String currentOrderFilter = "全部订单"; // 当前订单筛选条件
     
@@ -158,9 +170,10 @@ public class StudentMainController extends BaseController implements Initializab
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // 初始化服务
-        bookService = new BookServiceImpl();
-        orderService = new OrderServiceImpl();
-        userService = new UserServiceImpl();
+        bookService = FlightRecording.trace(BookService.class, new BookServiceImpl());
+        orderService = FlightRecording.trace(OrderService.class, new OrderServiceImpl());
+        userService = FlightRecording.trace(UserService.class, new UserServiceImpl());
+        changeFeedService = new ChangeFeedServiceImpl();
         
         // 初始化购物车
         cartItems = FXCollections.observableArrayList();
@@ -442,22 +455,7 @@ public class StudentMainController extends BaseController implements Initializab
         if (currentUser == null) return;
         
         try {
-            List<Order> allOrders;
-            if ("全部订单".equals(currentOrderFilter)) {
-                allOrders = orderService.getOrdersByStudentId(currentUser.getId());
-            } else {
-                allOrders = orderService.getOrdersByStudentIdAndStatus(currentUser.getId(), currentOrderFilter);
-            }
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
             // 更新分页控件
@@ -478,29 +476,29 @@ public class StudentMainController extends BaseController implements Initializab
         if (currentUser == null) return;
         
         try {
-            List<Order> allOrders;
-            if ("全部订单".equals(currentOrderFilter)) {
-                allOrders = orderService.getOrdersByStudentId(currentUser.getId());
-            } else {
-                allOrders = orderService.getOrdersByStudentIdAndStatus(currentUser.getId(), currentOrderFilter);
-            }
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            if (startIndex < allOrders.size()) {
-                List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
-                orderTable.setItems(FXCollections.observableArrayList(pageOrders));
-            } else {
-                orderTable.setItems(FXCollections.observableArrayList());
-            }
+            List<Order> pageOrders = loadOrderPage();
+            orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
         } catch (Exception e) {
             showErrorAlert("加载失败", "加载订单数据失败：" + e.getMessage());
         }
     }
     
+    /**
+     * 统计当前学生满足筛选条件的订单数，并只查询当前页
+     */
+    private List<Order> loadOrderPage() {
+        // "全部订单"时状态为null，表示不过滤
+        OrderQuery query = new OrderQuery(Order.OrderStatus.fromDisplayName(currentOrderFilter), currentUser.getId());
+        int totalCount = orderService.countOrders(query);
+        totalOrderPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+        if (currentOrderPage > totalOrderPages) {
+            currentOrderPage = totalOrderPages;
+        }
+        return orderPager.load(query.signature(),
+                KeysetPager.orders(orderService, query), currentOrderPage, ITEMS_PER_PAGE);
+    }
+    
     /**
      * 处理搜索事件
      */
@@ -515,23 +513,9 @@ public class StudentMainController extends BaseController implements Initializab
      * 分页加载图书数据
      */
     private void loadBooksWithPagination() {
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start("loadBooksWithPagination");
         try {
-            List<Book> allBooks;
-            if (currentSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentSearchKeyword);
-            }
-            
-            // 计算总页数
-            totalBookPages = (int) Math.ceil((double) allBooks.size() / ITEMS_PER_PAGE);
-            if (totalBookPages == 0) totalBookPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
+            List<Book> pageBooks = loadBookPage();
             bookTable.setItems(FXCollections.observableArrayList(pageBooks));
             
             // 更新分页控件
@@ -542,6 +526,8 @@ public class StudentMainController extends BaseController implements Initializab
             
         } catch (Exception e) {
             showErrorAlert("加载失败", "加载图书数据失败：" + e.getMessage());
+        } finally {
+            sample.stop();
         }
     }
     
@@ -550,29 +536,27 @@ public class StudentMainController extends BaseController implements Initializab
      */
     private void loadBooksWithPaginationOnly() {
         try {
-            List<Book> allBooks;
-            if (currentSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentSearchKeyword);
-            }
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            if (startIndex < allBooks.size()) {
-                List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
-                bookTable.setItems(FXCollections.observableArrayList(pageBooks));
-            } else {
-                bookTable.setItems(FXCollections.observableArrayList());
-            }
+            List<Book> pageBooks = loadBookPage();
+            bookTable.setItems(FXCollections.observableArrayList(pageBooks));
             
         } catch (Exception e) {
             showErrorAlert("加载失败", "加载图书数据失败：" + e.getMessage());
         }
     }
     
+    /**
+     * 统计总数并只查询当前页的图书，相邻翻页按ID定位
+     */
+    private List<Book> loadBookPage() {
+        int totalCount = bookService.countBooks(currentSearchKeyword);
+        totalBookPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+        if (currentBookPage > totalBookPages) {
+            currentBookPage = totalBookPages;
+        }
+        return bookPager.load(currentSearchKeyword,
+                KeysetPager.books(bookService, currentSearchKeyword), currentBookPage, ITEMS_PER_PAGE);
+    }
+    
     /**
      * 处理添加到购物车事件
      */
@@ -925,34 +909,80 @@ public class StudentMainController extends BaseController implements Initializab
     
     /**
      * 启动自动刷新功能
+     * 定时线程只拉取上次之后变更的记录，再在JavaFX线程中就地合并到当前页
      */
     private void startAutoRefresh() {
         if (autoRefreshTimer != null) {
             autoRefreshTimer.cancel();
         }
+        bookCursor = null;
+        orderCursor = null;
+        autoRefreshTicks = 0;
         
         autoRefreshTimer = new Timer(true); // 设置为守护线程
         autoRefreshTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                // 在JavaFX应用线程中执行刷新操作
-                Platform.runLater(() -> {
-                    try {
-                        // 刷新图书列表（保持当前页和搜索条件）
-                        loadBooksWithPagination();
-                        // 刷新订单列表（如果当前用户已设置），保持当前筛选状态和页码
-                        if (currentUser != null) {
-                            loadOrdersWithPagination();
-                        }
-                    } catch (Exception e) {
-                        // 静默处理异常，避免干扰用户操作
-                        System.err.println("自动刷新失败: " + e.getMessage());
-                    }
-                });
+                try {
+                    pollChanges();
+                } catch (Exception e) {
+                    // 静默处理异常，避免干扰用户操作
+                    System.err.println("自动刷新失败: " + e.getMessage());
+                }
             }
-        }, AUTO_REFRESH_INTERVAL, AUTO_REFRESH_INTERVAL);
+        }, 0, AUTO_REFRESH_INTERVAL);
+    }
+    
+    /**
+     * 拉取增量变更（在定时线程中执行，不阻塞界面）
+     */
+    private void pollChanges() {
+        User user = currentUser;
+        if (bookCursor == null) {
+            bookCursor = changeFeedService.openBookCursor();
+        }
+        // 订单游标只关注当前学生，需等登录用户设置后再打开
+        if (orderCursor == null && user != null) {
+            orderCursor = changeFeedService.openOrderCursor(user.getId());
+            return;
+        }
+        if (orderCursor == null) {
+            return;
+        }
         
-
+        List<Book> bookChanges = changeFeedService.pollBookChanges(bookCursor);
+        boolean booksTruncated = bookCursor.isTruncated();
+        List<Order> orderChanges = changeFeedService.pollOrderChanges(orderCursor);
+        boolean ordersTruncated = orderCursor.isTruncated();
+        
+        boolean fullResync = ++autoRefreshTicks % FULL_RESYNC_TICKS == 0;
+        if (!fullResync && bookChanges.isEmpty() && orderChanges.isEmpty()) {
+            return;
+        }
+        
+        Platform.runLater(() -> {
+            try {
+                if (fullResync) {
+                    // 定期整页同步，覆盖删除等无法通过 update_time 发现的变更
+                    loadBooksWithPagination();
+                    loadOrdersWithPagination();
+                    return;
+                }
+                
+                if (booksTruncated || patchItems(bookTable.getItems(), bookChanges, Book::getId,
+                        book -> bookMatchesKeyword(book, currentSearchKeyword), book -> false)) {
+                    loadBooksWithPagination();
+                }
+                if (ordersTruncated || patchItems(orderTable.getItems(), orderChanges, Order::getId,
+                        order -> "全部订单".equals(currentOrderFilter) ||
+                                 order.getStatus().getDisplayName().equals(currentOrderFilter),
+                        order -> orderFallsWithinPage(orderTable.getItems(), order, ITEMS_PER_PAGE))) {
+                    loadOrdersWithPagination();
+                }
+            } catch (Exception e) {
+                System.err.println("自动刷新失败: " + e.getMessage());
+            }
+        });
     }
     
     /**
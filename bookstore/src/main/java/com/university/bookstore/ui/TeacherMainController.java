@@ -1,8 +1,11 @@
 package com.university.bookstore.ui;
 
+import com.university.bookstore.dao.OrderQuery;
 import com.university.bookstore.model.*;
 import com.university.bookstore.service.*;
 import com.university.bookstore.service.impl.*;
+import com.university.bookstore.util.FlightRecording;
+import com.university.bookstore.util.PerformanceMonitor;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -117,7 +120,14 @@ public class TeacherMainController extends BaseController implements Initializab
     
     // 自动刷新定时器
     private Timer autoRefreshTimer;
-    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒自动刷新
+    private static final int AUTO_REFRESH_INTERVAL = 5000; // 5秒轮询一次增量变更
+    private static final int FULL_RESYNC_TICKS = 12; // 每12次轮询（约1分钟）整页重新同步一次，用于发现删除
+    
+    // 增量变更订阅
+    private ChangeFeedService changeFeedService;
+    private ChangeCursor bookCursor;
+    private ChangeCursor orderCursor;
+    private int autoRefreshTicks = 0;
     
     // 搜索状态变量
     private String currentBookSearchKeyword = "";
@@ -132,6 +142,8 @@ public class TeacherMainController extends BaseController implements Initializab
     private int totalStudentPages = 1; // 学生总页数
     private int currentOrderPage = 1; // 当前订单页码
     private int totalOrderPages = 1; // 订单总页数
+    private final KeysetPager<Book> bookPager = new KeysetPager<>();
+    private final KeysetPager<Order> orderPager = new KeysetPager<>();
     
     // 分页控件（需要在FXML中添加）
     @FXML
@@ -148,9 +160,10 @@ public class TeacherMainController extends BaseController implements Initializab
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // 初始化服务
-        bookService = new BookServiceImpl();
-        orderService = new OrderServiceImpl();
-        userService = new UserServiceImpl();
+        bookService = FlightRecording.trace(BookService.class, new BookServiceImpl());
+        orderService = FlightRecording.trace(OrderService.class, new OrderServiceImpl());
+        userService = FlightRecording.trace(UserService.class, new UserServiceImpl());
+        changeFeedService = new ChangeFeedServiceImpl();
         
         // 初始化表格
         initializeBookTable();
@@ -266,7 +279,7 @@ public class TeacherMainController extends BaseController implements Initializab
     private void initializeOrderTable() {
         orderNumberColumn.setCellValueFactory(new PropertyValueFactory<>("orderNumber"));
         orderStudentColumn.setCellValueFactory(cellData -> {
-            User student = userService.getUserById(cellData.getValue().getStudentId());
+            User student = cellData.getValue().getStudent();
             return new SimpleStringProperty(student != null ? student.getName() : "未知");
         });
         orderTotalColumn.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
@@ -364,23 +377,9 @@ public class TeacherMainController extends BaseController implements Initializab
      * 分页加载图书数据
      */
     private void loadBooksWithPagination() {
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start("loadBooksWithPagination");
         try {
-            List<Book> allBooks;
-            if (currentBookSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentBookSearchKeyword);
-            }
-            
-            // 计算总页数
-            totalBookPages = (int) Math.ceil((double) allBooks.size() / ITEMS_PER_PAGE);
-            if (totalBookPages == 0) totalBookPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
+            List<Book> pageBooks = loadBookPage();
             bookTable.setItems(FXCollections.observableArrayList(pageBooks));
             
             // 更新分页控件
@@ -391,6 +390,8 @@ public class TeacherMainController extends BaseController implements Initializab
             
         } catch (Exception e) {
             showErrorAlert("加载失败", "加载图书数据失败：" + e.getMessage());
+        } finally {
+            sample.stop();
         }
     }
     
@@ -399,22 +400,7 @@ public class TeacherMainController extends BaseController implements Initializab
      */
     private void loadBooksWithPaginationOnly() {
         try {
-            List<Book> allBooks;
-            if (currentBookSearchKeyword.isEmpty()) {
-                allBooks = bookService.getAllBooks();
-            } else {
-                allBooks = bookService.searchBooks(currentBookSearchKeyword);
-            }
-            
-            // 计算总页数
-            totalBookPages = (int) Math.ceil((double) allBooks.size() / ITEMS_PER_PAGE);
-            if (totalBookPages == 0) totalBookPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentBookPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allBooks.size());
-            
-            List<Book> pageBooks = allBooks.subList(startIndex, endIndex);
+            List<Book> pageBooks = loadBookPage();
             bookTable.setItems(FXCollections.observableArrayList(pageBooks));
             
         } catch (Exception e) {
@@ -422,6 +408,19 @@ public class TeacherMainController extends BaseController implements Initializab
         }
     }
     
+    /**
+     * 统计总数并只查询当前页的图书，相邻翻页按ID定位
+     */
+    private List<Book> loadBookPage() {
+        int totalCount = bookService.countBooks(currentBookSearchKeyword);
+        totalBookPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+        if (currentBookPage > totalBookPages) {
+            currentBookPage = totalBookPages;
+        }
+        return bookPager.load(currentBookSearchKeyword,
+                KeysetPager.books(bookService, currentBookSearchKeyword), currentBookPage, ITEMS_PER_PAGE);
+    }
+    
     private void loadBooksWithCurrentSearch() {
         currentBookPage = 1;
         loadBooksWithPagination();
@@ -527,17 +526,7 @@ public class TeacherMainController extends BaseController implements Initializab
      */
     private void loadOrdersWithPagination() {
         try {
-            List<Order> allOrders = orderService.getAllOrders();
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
             // 更新分页控件
@@ -556,17 +545,7 @@ public class TeacherMainController extends BaseController implements Initializab
      */
     private void loadOrdersWithPaginationOnly() {
         try {
-            List<Order> allOrders = orderService.getAllOrders();
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
         } catch (Exception e) {
@@ -574,7 +553,39 @@ public class TeacherMainController extends BaseController implements Initializab
         }
     }
     
-
+    /**
+     * 按当前搜索关键词和状态筛选只查询当前页的订单，并批量关联下单学生
+     * 搜索时先按订单号精确匹配，未命中再按学生姓名模糊匹配
+     */
+    private List<Order> loadOrderPage() {
+        OrderQuery query = new OrderQuery();
+        if (!currentOrderSearchKeyword.isEmpty()) {
+            Order orderByNumber = orderService.getOrderByOrderNumber(currentOrderSearchKeyword);
+            if (orderByNumber != null) {
+                List<Order> pageOrders = new ArrayList<>(Arrays.asList(orderByNumber));
+                totalOrderPages = 1;
+                currentOrderPage = 1;
+                orderPager.reset();
+                userService.attachStudents(pageOrders);
+                return pageOrders;
+            }
+            query.setStudentNameKeyword(currentOrderSearchKeyword);
+        } else {
+            // "全部订单"时状态为null，表示不过滤
+            query.setStatus(Order.OrderStatus.fromDisplayName(teacherOrderStatusFilter.getValue()));
+        }
+        
+        int totalCount = orderService.countOrders(query);
+        totalOrderPages = KeysetPager.pageCount(totalCount, ITEMS_PER_PAGE);
+        if (currentOrderPage > totalOrderPages) {
+            currentOrderPage = totalOrderPages;
+        }
+        List<Order> pageOrders = new ArrayList<>(orderPager.load(query.signature(),
+                KeysetPager.orders(orderService, query), currentOrderPage, ITEMS_PER_PAGE));
+        // 一次批量查询关联本页订单的学生，避免单元格渲染时逐行查库
+        userService.attachStudents(pageOrders);
+        return pageOrders;
+    }
     
     // 图书浏览相关方法
     
@@ -617,6 +628,9 @@ public class TeacherMainController extends BaseController implements Initializab
         
         try {
             List<Order> studentOrders = orderService.getOrdersByStudentId(selectedStudent.getId());
+            for (Order order : studentOrders) {
+                order.setStudent(selectedStudent);
+            }
             orderTable.setItems(FXCollections.observableArrayList(studentOrders));
             // 切换到订单查看Tab（索引为2：图书浏览=0，学生管理=1，订单查看=2）
             mainTabPane.getSelectionModel().select(2);
@@ -649,36 +663,7 @@ public class TeacherMainController extends BaseController implements Initializab
      */
     private void loadOrdersWithSearchPagination() {
         try {
-            List<Order> allOrders;
-            if (currentOrderSearchKeyword.isEmpty()) {
-                allOrders = orderService.getAllOrders();
-            } else {
-                // 先尝试按订单号搜索
-                Order orderByNumber = orderService.getOrderByOrderNumber(currentOrderSearchKeyword);
-                if (orderByNumber != null) {
-                    allOrders = Arrays.asList(orderByNumber);
-                } else {
-                    // 按学生姓名搜索
-                    allOrders = new ArrayList<>();
-                    List<Order> orders = orderService.getAllOrders();
-                    for (Order order : orders) {
-                        User student = userService.getUserById(order.getStudentId());
-                        if (student != null && student.getName().contains(currentOrderSearchKeyword)) {
-                            allOrders.add(order);
-                        }
-                    }
-                }
-            }
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
             // 更新分页控件
@@ -708,53 +693,7 @@ public class TeacherMainController extends BaseController implements Initializab
      */
     private void loadOrdersWithFilterPagination() {
         try {
-            String selectedStatus = teacherOrderStatusFilter.getValue();
-            if (selectedStatus == null) {
-                selectedStatus = "全部订单";
-            }
-            
-            List<Order> allOrders;
-            
-            if ("全部订单".equals(selectedStatus)) {
-                allOrders = orderService.getAllOrders();
-            } else {
-                // 将字符串转换为OrderStatus枚举
-                Order.OrderStatus status;
-                switch (selectedStatus) {
-                    case "待支付":
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                    case "已支付":
-                        status = Order.OrderStatus.PAID;
-                        break;
-                    case "已确认":
-                        status = Order.OrderStatus.CONFIRMED;
-                        break;
-                    case "已发货":
-                        status = Order.OrderStatus.SHIPPED;
-                        break;
-                    case "已完成":
-                        status = Order.OrderStatus.COMPLETED;
-                        break;
-                    case "已取消":
-                        status = Order.OrderStatus.CANCELLED;
-                        break;
-                    default:
-                        status = Order.OrderStatus.PENDING;
-                        break;
-                }
-                allOrders = orderService.getOrdersByStatus(status);
-            }
-            
-            // 计算总页数
-            totalOrderPages = (int) Math.ceil((double) allOrders.size() / ITEMS_PER_PAGE);
-            if (totalOrderPages == 0) totalOrderPages = 1;
-            
-            // 获取当前页的数据
-            int startIndex = (currentOrderPage - 1) * ITEMS_PER_PAGE;
-            int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allOrders.size());
-            
-            List<Order> pageOrders = allOrders.subList(startIndex, endIndex);
+            List<Order> pageOrders = loadOrderPage();
             orderTable.setItems(FXCollections.observableArrayList(pageOrders));
             
             // 更新分页控件
@@ -935,7 +874,7 @@ public class TeacherMainController extends BaseController implements Initializab
         StringBuilder sb = new StringBuilder();
         sb.append("订单号：").append(order.getOrderNumber()).append("\n");
         
-        User student = userService.getUserById(order.getStudentId());
+        User student = order.getStudent() != null ? order.getStudent() : userService.getUserById(order.getStudentId());
         sb.append("学生姓名：").append(student != null ? student.getName() : "未知").append("\n");
         sb.append("学生用户名：").append(student != null ? student.getUsername() : "未知").append("\n");
         if (student != null && student.getStudentId() != null) {
@@ -1006,37 +945,100 @@ public class TeacherMainController extends BaseController implements Initializab
     
     /**
      * 启动自动刷新功能
+     * 定时线程只拉取上次之后变更的记录，再在JavaFX线程中就地合并到当前页
      */
     private void startAutoRefresh() {
         if (autoRefreshTimer != null) {
             autoRefreshTimer.cancel();
         }
+        bookCursor = null;
+        orderCursor = null;
+        autoRefreshTicks = 0;
         
         autoRefreshTimer = new Timer(true); // 设置为守护线程
         autoRefreshTimer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                // 在JavaFX应用线程中执行刷新操作
-                Platform.runLater(() -> {
-                    try {
-                        // 刷新图书和学生数据，保持当前搜索状态和分页
-                        loadBooksWithPagination();
-                        loadStudentsWithPagination();
-                        // 对于订单，如果有搜索关键词则使用搜索刷新，否则使用筛选刷新
-                        if (!currentOrderSearchKeyword.isEmpty()) {
-                            loadOrdersWithSearchPagination();
-                        } else {
-                            loadOrdersWithFilterPagination();
-                        }
-                    } catch (Exception e) {
-                        // 静默处理异常，避免干扰用户操作
-                        System.err.println("自动刷新失败: " + e.getMessage());
-                    }
-                });
+                try {
+                    pollChanges();
+                } catch (Exception e) {
+                    // 静默处理异常，避免干扰用户操作
+                    System.err.println("自动刷新失败: " + e.getMessage());
+                }
             }
-        }, AUTO_REFRESH_INTERVAL, AUTO_REFRESH_INTERVAL);
+        }, 0, AUTO_REFRESH_INTERVAL);
+    }
+    
+    /**
+     * 拉取增量变更（在定时线程中执行，不阻塞界面）
+     */
+    private void pollChanges() {
+        if (bookCursor == null || orderCursor == null) {
+            bookCursor = changeFeedService.openBookCursor();
+            orderCursor = changeFeedService.openOrderCursor(null);
+            return;
+        }
         
-
+        List<Book> bookChanges = changeFeedService.pollBookChanges(bookCursor);
+        boolean booksTruncated = bookCursor.isTruncated();
+        List<Order> orderChanges = changeFeedService.pollOrderChanges(orderCursor);
+        boolean ordersTruncated = orderCursor.isTruncated();
+        userService.attachStudents(orderChanges);
+        
+        boolean fullResync = ++autoRefreshTicks % FULL_RESYNC_TICKS == 0;
+        if (!fullResync && bookChanges.isEmpty() && orderChanges.isEmpty()) {
+            return;
+        }
+        
+        Platform.runLater(() -> {
+            try {
+                if (fullResync) {
+                    // 定期整页同步，覆盖删除等无法通过 update_time 发现的变更
+                    loadBooksWithPagination();
+                    loadStudentsWithPagination();
+                    reloadCurrentOrders();
+                    return;
+                }
+                
+                if (booksTruncated || patchItems(bookTable.getItems(), bookChanges, Book::getId,
+                        book -> bookMatchesKeyword(book, currentBookSearchKeyword), book -> false)) {
+                    loadBooksWithPagination();
+                }
+                if (ordersTruncated || patchItems(orderTable.getItems(), orderChanges, Order::getId,
+                        this::orderMatchesCurrentFilter,
+                        order -> currentOrderSearchKeyword.isEmpty() &&
+                                 orderFallsWithinPage(orderTable.getItems(), order, ITEMS_PER_PAGE))) {
+                    reloadCurrentOrders();
+                }
+            } catch (Exception e) {
+                System.err.println("自动刷新失败: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 按当前状态重新加载订单页：有搜索关键词则使用搜索刷新，否则使用筛选刷新
+     */
+    private void reloadCurrentOrders() {
+        if (!currentOrderSearchKeyword.isEmpty()) {
+            loadOrdersWithSearchPagination();
+        } else {
+            loadOrdersWithFilterPagination();
+        }
+    }
+    
+    /**
+     * 判断订单是否满足当前的搜索（订单号或学生姓名）和状态筛选条件
+     */
+    private boolean orderMatchesCurrentFilter(Order order) {
+        if (!currentOrderSearchKeyword.isEmpty()) {
+            User student = order.getStudent();
+            return currentOrderSearchKeyword.equals(order.getOrderNumber()) ||
+                   (student != null && student.getName().contains(currentOrderSearchKeyword));
+        }
+        String selectedStatus = teacherOrderStatusFilter.getValue();
+        return selectedStatus == null || "全部订单".equals(selectedStatus) ||
+               order.getStatus().getDisplayName().equals(selectedStatus);
     }
     
     /**
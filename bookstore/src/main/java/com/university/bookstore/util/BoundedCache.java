@@ -0,0 +1,398 @@
+package com.university.bookstore.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 有容量上限的缓存引擎（W-TinyLFU 淘汰策略）
+ *
+ * 缓存按权重计容量，分为三段：
+ * 窗口区（约1%）按LRU接收新写入的项；主区分为试用区和保护区（保护区占主区80%），
+ * 试用区的项再次被访问时晋升到保护区。窗口区溢出的候选项要进入主区时，
+ * 用频率草图比较候选项和主区最久未用项的访问频率，频率高者留下，
+ * 这样一次性的搜索结果不会把常用的分页数据挤出缓存。
+ *
+ * 所有操作在同一把锁内完成，读操作也会调整LRU顺序。
+ */
+public class BoundedCache implements CacheEngine {
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    /**
+     * 缓存节点
+     */
+    private static class Node {
+        final String key;
+        Object value;
+        int weight;
+        long expireTime;
+        Segment segment;
+
+        Node(String key, Object value, int weight, long expireTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expireTime = expireTime;
+        }
+
+        boolean isExpired(long now) {
+            return now > expireTime;
+        }
+    }
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<Object> weigher;
+
+    private final Map<String, Node> data = new HashMap<>();
+    // 三个分段都使用访问顺序的 LinkedHashMap，迭代器的第一个元素即最久未使用的项
+    private final LinkedHashMap<String, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Node> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final FrequencySketch sketch;
+    private volatile Consumer<String> removalListener = key -> { };
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    /**
+     * @param maximumWeight 最大总权重
+     * @param weigher 计算缓存值权重的函数（权重至少为1）
+     */
+    public BoundedCache(long maximumWeight, ToIntFunction<Object> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("缓存最大权重必须大于0");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch((int) Math.min(maximumWeight, 1 << 20));
+    }
+
+    @Override
+    public synchronized Object get(String key) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (node.isExpired(System.currentTimeMillis())) {
+            removeNode(node);
+            expirationCount.increment();
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        onAccess(node);
+        return node.value;
+    }
+
+    @Override
+    public synchronized void put(String key, Object value, long ttl) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        Node existing = data.get(key);
+        if (weight > maximumWeight) {
+            // 超过整个缓存容量的值不缓存，同时移除旧值避免读到过期数据
+            if (existing != null) {
+                removeNode(existing);
+            } else {
+                removalListener.accept(key);
+            }
+            return;
+        }
+
+        sketch.increment(key);
+        long expireTime = System.currentTimeMillis() + ttl;
+        if (existing != null) {
+            adjustWeight(existing.segment, weight - existing.weight);
+            existing.value = value;
+            existing.weight = weight;
+            existing.expireTime = expireTime;
+            onAccess(existing);
+        } else {
+            Node node = new Node(key, value, weight, expireTime);
+            node.segment = Segment.WINDOW;
+            data.put(key, node);
+            window.put(key, node);
+            windowWeight += weight;
+        }
+        evict();
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        Node node = data.get(key);
+        if (node != null) {
+            removeNode(node);
+        }
+    }
+
+    @Override
+    public synchronized void removeIf(Predicate<String> keyFilter) {
+        Iterator<Node> iterator = data.values().iterator();
+        while (iterator.hasNext()) {
+            Node node = iterator.next();
+            if (keyFilter.test(node.key)) {
+                iterator.remove();
+                unlink(node);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    @Override
+    public synchronized void cleanUp() {
+        long now = System.currentTimeMillis();
+        Iterator<Node> iterator = data.values().iterator();
+        while (iterator.hasNext()) {
+            Node node = iterator.next();
+            if (node.isExpired(now)) {
+                iterator.remove();
+                unlink(node);
+                expirationCount.increment();
+            }
+        }
+    }
+
+    @Override
+    public void setRemovalListener(Consumer<String> listener) {
+        this.removalListener = listener;
+    }
+
+    @Override
+    public synchronized int size() {
+        return data.size();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), expirationCount.sum(),
+                data.size(), windowWeight + probationWeight + protectedWeight, maximumWeight);
+    }
+
+    /**
+     * 访问命中后调整节点位置：试用区的项晋升到保护区，其余只刷新LRU顺序
+     */
+    private void onAccess(Node node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.get(node.key);
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                node.segment = Segment.PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            case PROTECTED:
+                protectedSegment.get(node.key);
+                break;
+        }
+    }
+
+    /**
+     * 保护区超出容量时，把最久未用的项降级回试用区
+     */
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+            Node eldest = eldest(protectedSegment);
+            protectedSegment.remove(eldest.key);
+            protectedWeight -= eldest.weight;
+            eldest.segment = Segment.PROBATION;
+            probation.put(eldest.key, eldest);
+            probationWeight += eldest.weight;
+        }
+    }
+
+    /**
+     * 窗口区溢出的项经频率比较后进入主区，最后保证总权重不超过上限
+     */
+    private void evict() {
+        while (windowWeight > windowMaximum && !window.isEmpty()) {
+            Node candidate = eldest(window);
+            window.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+        while (windowWeight + probationWeight + protectedWeight > maximumWeight) {
+            Node victim = mainVictim();
+            if (victim == null) {
+                victim = eldest(window);
+            }
+            if (victim == null) {
+                break;
+            }
+            evictNode(victim);
+        }
+    }
+
+    /**
+     * 候选项进入主区：主区放不下时与主区最久未用的项比较访问频率，频率不高于对方的候选项被淘汰
+     */
+    private void admit(Node candidate) {
+        long mainMaximum = maximumWeight - windowMaximum;
+        int candidateFrequency = sketch.frequency(candidate.key);
+        while (probationWeight + protectedWeight + candidate.weight > mainMaximum) {
+            Node victim = mainVictim();
+            if (victim == null) {
+                break;
+            }
+            if (candidateFrequency <= sketch.frequency(victim.key)) {
+                data.remove(candidate.key);
+                evictionCount.increment();
+                removalListener.accept(candidate.key);
+                return;
+            }
+            evictNode(victim);
+        }
+        candidate.segment = Segment.PROBATION;
+        probation.put(candidate.key, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    private Node mainVictim() {
+        Node victim = eldest(probation);
+        return victim != null ? victim : eldest(protectedSegment);
+    }
+
+    private void evictNode(Node node) {
+        removeNode(node);
+        evictionCount.increment();
+    }
+
+    private void removeNode(Node node) {
+        data.remove(node.key);
+        unlink(node);
+    }
+
+    /**
+     * 把节点从所在分段中移除并通知监听器（不修改 data）
+     */
+    private void unlink(Node node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node.key);
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node.key);
+                break;
+        }
+        adjustWeight(node.segment, -node.weight);
+        removalListener.accept(node.key);
+    }
+
+    private void adjustWeight(Segment segment, long delta) {
+        switch (segment) {
+            case WINDOW:
+                windowWeight += delta;
+                break;
+            case PROBATION:
+                probationWeight += delta;
+                break;
+            case PROTECTED:
+                protectedWeight += delta;
+                break;
+        }
+    }
+
+    private static Node eldest(LinkedHashMap<String, Node> segment) {
+        Iterator<Node> iterator = segment.values().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * 计数最小草图（Count-Min Sketch），用4个哈希位置近似记录键的访问频率
+     * 计数上限为15；累计增加次数达到采样上限时所有计数减半，使旧的热点逐渐冷却
+     */
+    static class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final int MAX_COUNT = 15;
+
+        private final int[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedSize) {
+            int length = Integer.highestOneBit(Math.max(64, expectedSize) - 1) << 1;
+            this.table = new int[length];
+            this.mask = length - 1;
+            this.sampleSize = 10 * length;
+        }
+
+        void increment(String key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>>= 1;
+            }
+            additions >>>= 1;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.university.bookstore.util;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 缓存引擎接口
+ * CacheManager 的静态API委托给具体引擎实现，可通过 CacheManager.setEngine 替换
+ */
+public interface CacheEngine {
+    
+    /**
+     * 获取缓存值
+     * @param key 缓存键
+     * @return 缓存值，不存在或已过期时返回null
+     */
+    Object get(String key);
+    
+    /**
+     * 存储缓存值
+     * @param key 缓存键
+     * @param value 缓存值
+     * @param ttl 生存时间（毫秒）
+     */
+    void put(String key, Object value, long ttl);
+    
+    /**
+     * 移除缓存项
+     * @param key 缓存键
+     */
+    void remove(String key);
+    
+    /**
+     * 移除键满足条件的所有缓存项
+     * @param keyFilter 键过滤条件
+     */
+    void removeIf(Predicate<String> keyFilter);
+    
+    /**
+     * 清空所有缓存
+     */
+    void clear();
+    
+    /**
+     * 清理已过期的缓存项
+     */
+    void cleanUp();
+    
+    /**
+     * 获取缓存项数量
+     * @return 缓存项数量
+     */
+    int size();
+    
+    /**
+     * 获取统计信息快照
+     * @return 统计信息
+     */
+    CacheStats stats();
+    
+    /**
+     * 设置移除监听器，缓存项因删除、过期或淘汰离开缓存时以键回调（clear 和覆盖写入不回调）
+     * 回调在引擎内部执行，监听器中不能再调用本引擎
+     * @param listener 监听器
+     */
+    void setRemovalListener(Consumer<String> listener);
+}
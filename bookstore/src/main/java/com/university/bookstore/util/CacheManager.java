@@ -1,5 +1,10 @@
 package com.university.bookstore.util;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -8,38 +13,63 @@ import java.util.concurrent.TimeUnit;
 /**
  * 缓存管理器
  * 提供简单的内存缓存功能，减少数据库查询
+ * 
+ * 实际存储委托给 CacheEngine，默认使用有权重上限的 BoundedCache：
+ * 列表和Map的权重为元素个数+1，其余对象权重为1，总权重默认上限50000，
+ * 可通过系统属性 bookstore.cache.maximumWeight 调整。
+ * 缓存区域为键中第一个":"之前的前缀（如 books_search），
+ * 可通过 setRegionTtl 或系统属性 bookstore.cache.ttl.<区域> 为区域指定统一的生存时间。
+ * 
+ * 写入时可以给缓存项打标签（如 book:42），invalidateTags 通过标签到键的反向索引
+ * 只移除带该标签的缓存项，不需要扫描整个缓存。
  */
 public class CacheManager {
-    private static final ConcurrentHashMap<String, CacheItem> cache = new ConcurrentHashMap<>();
     private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     
     // 默认缓存时间（毫秒）
     private static final long DEFAULT_TTL = 30000; // 30秒
     
+    // 默认最大总权重
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 50000;
+    
+    // 区域生存时间配置，-1 表示该区域未配置
+    private static final ConcurrentHashMap<String, Long> regionTtls = new ConcurrentHashMap<>();
+    
+    // 标签反向索引：标签 -> 缓存键，以及缓存键 -> 标签
+    private static final ConcurrentHashMap<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Set<String>> tagsByKey = new ConcurrentHashMap<>();
+    
+    private static volatile CacheEngine engine = new BoundedCache(
+            Long.getLong("bookstore.cache.maximumWeight", DEFAULT_MAXIMUM_WEIGHT), CacheManager::weigh);
+    
     static {
+        // 缓存项被删除、过期或淘汰时同步清理标签索引
+        engine.setRemovalListener(CacheManager::untag);
+
         // 启动定期清理过期缓存的任务
         scheduler.scheduleAtFixedRate(CacheManager::cleanExpiredItems, 60, 60, TimeUnit.SECONDS);
     }
     
     /**
-     * 缓存项
+     * 替换缓存引擎，原引擎中的缓存项会被丢弃
+     * @param cacheEngine 新的缓存引擎
      */
-    private static class CacheItem {
-        private final Object value;
-        private final long expireTime;
-        
-        public CacheItem(Object value, long ttl) {
-            this.value = value;
-            this.expireTime = System.currentTimeMillis() + ttl;
-        }
-        
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
-        }
-        
-        public Object getValue() {
-            return value;
-        }
+    public static void setEngine(CacheEngine cacheEngine) {
+        CacheEngine previous = engine;
+        cacheEngine.setRemovalListener(CacheManager::untag);
+        engine = cacheEngine;
+        previous.clear();
+        keysByTag.clear();
+        tagsByKey.clear();
+    }
+    
+    /**
+     * 为缓存区域设置统一的生存时间，覆盖调用方传入的TTL
+     * @param region 区域（键前缀，如 books_search）
+     * @param ttl 生存时间（毫秒）
+     */
+    public static void setRegionTtl(String region, long ttl) {
+        regionTtls.put(region, ttl);
     }
     
     /**
@@ -58,7 +88,65 @@ public class CacheManager {
      * @param ttl 生存时间（毫秒）
      */
     public static void put(String key, Object value, long ttl) {
-        cache.put(key, new CacheItem(value, ttl));
+        untag(key);
+        engine.put(key, value, resolveTtl(key, ttl));
+    }
+    
+    /**
+     * 存储带标签的缓存项，之后可通过 invalidateTags 按标签移除
+     * @param key 缓存键
+     * @param value 缓存值
+     * @param ttl 生存时间（毫秒）
+     * @param tags 标签
+     */
+    public static void put(String key, Object value, long ttl, Collection<String> tags) {
+        untag(key);
+        Set<String> tagSet = new HashSet<>(tags);
+        if (!tagSet.isEmpty()) {
+            // 先建立索引再写入缓存，写入时立即被淘汰也能由监听器清理索引
+            tagsByKey.put(key, tagSet);
+            for (String tag : tagSet) {
+                keysByTag.compute(tag, (t, keys) -> {
+                    Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    result.add(key);
+                    return result;
+                });
+            }
+        }
+        engine.put(key, value, resolveTtl(key, ttl));
+        
+        // 建立索引和写入之间标签被失效时，索引已被移除而值刚写入，不再能按标签找到；
+        // 此时这次写入的值可能已经过时，直接移除
+        for (String tag : tagSet) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys == null || !keys.contains(key)) {
+                engine.remove(key);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 移除带有任一指定标签的缓存项
+     * @param tags 标签
+     */
+    public static void invalidateTags(String... tags) {
+        invalidateTags(Arrays.asList(tags));
+    }
+    
+    /**
+     * 移除带有任一指定标签的缓存项
+     * @param tags 标签
+     */
+    public static void invalidateTags(Collection<String> tags) {
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                for (String key : keys) {
+                    engine.remove(key);
+                }
+            }
+        }
     }
     
     /**
@@ -68,12 +156,9 @@ public class CacheManager {
      */
     @SuppressWarnings("unchecked")
     public static <T> T get(String key) {
-        CacheItem item = cache.get(key);
-        if (item == null || item.isExpired()) {
-            cache.remove(key);
-            return null;
-        }
-        return (T) item.getValue();
+        Object value = engine.get(key);
+        FlightRecording.recordCacheAccess(value != null);
+        return (T) value;
     }
     
     /**
@@ -81,14 +166,16 @@ public class CacheManager {
      * @param key 缓存键
      */
     public static void remove(String key) {
-        cache.remove(key);
+        engine.remove(key);
     }
     
     /**
      * 清空所有缓存
      */
     public static void clear() {
-        cache.clear();
+        engine.clear();
+        keysByTag.clear();
+        tagsByKey.clear();
     }
     
     /**
@@ -96,14 +183,23 @@ public class CacheManager {
      * @param pattern 键前缀模式
      */
     public static void clearByPattern(String pattern) {
-        cache.entrySet().removeIf(entry -> entry.getKey().startsWith(pattern));
+        engine.removeIf(key -> key.startsWith(pattern));
+    }
+    
+    /**
+     * 清除一个区域的所有缓存
+     * @param region 区域（键中第一个冒号之前的部分，如 books_search）
+     */
+    public static void clearRegion(String region) {
+        String prefix = region + ":";
+        engine.removeIf(key -> key.equals(region) || key.startsWith(prefix));
     }
     
     /**
      * 清理过期的缓存项
      */
     private static void cleanExpiredItems() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        engine.cleanUp();
     }
     
     /**
@@ -111,7 +207,15 @@ public class CacheManager {
      * @return 缓存项数量
      */
     public static int size() {
-        return cache.size();
+        return engine.size();
+    }
+    
+    /**
+     * 获取缓存统计信息（命中率、淘汰数等）
+     * @return 统计信息快照
+     */
+    public static CacheStats stats() {
+        return engine.stats();
     }
     
     /**
@@ -119,7 +223,7 @@ public class CacheManager {
      */
     public static void shutdown() {
         scheduler.shutdown();
-        cache.clear();
+        clear();
     }
     
     /**
@@ -135,4 +239,44 @@ public class CacheManager {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+    
+    /**
+     * 从标签索引中移除缓存键
+     */
+    private static void untag(String key) {
+        Set<String> tags = tagsByKey.remove(key);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+    
+    /**
+     * 计算区域生存时间：区域已配置时使用配置值，否则使用调用方传入的值
+     */
+    private static long resolveTtl(String key, long ttl) {
+        int separator = key.indexOf(':');
+        String region = separator >= 0 ? key.substring(0, separator) : key;
+        long regionTtl = regionTtls.computeIfAbsent(region,
+                r -> Long.getLong("bookstore.cache.ttl." + r, -1L));
+        return regionTtl >= 0 ? regionTtl : ttl;
+    }
+    
+    /**
+     * 计算缓存值的权重：集合按元素个数计，避免整表列表只占一个名额
+     */
+    private static int weigh(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size() + 1;
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size() + 1;
+        }
+        return 1;
+    }
+}
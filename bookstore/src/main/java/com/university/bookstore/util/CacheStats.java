@@ -0,0 +1,78 @@
+package com.university.bookstore.util;
+
+/**
+ * 缓存统计信息快照
+ */
+public class CacheStats {
+    
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final int size;
+    private final long weightedSize;
+    private final long maximumWeight;
+    
+    public CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount,
+                      int size, long weightedSize, long maximumWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+        this.weightedSize = weightedSize;
+        this.maximumWeight = maximumWeight;
+    }
+    
+    public long getHitCount() {
+        return hitCount;
+    }
+    
+    public long getMissCount() {
+        return missCount;
+    }
+    
+    /**
+     * 因容量不足被淘汰的缓存项数量
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+    
+    /**
+     * 因过期被移除的缓存项数量
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * 当前缓存项的总权重
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+    
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+    
+    /**
+     * 命中率，没有请求时返回1.0
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("命中=%d, 未命中=%d, 命中率=%.2f%%, 淘汰=%d, 过期=%d, 条目=%d, 权重=%d/%d",
+                hitCount, missCount, getHitRate() * 100, evictionCount, expirationCount,
+                size, weightedSize, maximumWeight);
+    }
+}
@@ -2,13 +2,21 @@ package com.university.bookstore.util;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * 数据库连接工具类
  * 使用HikariCP连接池管理数据库连接
+ *
+ * 系统属性 bookstore.db.profile 选择数据源：
+ * mysql（默认）连接本地MySQL；h2 启动MySQL兼容模式的嵌入式H2内存库，
+ * 首次连接时执行 /db/h2-schema.sql 建表并写入初始数据，供没有MySQL的环境运行测试和基准。
+ * 两种profile都可以用 bookstore.db.url 覆盖连接地址。
  */
 public class DBUtil {
     private static HikariDataSource dataSource;
@@ -19,6 +27,16 @@ public class DBUtil {
     private static final String DB_PASSWORD = "123456";
     private static final String DB_DRIVER = "com.mysql.jdbc.Driver";
 
+    // 嵌入式H2配置
+    private static final String PROFILE_H2 = "h2";
+    private static final String H2_URL = "jdbc:h2:mem:bookstore;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String H2_USERNAME = "sa";
+    private static final String H2_PASSWORD = "";
+    private static final String H2_DRIVER = "org.h2.Driver";
+    private static final String H2_SCHEMA = "classpath:/db/h2-schema.sql";
+
+    private static final String PROFILE = System.getProperty("bookstore.db.profile", "mysql");
+
     static {
         initDataSource();
     }
@@ -29,61 +47,172 @@ public class DBUtil {
     private static void initDataSource() {
         try {
             HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(DB_URL);
-            config.setUsername(DB_USERNAME);
-            config.setPassword(DB_PASSWORD);
-            config.setDriverClassName(DB_DRIVER);
-            
-            // 连接池配置优化
-            config.setMaximumPoolSize(50); // 增加最大连接数
-            config.setMinimumIdle(10);     // 增加最小空闲连接数
-            config.setConnectionTimeout(20000); // 减少连接超时时间
-            config.setIdleTimeout(300000);      // 减少空闲超时时间(5分钟)
-            config.setMaxLifetime(1200000);     // 减少连接最大生存时间(20分钟)
-            config.setLeakDetectionThreshold(60000); // 连接泄漏检测(1分钟)
-            
-            // 性能优化配置
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            config.addDataSourceProperty("useServerPrepStmts", "true");
-            config.addDataSourceProperty("useLocalSessionState", "true");
-            config.addDataSourceProperty("rewriteBatchedStatements", "true");
-            config.addDataSourceProperty("cacheResultSetMetadata", "true");
-            config.addDataSourceProperty("cacheServerConfiguration", "true");
-            config.addDataSourceProperty("elideSetAutoCommits", "false");
+            if (isEmbedded()) {
+                configureH2(config);
+            } else {
+                configureMySql(config);
+            }
             config.setAutoCommit(true); // 确保自动提交
             // 设置事务隔离级别为READ_COMMITTED，确保能读取到已提交的数据
             config.setTransactionIsolation("TRANSACTION_READ_COMMITTED");
-            // 禁用缓存以确保数据一致性
-            config.addDataSourceProperty("useLocalSessionState", "false");
-            config.addDataSourceProperty("useLocalTransactionState", "false");
-            config.addDataSourceProperty("maintainTimeStats", "false");
-            
+
             // 连接测试
             config.setConnectionTestQuery("SELECT 1");
             
             dataSource = new HikariDataSource(config);
+            if (isEmbedded()) {
+                initEmbeddedSchema();
+            }
             
-            System.out.println("数据库连接池初始化成功");
+            System.out.println("数据库连接池初始化成功 (" + PROFILE + ")");
         } catch (Exception e) {
             System.err.println("数据库连接池初始化失败: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * MySQL数据源配置
+     */
+    private static void configureMySql(HikariConfig config) {
+        config.setJdbcUrl(System.getProperty("bookstore.db.url", DB_URL));
+        config.setUsername(DB_USERNAME);
+        config.setPassword(DB_PASSWORD);
+        config.setDriverClassName(DB_DRIVER);
+
+        // 连接池配置优化
+        config.setMaximumPoolSize(50); // 增加最大连接数
+        config.setMinimumIdle(10);     // 增加最小空闲连接数
+        config.setConnectionTimeout(20000); // 减少连接超时时间
+        config.setIdleTimeout(300000);      // 减少空闲超时时间(5分钟)
+        config.setMaxLifetime(1200000);     // 减少连接最大生存时间(20分钟)
+        config.setLeakDetectionThreshold(60000); // 连接泄漏检测(1分钟)
+        
+        // 性能优化配置
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "false");
+        // 禁用缓存以确保数据一致性
+        config.addDataSourceProperty("useLocalSessionState", "false");
+        config.addDataSourceProperty("useLocalTransactionState", "false");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+    }
+
+    /**
+     * 嵌入式H2数据源配置，内存库在最后一个连接关闭后仍保留（DB_CLOSE_DELAY=-1）
+     */
+    private static void configureH2(HikariConfig config) {
+        config.setJdbcUrl(System.getProperty("bookstore.db.url", H2_URL));
+        config.setUsername(H2_USERNAME);
+        config.setPassword(H2_PASSWORD);
+        config.setDriverClassName(H2_DRIVER);
+
+        config.setMaximumPoolSize(32);
+        config.setMinimumIdle(4);
+        config.setConnectionTimeout(20000);
+        config.setLeakDetectionThreshold(60000);
+    }
+
+    /**
+     * 库中还没有 t_book 表时执行建表脚本，文件库重复启动不会重复写入初始数据
+     */
+    private static void initEmbeddedSchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (ResultSet tables = connection.getMetaData().getTables(null, null, "t_book", null)) {
+                if (tables.next()) {
+                    return;
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("RUNSCRIPT FROM '" + H2_SCHEMA + "' CHARSET 'UTF-8'");
+            }
+            System.out.println("嵌入式数据库结构已初始化: " + H2_SCHEMA);
+        }
+    }
+
+    /**
+     * 是否使用嵌入式H2数据源
+     * @return bookstore.db.profile=h2 时返回true
+     */
+    public static boolean isEmbedded() {
+        return PROFILE_H2.equalsIgnoreCase(PROFILE);
+    }
+
     /**
      * 获取数据库连接
+     * 开启JDBC埋点、慢查询日志或JFR事件时返回带统计的代理连接（见 JdbcInstrumentation）
      * @return 数据库连接
      * @throws SQLException SQL异常
      */
     public static Connection getConnection() throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("数据源未初始化");
+        }
+        if (JdbcInstrumentation.isEnabled() || SlowQueryLog.isEnabled() || FlightRecording.isEnabled()) {
+            long start = System.nanoTime();
+            Connection connection = dataSource.getConnection();
+            return JdbcInstrumentation.wrap(connection, System.nanoTime() - start);
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * 获取不带埋点的连接，供慢查询日志执行 EXPLAIN，避免自身被统计
+     * @return 数据库连接
+     * @throws SQLException SQL异常
+     */
+    static Connection getUninstrumentedConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("数据源未初始化");
         }
         return dataSource.getConnection();
     }
 
+    /**
+     * 在同一个连接、同一个事务内执行一组数据库操作
+     * 回调正常返回则提交，抛出任何异常则回滚并原样抛出
+     * @param callback 事务回调，所有DAO调用都应使用传入的连接
+     * @return 回调的返回值
+     * @throws SQLException 获取连接、提交或回调中的SQL异常
+     */
+    public static <T> T executeInTransaction(TransactionCallback<T> callback) throws SQLException {
+        Connection connection = getConnection();
+        try {
+            connection.setAutoCommit(false);
+            T result = callback.doInTransaction(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(connection);
+            throw e;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("恢复自动提交失败: " + e.getMessage());
+            }
+            closeConnection(connection);
+        }
+    }
+    
+    /**
+     * 回滚事务，回滚本身的异常只记录不抛出，避免覆盖原始异常
+     * @param connection 数据库连接
+     */
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("事务回滚失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 关闭连接
      * @param connection 数据库连接
@@ -134,4 +263,31 @@ public class DBUtil {
         }
         return "数据源未初始化";
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取连接池状态Bean
+     * @return 连接池状态，数据源未初始化或已关闭时返回null
+     */
+    public static HikariPoolMXBean getPoolMXBean() {
+        if (dataSource == null || dataSource.isClosed()) {
+            return null;
+        }
+        return dataSource.getHikariPoolMXBean();
+    }
+
+    /**
+     * 获取连接池最大连接数
+     * @return 最大连接数，数据源未初始化时返回0
+     */
+    public static int getMaximumPoolSize() {
+        return dataSource != null ? dataSource.getMaximumPoolSize() : 0;
+    }
+
+    /**
+     * 事务回调接口
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Connection connection) throws SQLException;
+    }
+}
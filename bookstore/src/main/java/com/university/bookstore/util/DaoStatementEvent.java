@@ -0,0 +1,34 @@
+package com.university.bookstore.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 单条SQL语句的JFR事件，由 JdbcInstrumentation 的语句代理提交
+ * 查询语句的持续时间包括遍历结果集，到结果集或语句关闭为止
+ */
+@Name("com.university.bookstore.DaoStatement")
+@Label("DAO Statement")
+@Category({"Bookstore", "Database"})
+@Description("SQL statement executed through DBUtil")
+@StackTrace(false)
+public class DaoStatementEvent extends Event {
+
+    @Label("Operation")
+    @Description("Enclosing service operation, if any")
+    public String operation;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    @Description("Rows read from the result set, or rows affected by an update")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
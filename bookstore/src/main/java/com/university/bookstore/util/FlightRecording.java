@@ -0,0 +1,150 @@
+package com.university.bookstore.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 业务服务和DAO语句的JFR事件
+ *
+ * trace 为服务接口生成代理，每次调用提交一个 ServiceOperationEvent，
+ * 记录调用期间本线程的缓存命中/未命中次数；开启后 DBUtil 返回带埋点的连接，
+ * 每条SQL提交一个 DaoStatementEvent，并带上所属的服务操作，便于在JFR时间线上
+ * 与GC停顿、锁竞争对照。
+ *
+ * 通过系统属性 -Dbookstore.jfr.events=true 开启，也可在运行时调用 setEnabled 或经JMX切换；
+ * 关闭时代理只多一次标志判断。即使开启，没有正在进行的JFR录制时事件也不会被提交。
+ */
+public class FlightRecording {
+
+    private static volatile boolean enabled = Boolean.getBoolean("bookstore.jfr.events");
+
+    private static final ThreadLocal<CallContext> context = ThreadLocal.withInitial(CallContext::new);
+
+    /**
+     * 线程内的调用上下文：当前服务操作和累计缓存命中数
+     */
+    private static final class CallContext {
+        String operation;
+        long cacheHits;
+        long cacheMisses;
+    }
+
+    private FlightRecording() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        FlightRecording.enabled = enabled;
+    }
+
+    /**
+     * 为服务对象生成提交JFR事件的代理
+     * @param serviceInterface 服务接口
+     * @param target 服务实现
+     * @return 代理对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T trace(Class<T> serviceInterface, T target) {
+        String serviceName = serviceInterface.getSimpleName();
+        return (T) Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        return invoke(target, method, args);
+                    }
+                    if (!enabled) {
+                        return invoke(target, method, args);
+                    }
+                    ServiceOperationEvent event = new ServiceOperationEvent();
+                    if (!event.isEnabled()) {
+                        return invoke(target, method, args);
+                    }
+                    return invokeTraced(event, serviceName + "." + method.getName(), target, method, args);
+                });
+    }
+
+    /**
+     * 记录一次缓存访问，由 CacheManager.get 调用
+     * @param hit 是否命中
+     */
+    static void recordCacheAccess(boolean hit) {
+        if (!enabled) {
+            return;
+        }
+        CallContext current = context.get();
+        if (hit) {
+            current.cacheHits++;
+        } else {
+            current.cacheMisses++;
+        }
+    }
+
+    /**
+     * 开始一条语句的事件
+     * @return 事件，未开启或JFR未录制该事件时返回null
+     */
+    static DaoStatementEvent beginStatement(String sql) {
+        if (!enabled) {
+            return null;
+        }
+        DaoStatementEvent event = new DaoStatementEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.sql = sql;
+        event.operation = context.get().operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并提交语句事件
+     */
+    static void commitStatement(DaoStatementEvent event, long rows, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    private static Object invokeTraced(ServiceOperationEvent event, String operation,
+                                       Object target, Method method, Object[] args) throws Throwable {
+        CallContext current = context.get();
+        String outerOperation = current.operation;
+        long hitsBefore = current.cacheHits;
+        long missesBefore = current.cacheMisses;
+        current.operation = operation;
+        event.begin();
+        try {
+            return invoke(target, method, args);
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.cacheHits = current.cacheHits - hitsBefore;
+                event.cacheMisses = current.cacheMisses - missesBefore;
+                event.commit();
+            }
+            current.operation = outerOperation;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.university.bookstore.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC埋点
+ *
+ * 开启后 DBUtil.getConnection 返回的连接被动态代理包装，按归一化后的SQL文本统计
+ * 执行次数、耗时分布、返回/影响行数和失败次数，并记录从连接池获取连接的等待时间
+ * 和连接从借出到归还的持有时间。报告按总耗时从高到低排序。
+ *
+ * 通过系统属性 -Dbookstore.jdbc.instrument=true 开启，也可在运行时调用 setEnabled 切换，
+ * 切换只影响之后借出的连接。开启慢查询日志（SlowQueryLog）时同样会包装连接，
+ * 预编译语句的绑定参数会被记录下来交给慢查询日志。开启JFR事件（FlightRecording）时
+ * 也会包装连接，每条语句提交一个 DaoStatementEvent。
+ */
+public class JdbcInstrumentation {
+
+    private static final int MAX_CACHED_NORMALIZATIONS = 2000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile boolean enabled = Boolean.getBoolean("bookstore.jdbc.instrument");
+
+    private static final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, String> normalizedCache = new ConcurrentHashMap<>();
+    private static final LatencyHistogram poolWait = new LatencyHistogram();
+    private static final LatencyHistogram connectionHold = new LatencyHistogram();
+
+    /**
+     * 单条SQL的累计统计
+     */
+    private static final class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+    }
+
+    private JdbcInstrumentation() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        JdbcInstrumentation.enabled = enabled;
+    }
+
+    /**
+     * 包装从连接池取得的连接
+     * @param connection 原始连接
+     * @param poolWaitNanos 从连接池获取该连接花费的时间（纳秒）
+     * @return 带埋点的连接
+     */
+    public static Connection wrap(Connection connection, long poolWaitNanos) {
+        poolWait.record(poolWaitNanos);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * 各SQL的统计，按总耗时从高到低排序
+     */
+    public static List<SqlStatistics> getStatistics() {
+        List<SqlStatistics> result = new ArrayList<>(statements.size());
+        statements.forEach((sql, stats) ->
+                result.add(new SqlStatistics(sql, stats.errors.sum(), stats.rows.sum(), stats.latency.snapshot())));
+        result.sort(Comparator.comparingLong(SqlStatistics::getTotalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * 从连接池获取连接的等待时间分布
+     */
+    public static LatencySnapshot getPoolWaitSnapshot() {
+        return poolWait.snapshot();
+    }
+
+    /**
+     * 连接从借出到归还的持有时间分布
+     */
+    public static LatencySnapshot getConnectionHoldSnapshot() {
+        return connectionHold.snapshot();
+    }
+
+    /**
+     * 清空统计
+     */
+    public static void reset() {
+        statements.clear();
+        poolWait.reset();
+        connectionHold.reset();
+    }
+
+    /**
+     * 打印SQL统计报告
+     * @param limit 最多打印的语句条数
+     */
+    public static void printReport(int limit) {
+        System.out.println("=== SQL统计（按总耗时排序） ===");
+        System.out.println("连接池等待: " + poolWait.snapshot());
+        System.out.println("连接持有:   " + connectionHold.snapshot());
+        System.out.printf("%-12s %-8s %-6s %-10s %-10s %-10s %-10s %s%n",
+                "总耗时(ms)", "次数", "失败", "行数", "平均(ms)", "p99(ms)", "最大(ms)", "SQL");
+        System.out.println("-".repeat(110));
+        List<SqlStatistics> statistics = getStatistics();
+        for (SqlStatistics stats : statistics.subList(0, Math.min(limit, statistics.size()))) {
+            LatencySnapshot latency = stats.getLatency();
+            System.out.printf("%-12.3f %-8d %-6d %-10d %-10.3f %-10.3f %-10.3f %s%n",
+                    stats.getTotalNanos() / 1_000_000.0,
+                    stats.getExecutionCount(),
+                    stats.getErrorCount(),
+                    stats.getRowCount(),
+                    latency.getMeanMillis(),
+                    latency.getPercentileMillis(99),
+                    latency.getMaxMillis(),
+                    stats.getSql());
+        }
+    }
+
+    /**
+     * 归一化SQL：字面量替换为 ?，IN 列表合并，空白合并为单个空格
+     * 使参数不同但结构相同的语句归为同一条统计
+     */
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = normalizedCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("IN (...)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        if (normalizedCache.size() < MAX_CACHED_NORMALIZATIONS) {
+            normalizedCache.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    private static StatementStats statsFor(String sql) {
+        return statements.computeIfAbsent(normalize(sql), k -> new StatementStats());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 连接代理：包装创建出的语句对象，关闭时记录持有时间
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final long borrowedAt = System.nanoTime();
+        private boolean closed;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        connectionHold.record(System.nanoTime() - borrowedAt);
+                    }
+                    return JdbcInstrumentation.invoke(target, method, args);
+                case "createStatement":
+                    return proxy(Statement.class,
+                            new StatementHandler((Statement) JdbcInstrumentation.invoke(target, method, args), null));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new StatementHandler((Statement) JdbcInstrumentation.invoke(target, method, args), (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class,
+                            new StatementHandler((Statement) JdbcInstrumentation.invoke(target, method, args), (String) args[0]));
+                default:
+                    return JdbcInstrumentation.invoke(target, method, args);
+            }
+        }
+    }
+
+    /**
+     * 语句代理：计时 execute* 方法，包装查询结果集以统计返回行数，
+     * 开启慢查询日志时记录绑定参数
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private String sql;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        // 查询语句的JFR事件在结果集或语句关闭时才提交，以便带上读取的行数
+        private DaoStatementEvent pendingEvent;
+        private long pendingRows;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                // Statement.addBatch(String)：批量中的语句以最后一条计
+                sql = (String) args[0];
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && SlowQueryLog.isEnabled()) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            if (name.equals("getResultSet")) {
+                return wrapResultSet((ResultSet) JdbcInstrumentation.invoke(target, method, args));
+            }
+            if (name.equals("close")) {
+                commitPendingEvent();
+            }
+            if (!name.startsWith("execute")) {
+                return JdbcInstrumentation.invoke(target, method, args);
+            }
+
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            }
+            commitPendingEvent();
+            StatementStats stats = statsFor(sql);
+            DaoStatementEvent event = FlightRecording.beginStatement(sql);
+            long start = System.nanoTime();
+            try {
+                Object result = JdbcInstrumentation.invoke(target, method, args);
+                long elapsed = System.nanoTime() - start;
+                stats.latency.record(elapsed);
+                SlowQueryLog.onExecuted(sql, parameters, elapsed, false);
+                if (result instanceof ResultSet) {
+                    pendingEvent = event;
+                    pendingRows = 0;
+                    return wrapResultSet((ResultSet) result);
+                }
+                long affected = affectedRows(result);
+                stats.rows.add(affected);
+                if (event != null) {
+                    FlightRecording.commitStatement(event, affected, false);
+                }
+                return result;
+            } catch (Throwable e) {
+                long elapsed = System.nanoTime() - start;
+                stats.latency.record(elapsed);
+                stats.errors.increment();
+                SlowQueryLog.onExecuted(sql, parameters, elapsed, true);
+                if (event != null) {
+                    FlightRecording.commitStatement(event, 0, true);
+                }
+                throw e;
+            }
+        }
+
+        private static long affectedRows(Object result) {
+            long affected = 0;
+            if (result instanceof Integer || result instanceof Long) {
+                affected = Math.max(0, ((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    affected += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    affected += Math.max(0, count);
+                }
+            }
+            return affected;
+        }
+
+        private void commitPendingEvent() {
+            if (pendingEvent != null) {
+                FlightRecording.commitStatement(pendingEvent, pendingRows, false);
+                pendingEvent = null;
+            }
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            if (resultSet == null) {
+                return null;
+            }
+            LongAdder rows = statsFor(sql).rows;
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                if (method.getName().equals("close")) {
+                    commitPendingEvent();
+                }
+                Object result = JdbcInstrumentation.invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    rows.increment();
+                    pendingRows++;
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.university.bookstore.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图（纳秒精度，HDR风格的对数-线性分桶）
+ *
+ * 小于64纳秒的值每纳秒一个桶；更大的值按2的幂分段，每段再线性分为32个子桶，
+ * 相对误差不超过约3%。最大可记录约73分钟，超出的值计入最后一个桶。
+ * 桶数固定为1248个，内存占用与记录次数无关。
+ *
+ * 记录操作只做原子自增，可被任意线程并发调用；读取时复制出 LatencySnapshot 再计算分位数。
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;       // 32
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;          // 64，以下的值精确记录
+    private static final int MIN_MAGNITUDE = SUB_BUCKET_BITS + 1;           // 6，即 2^6 = 64
+    private static final int MAX_MAGNITUDE = 42;                            // 2^42 纳秒 ≈ 73分钟
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_MAGNITUDE - MIN_MAGNITUDE + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong(0);
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒），负值按0处理
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        updateMin(value);
+        updateMax(value);
+    }
+
+    /**
+     * 记录次数
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * 清空所有记录
+     * 与并发的 record 之间不保证原子性，清空瞬间进行的记录可能部分丢失
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        minNanos.set(Long.MAX_VALUE);
+        maxNanos.set(0);
+    }
+
+    /**
+     * 复制当前记录为快照
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        copyInto(copy);
+        return new LatencySnapshot(copy, totalCount.sum(), totalNanos.sum(), minNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * 合并多个直方图为一个快照，用于滚动时间窗口
+     */
+    static LatencySnapshot merge(Iterable<LatencyHistogram> histograms) {
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0;
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (LatencyHistogram histogram : histograms) {
+            histogram.copyInto(merged);
+            count += histogram.totalCount.sum();
+            total += histogram.totalNanos.sum();
+            min = Math.min(min, histogram.minNanos.get());
+            max = Math.max(max, histogram.maxNanos.get());
+        }
+        return new LatencySnapshot(merged, count, total, min, max);
+    }
+
+    private void copyInto(long[] target) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            target[i] += counts.get(i);
+        }
+    }
+
+    private void updateMin(long value) {
+        long current = minNanos.get();
+        while (value < current && !minNanos.compareAndSet(current, value)) {
+            current = minNanos.get();
+        }
+    }
+
+    private void updateMax(long value) {
+        long current = maxNanos.get();
+        while (value > current && !maxNanos.compareAndSet(current, value)) {
+            current = maxNanos.get();
+        }
+    }
+
+    /**
+     * 值所在的桶
+     */
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (magnitude - MIN_MAGNITUDE) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶内可能的最大值，计算分位数时使用（与HDR一致，宁可偏大不偏小）
+     */
+    static long highestValueInBucket(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int magnitude = MIN_MAGNITUDE + offset / SUB_BUCKET_COUNT;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        long subBucket = SUB_BUCKET_COUNT + offset % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package com.university.bookstore.util;
+
+/**
+ * 延迟直方图快照
+ * 所有时间均为纳秒，提供 getXxxMillis 便于展示
+ */
+public class LatencySnapshot {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long minNanos;
+    private final long maxNanos;
+
+    LatencySnapshot(long[] counts, long count, long totalNanos, long minNanos, long maxNanos) {
+        this.counts = counts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.minNanos = count > 0 ? minNanos : 0;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMinNanos() {
+        return minNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return count > 0 ? (double) totalNanos / count : 0.0;
+    }
+
+    /**
+     * 分位数对应的耗时
+     * @param percentile 百分位（0-100），如 99.9
+     * @return 耗时（纳秒），不超过记录到的最大值
+     */
+    public long getValueAtPercentile(double percentile) {
+        long bucketTotal = 0;
+        for (long bucketCount : counts) {
+            bucketTotal += bucketCount;
+        }
+        if (bucketTotal == 0) {
+            return 0;
+        }
+
+        double clamped = Math.min(100.0, Math.max(0.0, percentile));
+        long rank = Math.max(1, (long) Math.ceil(clamped / 100.0 * bucketTotal));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueInBucket(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public double getMeanMillis() {
+        return getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+                count, getMeanMillis(), getPercentileMillis(50), getPercentileMillis(90),
+                getPercentileMillis(99), getPercentileMillis(99.9), getMaxMillis());
+    }
+}
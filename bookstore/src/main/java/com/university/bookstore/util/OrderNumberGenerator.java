@@ -0,0 +1,113 @@
+package com.university.bookstore.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单号生成器，不访问数据库
+ *
+ * 订单号格式：ORD + yyyyMMddHHmmss + 3位节点号 + 6位序号，共26位，例如 ORD20240301123045007000042。
+ * 秒数和序号打包在一个 AtomicLong 中（高位为秒，低20位为序号），生成时只做一次CAS，不加锁：
+ * 进入新的一秒时序号归零；一秒内序号用完（100万个）时借用下一秒，系统时钟回拨时沿用已发出的秒数，
+ * 因此同一节点发出的订单号严格递增、不会重复。不同节点由节点号区分。
+ *
+ * 同时运行的多个应用实例必须使用不同的节点号，节点号的分配见 NodeIdLease。
+ */
+public class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD";
+    public static final int MAX_NODE_ID = 999;
+    private static final int SEQUENCE_BITS = 20;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // 序号固定6位
+    private static final long MAX_SEQUENCE = 999_999;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * 已格式化的秒，同一秒内的订单号共用
+     */
+    private static final class Stamp {
+        final long second;
+        final String text;
+
+        Stamp(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+    private volatile String nodeId;
+    private final ZoneId zone;
+    // 高位为秒（epoch second），低20位为该秒内已发出的最大序号
+    private final AtomicLong state = new AtomicLong();
+    private volatile Stamp stamp = new Stamp(-1, "");
+
+    /**
+     * @param nodeId 节点号，0-999
+     */
+    public OrderNumberGenerator(int nodeId) {
+        setNodeId(nodeId);
+        this.zone = ZoneId.systemDefault();
+        // 置为上一秒已用完，第一次生成时从当前秒的序号0开始
+        state.set((currentSecond() << SEQUENCE_BITS) - 1);
+    }
+
+    /**
+     * 切换节点号（节点号租约失效后重新租用时）
+     * @param nodeId 节点号，0-999
+     */
+    public void setNodeId(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在0-" + MAX_NODE_ID + "之间: " + nodeId);
+        }
+        this.nodeId = String.format("%03d", nodeId);
+    }
+
+    /**
+     * 生成下一个订单号
+     */
+    public String next() {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long second = current >>> SEQUENCE_BITS;
+            long sequence = current & SEQUENCE_MASK;
+            long now = currentSecond();
+            if (now > second) {
+                next = now << SEQUENCE_BITS;
+            } else if (sequence < MAX_SEQUENCE) {
+                next = current + 1;
+            } else {
+                // 本秒序号已用完（或时钟回拨后仍在旧秒内用完），借用下一秒
+                next = (second + 1) << SEQUENCE_BITS;
+            }
+        } while (!state.compareAndSet(current, next));
+
+        return format(next >>> SEQUENCE_BITS, next & SEQUENCE_MASK);
+    }
+
+    private String format(long second, long sequence) {
+        Stamp current = stamp;
+        if (current.second != second) {
+            current = new Stamp(second, LocalDateTime.ofEpochSecond(second, 0,
+                    zone.getRules().getOffset(Instant.ofEpochSecond(second))).format(TIMESTAMP_FORMAT));
+            stamp = current;
+        }
+
+        StringBuilder sb = new StringBuilder(PREFIX.length() + 14 + 3 + 6);
+        sb.append(PREFIX).append(current.text).append(nodeId);
+        String digits = Long.toString(sequence);
+        for (int i = digits.length(); i < 6; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -1,16 +1,115 @@
 package com.university.bookstore.util;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * 性能监控工具类
  * 用于监控方法执行时间和数据库查询性能
+ *
+ * 每个操作维护三份纳秒精度的延迟直方图（见 LatencyHistogram）：
+ * 自启动（或上次清空）以来的累计值、最近1分钟的滚动窗口（6个10秒的时间片），
+ * 以及读取即清零的区间值，供定时上报使用。记录过程无锁。
+ *
+ * 通过 monitor 或 start/Sample.stop 监控的操作还会记录调用线程在操作期间分配的堆内存
+ * （HotSpot 的 com.sun.management.ThreadMXBean），报告中给出每次调用的平均分配量，
+ * 用于定位造成GC压力的操作。JVM不支持时只记录耗时。
  */
 public class PerformanceMonitor {
-    private static final ConcurrentHashMap<String, AtomicLong> executionCounts = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, AtomicLong> totalExecutionTimes = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, Long> maxExecutionTimes = new ConcurrentHashMap<>();
+    private static final long WINDOW_SLOT_MILLIS = 10_000;
+    private static final int WINDOW_SLOTS = 6;
+    private static final long SLOW_EXECUTION_NANOS = 1_000_000_000L; // 1秒
+    
+    private static final ConcurrentHashMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private static final List<Consumer<String>> operationListeners = new CopyOnWriteArrayList<>();
+    private static final com.sun.management.ThreadMXBean allocationMXBean = initAllocationMXBean();
+    
+    /**
+     * 滚动窗口的一个时间片：时间段编号和该时间段的直方图，进入新时间段时整体替换
+     */
+    private static final class Slot {
+        final long epoch;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        
+        Slot(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+    
+    /**
+     * 单个操作的延迟统计
+     */
+    private static final class OperationStats {
+        final LatencyHistogram cumulative = new LatencyHistogram();
+        final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+        // 时间片被复用时用CAS换入新的 Slot，不清空旧直方图，与区间直方图的 getAndSet 相同
+        final AtomicReferenceArray<Slot> windowSlots = new AtomicReferenceArray<>(WINDOW_SLOTS);
+        
+        OperationStats() {
+            for (int i = 0; i < WINDOW_SLOTS; i++) {
+                windowSlots.set(i, new Slot(-1));
+            }
+        }
+        
+        final LongAdder allocatedBytes = new LongAdder();
+        final LongAdder allocationSamples = new LongAdder();
+        final AtomicLong maxAllocatedBytes = new AtomicLong();
+        
+        void recordAllocation(long bytes) {
+            allocatedBytes.add(bytes);
+            allocationSamples.increment();
+            long max = maxAllocatedBytes.get();
+            while (bytes > max && !maxAllocatedBytes.compareAndSet(max, bytes)) {
+                max = maxAllocatedBytes.get();
+            }
+        }
+        
+        void record(long nanos) {
+            cumulative.record(nanos);
+            interval.get().record(nanos);
+            
+            long epoch = System.currentTimeMillis() / WINDOW_SLOT_MILLIS;
+            int slot = (int) (epoch % WINDOW_SLOTS);
+            Slot current = windowSlots.get(slot);
+            // 时间片仍属于更早的时间段时换入新的；CAS失败说明其他线程已换入，重新读取
+            while (current.epoch < epoch) {
+                Slot fresh = new Slot(epoch);
+                if (windowSlots.compareAndSet(slot, current, fresh)) {
+                    current = fresh;
+                    break;
+                }
+                current = windowSlots.get(slot);
+            }
+            current.histogram.record(nanos);
+        }
+        
+        LatencySnapshot window() {
+            long epoch = System.currentTimeMillis() / WINDOW_SLOT_MILLIS;
+            List<LatencyHistogram> live = new ArrayList<>(WINDOW_SLOTS);
+            for (int i = 0; i < WINDOW_SLOTS; i++) {
+                Slot slot = windowSlots.get(i);
+                if (slot.epoch > epoch - WINDOW_SLOTS) {
+                    live.add(slot.histogram);
+                }
+            }
+            return LatencyHistogram.merge(live);
+        }
+        
+        LatencySnapshot drainInterval() {
+            return interval.getAndSet(new LatencyHistogram()).snapshot();
+        }
+    }
     
     /**
      * 记录方法执行时间
@@ -18,9 +117,139 @@ public class PerformanceMonitor {
      * @param executionTime 执行时间（毫秒）
      */
     public static void recordExecution(String methodName, long executionTime) {
-        executionCounts.computeIfAbsent(methodName, k -> new AtomicLong(0)).incrementAndGet();
-        totalExecutionTimes.computeIfAbsent(methodName, k -> new AtomicLong(0)).addAndGet(executionTime);
-        maxExecutionTimes.merge(methodName, executionTime, Math::max);
+        recordNanos(methodName, executionTime * 1_000_000L);
+    }
+    
+    /**
+     * 记录方法执行时间
+     * @param methodName 方法名
+     * @param nanos 执行时间（纳秒），应由 System.nanoTime() 的差值得到
+     */
+    public static void recordNanos(String methodName, long nanos) {
+        statsFor(methodName).record(nanos);
+    }
+    
+    /**
+     * 记录方法执行期间调用线程分配的内存
+     * @param methodName 方法名
+     * @param bytes 分配的字节数
+     */
+    public static void recordAllocation(String methodName, long bytes) {
+        if (bytes >= 0) {
+            statsFor(methodName).recordAllocation(bytes);
+        }
+    }
+    
+    /**
+     * 开始监控一次操作，在 finally 中调用返回对象的 stop() 记录耗时和内存分配
+     * <pre>
+     * PerformanceMonitor.Sample sample = PerformanceMonitor.start("loadBooks");
+     * try { ... } finally { sample.stop(); }
+     * </pre>
+     * @param methodName 方法名
+     * @return 采样对象
+     */
+    public static Sample start(String methodName) {
+        return new Sample(methodName);
+    }
+    
+    /**
+     * 当前线程累计分配的堆内存字节数
+     * @return 字节数，JVM不支持时返回-1
+     */
+    public static long currentThreadAllocatedBytes() {
+        return allocationMXBean != null ? allocationMXBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+    
+    /**
+     * 是否支持按线程统计内存分配
+     */
+    public static boolean isAllocationTrackingSupported() {
+        return allocationMXBean != null;
+    }
+    
+    /**
+     * 获取方法每次调用平均分配的内存
+     * @param methodName 方法名
+     * @return 平均字节数，没有记录时返回0
+     */
+    public static double getAllocatedBytesPerCall(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        if (stats == null) {
+            return 0.0;
+        }
+        long samples = stats.allocationSamples.sum();
+        return samples > 0 ? (double) stats.allocatedBytes.sum() / samples : 0.0;
+    }
+    
+    /**
+     * 获取方法单次调用分配内存的最大值
+     * @param methodName 方法名
+     * @return 字节数
+     */
+    public static long getMaxAllocatedBytes(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        return stats != null ? stats.maxAllocatedBytes.get() : 0;
+    }
+    
+    /**
+     * 获取方法累计分配的内存
+     * @param methodName 方法名
+     * @return 字节数
+     */
+    public static long getTotalAllocatedBytes(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        return stats != null ? stats.allocatedBytes.sum() : 0;
+    }
+    
+    private static OperationStats statsFor(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        if (stats == null) {
+            OperationStats created = new OperationStats();
+            stats = operations.putIfAbsent(methodName, created);
+            if (stats == null) {
+                stats = created;
+                for (Consumer<String> listener : operationListeners) {
+                    listener.accept(methodName);
+                }
+            }
+        }
+        return stats;
+    }
+    
+    private static com.sun.management.ThreadMXBean initAllocationMXBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+                if (hotspotBean.isThreadAllocatedMemorySupported()) {
+                    if (!hotspotBean.isThreadAllocatedMemoryEnabled()) {
+                        hotspotBean.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return hotspotBean;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            System.err.println("不支持按线程统计内存分配: " + e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * 注册新操作监听器：某个方法名第一次被记录时回调，已记录过的方法立即回调一次
+     * @param listener 监听器，参数为方法名
+     */
+    public static void addOperationListener(Consumer<String> listener) {
+        operationListeners.add(listener);
+        operations.keySet().forEach(listener);
+    }
+    
+    /**
+     * 移除新操作监听器
+     * @param listener 监听器
+     */
+    public static void removeOperationListener(Consumer<String> listener) {
+        operationListeners.remove(listener);
     }
     
     /**
@@ -29,14 +258,7 @@ public class PerformanceMonitor {
      * @return 平均执行时间（毫秒）
      */
     public static double getAverageExecutionTime(String methodName) {
-        AtomicLong count = executionCounts.get(methodName);
-        AtomicLong total = totalExecutionTimes.get(methodName);
-        
-        if (count == null || total == null || count.get() == 0) {
-            return 0.0;
-        }
-        
-        return (double) total.get() / count.get();
+        return getSnapshot(methodName).getMeanMillis();
     }
     
     /**
@@ -45,7 +267,17 @@ public class PerformanceMonitor {
      * @return 最大执行时间（毫秒）
      */
     public static long getMaxExecutionTime(String methodName) {
-        return maxExecutionTimes.getOrDefault(methodName, 0L);
+        return getSnapshot(methodName).getMaxNanos() / 1_000_000L;
+    }
+    
+    /**
+     * 获取方法执行时间的分位数
+     * @param methodName 方法名
+     * @param percentile 百分位（0-100），如 99.9
+     * @return 执行时间（毫秒）
+     */
+    public static double getPercentile(String methodName, double percentile) {
+        return getSnapshot(methodName).getPercentileMillis(percentile);
     }
     
     /**
@@ -54,8 +286,48 @@ public class PerformanceMonitor {
      * @return 执行次数
      */
     public static long getExecutionCount(String methodName) {
-        AtomicLong count = executionCounts.get(methodName);
-        return count != null ? count.get() : 0;
+        OperationStats stats = operations.get(methodName);
+        return stats != null ? stats.cumulative.getCount() : 0;
+    }
+    
+    /**
+     * 获取方法自启动（或上次清空）以来的延迟快照
+     * @param methodName 方法名
+     * @return 延迟快照，未记录过的方法返回空快照
+     */
+    public static LatencySnapshot getSnapshot(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        return stats != null ? stats.cumulative.snapshot() : new LatencyHistogram().snapshot();
+    }
+    
+    /**
+     * 获取方法最近1分钟的延迟快照
+     * @param methodName 方法名
+     * @return 延迟快照
+     */
+    public static LatencySnapshot getWindowSnapshot(String methodName) {
+        OperationStats stats = operations.get(methodName);
+        return stats != null ? stats.window() : new LatencyHistogram().snapshot();
+    }
+    
+    /**
+     * 获取所有方法的累计延迟快照
+     * @return 方法名 -> 延迟快照（按方法名排序）
+     */
+    public static Map<String, LatencySnapshot> getSnapshots() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        operations.forEach((name, stats) -> snapshots.put(name, stats.cumulative.snapshot()));
+        return snapshots;
+    }
+    
+    /**
+     * 获取所有方法自上次调用以来的延迟快照，并清零区间统计（不影响累计值和滚动窗口）
+     * @return 方法名 -> 延迟快照（按方法名排序）
+     */
+    public static Map<String, LatencySnapshot> drainIntervalSnapshots() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        operations.forEach((name, stats) -> snapshots.put(name, stats.drainInterval()));
+        return snapshots;
     }
     
     /**
@@ -63,30 +335,78 @@ public class PerformanceMonitor {
      */
     public static void printStatistics() {
         System.out.println("\n=== 性能统计信息 ===");
-        System.out.printf("%-30s %-10s %-15s %-15s%n", "方法名", "执行次数", "平均时间(ms)", "最大时间(ms)");
-        System.out.println("-".repeat(70));
+        printLatencyTable(getSnapshots());
+        printAllocationTable();
         
-        for (String methodName : executionCounts.keySet()) {
-            System.out.printf("%-30s %-10d %-15.2f %-15d%n",
-                methodName,
-                getExecutionCount(methodName),
-                getAverageExecutionTime(methodName),
-                getMaxExecutionTime(methodName)
-            );
-        }
+        System.out.println("=== 最近1分钟 ===");
+        Map<String, LatencySnapshot> windows = new TreeMap<>();
+        operations.forEach((name, stats) -> {
+            LatencySnapshot window = stats.window();
+            if (window.getCount() > 0) {
+                windows.put(name, window);
+            }
+        });
+        printLatencyTable(windows);
         
         System.out.println("=== 缓存统计信息 ===");
-        System.out.println("缓存大小: " + CacheManager.size());
+        CacheStats cacheStats = CacheManager.stats();
+        System.out.println("缓存大小: " + cacheStats.getSize() + " (权重 " +
+                           cacheStats.getWeightedSize() + "/" + cacheStats.getMaximumWeight() + ")");
+        System.out.printf("命中: %d, 未命中: %d, 命中率: %.2f%%%n",
+                cacheStats.getHitCount(), cacheStats.getMissCount(), cacheStats.getHitRate() * 100);
+        System.out.println("淘汰: " + cacheStats.getEvictionCount() + ", 过期: " + cacheStats.getExpirationCount());
         System.out.println("数据源信息: " + DBUtil.getDataSourceInfo());
+        
+        if (JdbcInstrumentation.isEnabled()) {
+            JdbcInstrumentation.printReport(20);
+        }
     }
     
     /**
      * 清空统计信息
      */
     public static void clearStatistics() {
-        executionCounts.clear();
-        totalExecutionTimes.clear();
-        maxExecutionTimes.clear();
+        operations.clear();
+    }
+    
+    private static void printAllocationTable() {
+        Map<String, OperationStats> tracked = new TreeMap<>();
+        operations.forEach((name, stats) -> {
+            if (stats.allocationSamples.sum() > 0) {
+                tracked.put(name, stats);
+            }
+        });
+        if (tracked.isEmpty()) {
+            return;
+        }
+        System.out.println("=== 内存分配 ===");
+        System.out.printf("%-30s %-10s %-15s %-15s %-15s%n", "方法名", "采样次数", "平均/次(KB)", "最大/次(KB)", "累计(MB)");
+        System.out.println("-".repeat(90));
+        tracked.forEach((name, stats) -> {
+            long samples = stats.allocationSamples.sum();
+            long total = stats.allocatedBytes.sum();
+            System.out.printf("%-30s %-10d %-15.1f %-15.1f %-15.1f%n",
+                    name,
+                    samples,
+                    (double) total / samples / 1024,
+                    stats.maxAllocatedBytes.get() / 1024.0,
+                    total / 1024.0 / 1024.0);
+        });
+    }
+    
+    private static void printLatencyTable(Map<String, LatencySnapshot> snapshots) {
+        System.out.printf("%-30s %-10s %-10s %-10s %-10s %-10s %-10s %-10s%n",
+                "方法名", "执行次数", "平均(ms)", "p50(ms)", "p90(ms)", "p99(ms)", "p999(ms)", "最大(ms)");
+        System.out.println("-".repeat(110));
+        snapshots.forEach((name, snapshot) -> System.out.printf("%-30s %-10d %-10.3f %-10.3f %-10.3f %-10.3f %-10.3f %-10.3f%n",
+                name,
+                snapshot.getCount(),
+                snapshot.getMeanMillis(),
+                snapshot.getPercentileMillis(50),
+                snapshot.getPercentileMillis(90),
+                snapshot.getPercentileMillis(99),
+                snapshot.getPercentileMillis(99.9),
+                snapshot.getMaxMillis()));
     }
     
     /**
@@ -94,25 +414,54 @@ public class PerformanceMonitor {
      * 用于包装需要监控的方法
      */
     public static <T> T monitor(String methodName, MonitoredOperation<T> operation) {
-        long startTime = System.currentTimeMillis();
+        long startBytes = currentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
         try {
             T result = operation.execute();
-            long executionTime = System.currentTimeMillis() - startTime;
-            recordExecution(methodName, executionTime);
+            long executionTime = System.nanoTime() - startTime;
+            recordNanos(methodName, executionTime);
+            if (startBytes >= 0) {
+                recordAllocation(methodName, currentThreadAllocatedBytes() - startBytes);
+            }
             
             // 如果执行时间超过阈值，记录警告
-            if (executionTime > 1000) { // 1秒
-                System.out.println("警告: 方法 " + methodName + " 执行时间过长: " + executionTime + "ms");
+            if (executionTime > SLOW_EXECUTION_NANOS) {
+                System.out.println("警告: 方法 " + methodName + " 执行时间过长: " + executionTime / 1_000_000L + "ms");
             }
             
             return result;
         } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
-            recordExecution(methodName + "_ERROR", executionTime);
+            long executionTime = System.nanoTime() - startTime;
+            recordNanos(methodName + "_ERROR", executionTime);
             throw new RuntimeException("方法执行失败: " + methodName, e);
         }
     }
     
+    /**
+     * 一次操作的采样，记录开始时间和开始时线程已分配的内存
+     */
+    public static final class Sample {
+        private final String methodName;
+        private final long startBytes;
+        private final long startTime;
+        
+        private Sample(String methodName) {
+            this.methodName = methodName;
+            this.startBytes = currentThreadAllocatedBytes();
+            this.startTime = System.nanoTime();
+        }
+        
+        /**
+         * 结束采样并记录，需在开始采样的同一线程中调用
+         */
+        public void stop() {
+            recordNanos(methodName, System.nanoTime() - startTime);
+            if (startBytes >= 0) {
+                recordAllocation(methodName, currentThreadAllocatedBytes() - startBytes);
+            }
+        }
+    }
+    
     /**
      * 监控操作接口
      */
@@ -0,0 +1,34 @@
+package com.university.bookstore.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 业务服务调用的JFR事件，由 FlightRecording.trace 生成的代理提交
+ */
+@Name("com.university.bookstore.ServiceOperation")
+@Label("Service Operation")
+@Category({"Bookstore", "Service"})
+@Description("BookService/OrderService/UserService method call")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+    @Label("Operation")
+    @Description("Service interface and method, e.g. OrderService.createOrder")
+    public String operation;
+
+    @Label("Cache Hits")
+    @Description("CacheManager hits on this thread during the call")
+    public long cacheHits;
+
+    @Label("Cache Misses")
+    @Description("CacheManager misses on this thread during the call")
+    public long cacheMisses;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,215 @@
+package com.university.bookstore.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 慢查询日志
+ *
+ * 经 JdbcInstrumentation 代理的语句执行时间超过阈值时，记录SQL、绑定参数和耗时，
+ * 并在另一个连接上执行 EXPLAIN 附上执行计划，追加写入本地滚动日志文件。
+ * EXPLAIN 和写文件都在后台线程中完成，不阻塞业务线程；队列满时丢弃记录。
+ * 同一条（归一化后的）SQL每分钟最多 EXPLAIN 一次。
+ *
+ * 配置（系统属性）：
+ * bookstore.slowQuery.enabled      是否开启，默认 false
+ * bookstore.slowQuery.thresholdMs  阈值（毫秒），默认 200
+ * bookstore.slowQuery.file         日志文件，默认 logs/slow-query.log
+ */
+public class SlowQueryLog {
+
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_BACKUP_FILES = 5;
+    private static final long EXPLAIN_INTERVAL_MILLIS = 60_000;
+    private static final int MAX_PARAM_LENGTH = 200;
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(SELECT|INSERT|UPDATE|DELETE|REPLACE)\\b.*");
+
+    private static volatile boolean enabled = Boolean.getBoolean("bookstore.slowQuery.enabled");
+    private static volatile long thresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("bookstore.slowQuery.thresholdMs", 200));
+    private static final File logFile = new File(System.getProperty("bookstore.slowQuery.file", "logs/slow-query.log"));
+
+    // 归一化SQL -> 上次 EXPLAIN 的时间
+    private static final ConcurrentHashMap<String, Long> lastExplained = new ConcurrentHashMap<>();
+
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "SlowQueryLog");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private SlowQueryLog() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        SlowQueryLog.enabled = enabled;
+    }
+
+    public static long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public static void setThresholdMillis(long thresholdMillis) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * 语句执行完成后调用，超过阈值时异步记录
+     * @param sql 原始SQL
+     * @param parameters 绑定参数（参数序号 -> 值），可为null
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @param failed 执行是否抛出异常
+     */
+    static void onExecuted(String sql, Map<Integer, Object> parameters, long elapsedNanos, boolean failed) {
+        if (!enabled || elapsedNanos < thresholdNanos || sql == null) {
+            return;
+        }
+        Map<Integer, Object> captured = parameters != null ? new TreeMap<>(parameters) : new TreeMap<>();
+        long timestamp = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+        writer.execute(() -> write(sql, captured, elapsedNanos, failed, timestamp, thread));
+    }
+
+    private static void write(String sql, Map<Integer, Object> parameters, long elapsedNanos, boolean failed,
+                              long timestamp, String thread) {
+        StringBuilder entry = new StringBuilder();
+        entry.append("# Time: ").append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp)))
+             .append("  Thread: ").append(thread).append('\n');
+        entry.append(String.format("# Elapsed: %.3f ms%s%n", elapsedNanos / 1_000_000.0, failed ? "  (FAILED)" : ""));
+        entry.append("# Params: ").append(formatParameters(parameters)).append('\n');
+        String plan = explainIfDue(sql, parameters, timestamp);
+        if (plan != null) {
+            entry.append("# Explain:\n").append(plan);
+        }
+        entry.append(sql.trim()).append(";\n\n");
+
+        try {
+            rotateIfNeeded();
+            File parent = logFile.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("无法创建目录 " + parent);
+            }
+            try (Writer out = new OutputStreamWriter(Files.newOutputStream(logFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8)) {
+                out.write(entry.toString());
+            }
+        } catch (IOException e) {
+            System.err.println("写入慢查询日志失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在不带埋点的独立连接上执行 EXPLAIN，同一条SQL每分钟最多一次
+     * @return 格式化后的执行计划，未执行或失败时返回说明/null
+     */
+    private static String explainIfDue(String sql, Map<Integer, Object> parameters, long timestamp) {
+        if (!EXPLAINABLE.matcher(sql).matches()) {
+            return null;
+        }
+        String key = JdbcInstrumentation.normalize(sql);
+        Long last = lastExplained.get(key);
+        if (last != null && timestamp - last < EXPLAIN_INTERVAL_MILLIS) {
+            return null;
+        }
+        lastExplained.put(key, timestamp);
+
+        try (Connection connection = DBUtil.getUninstrumentedConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return formatResultSet(rs);
+            }
+        } catch (SQLException e) {
+            return "# (EXPLAIN 失败: " + e.getMessage() + ")\n";
+        }
+    }
+
+    private static String formatResultSet(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        StringBuilder plan = new StringBuilder("#   ");
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            plan.append(i > 1 ? " | " : "").append(meta.getColumnLabel(i));
+        }
+        plan.append('\n');
+        while (rs.next()) {
+            plan.append("#   ");
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                plan.append(i > 1 ? " | " : "").append(rs.getString(i));
+            }
+            plan.append('\n');
+        }
+        return plan.toString();
+    }
+
+    private static String formatParameters(Map<Integer, Object> parameters) {
+        if (parameters.isEmpty()) {
+            return "(none)";
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            text.append(parameter.getKey()).append('=');
+            Object value = parameter.getValue();
+            if (value == null) {
+                text.append("NULL");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                text.append(value);
+            } else {
+                String string = String.valueOf(value);
+                if (string.length() > MAX_PARAM_LENGTH) {
+                    string = string.substring(0, MAX_PARAM_LENGTH) + "...";
+                }
+                text.append('\'').append(string.replace("'", "''")).append('\'');
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * 文件超过上限时滚动：slow-query.log -> .1 -> .2 ...，最多保留 MAX_BACKUP_FILES 个
+     */
+    private static void rotateIfNeeded() throws IOException {
+        if (!logFile.exists() || logFile.length() < MAX_FILE_BYTES) {
+            return;
+        }
+        String base = logFile.getPath();
+        Files.deleteIfExists(new File(base + "." + MAX_BACKUP_FILES).toPath());
+        for (int i = MAX_BACKUP_FILES - 1; i >= 1; i--) {
+            File backup = new File(base + "." + i);
+            if (backup.exists() && !backup.renameTo(new File(base + "." + (i + 1)))) {
+                throw new IOException("无法滚动慢查询日志 " + backup);
+            }
+        }
+        if (!logFile.renameTo(new File(base + ".1"))) {
+            throw new IOException("无法滚动慢查询日志 " + logFile);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.university.bookstore.util;
+
+/**
+ * 单条（归一化后）SQL语句的执行统计快照
+ */
+public class SqlStatistics {
+
+    private final String sql;
+    private final long errorCount;
+    private final long rowCount;
+    private final LatencySnapshot latency;
+
+    public SqlStatistics(String sql, long errorCount, long rowCount, LatencySnapshot latency) {
+        this.sql = sql;
+        this.errorCount = errorCount;
+        this.rowCount = rowCount;
+        this.latency = latency;
+    }
+
+    /**
+     * 归一化后的SQL文本（字面量替换为 ?，空白合并）
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutionCount() {
+        return latency.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * 查询返回的行数与更新影响的行数之和
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getTotalNanos() {
+        return latency.getTotalNanos();
+    }
+
+    /**
+     * 执行耗时分布（不含遍历结果集的时间）
+     */
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,155 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.dao.BookDAO;
+import com.university.bookstore.model.Book;
+import com.university.bookstore.util.DBUtil;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * BookDAOImpl 测试（嵌入式H2）
+ * 覆盖批量扣减/增加库存、键集分页和增量查询
+ */
+public class BookDAOImplTest {
+
+    private final BookDAO bookDAO = new BookDAOImpl();
+
+    @BeforeClass
+    public static void checkProfile() {
+        H2TestData.assumeEmbedded();
+    }
+
+    private String tag;
+
+    @Before
+    public void setUp() {
+        tag = H2TestData.uniqueTag("教材测试");
+    }
+
+    @Test
+    public void reduceStockBatchDeductsAllWhenStockSufficient() throws Exception {
+        int first = H2TestData.insertBook(tag + "-1", 5);
+        int second = H2TestData.insertBook(tag + "-2", 1);
+
+        List<Integer> failed = bookDAO.reduceStockBatch(quantities(first, 2, second, 1));
+
+        assertTrue(failed.isEmpty());
+        assertEquals(3, H2TestData.stockOf(first));
+        assertEquals(0, H2TestData.stockOf(second));
+    }
+
+    @Test
+    public void reduceStockBatchRollsBackWhenAnyStockInsufficient() throws Exception {
+        int first = H2TestData.insertBook(tag + "-1", 5);
+        int second = H2TestData.insertBook(tag + "-2", 1);
+
+        List<Integer> failed = bookDAO.reduceStockBatch(quantities(first, 2, second, 3));
+
+        assertEquals(Collections.singletonList(second), failed);
+        // 整批回滚，库存充足的教材也不扣减
+        assertEquals(5, H2TestData.stockOf(first));
+        assertEquals(1, H2TestData.stockOf(second));
+    }
+
+    @Test
+    public void reduceStockBatchReportsMissingBook() throws Exception {
+        int book = H2TestData.insertBook(tag, 5);
+        int missing = H2TestData.missingId("t_book");
+
+        List<Integer> failed = bookDAO.reduceStockBatch(quantities(book, 1, missing, 1));
+
+        assertEquals(Collections.singletonList(missing), failed);
+        assertEquals(5, H2TestData.stockOf(book));
+    }
+
+    @Test
+    public void reduceStockBatchOnConnectionLeavesRollbackToCaller() throws Exception {
+        int first = H2TestData.insertBook(tag + "-1", 5);
+        int second = H2TestData.insertBook(tag + "-2", 1);
+
+        List<Integer> failed = DBUtil.executeInTransaction(conn ->
+                bookDAO.reduceStockBatch(conn, quantities(first, 2, second, 3)));
+
+        // 传入连接时不自行回滚，由调用方决定；这里调用方直接提交，库存充足的部分已扣减
+        assertEquals(Collections.singletonList(second), failed);
+        assertEquals(3, H2TestData.stockOf(first));
+        assertEquals(1, H2TestData.stockOf(second));
+    }
+
+    @Test
+    public void addStockBatchAddsAndReportsMissingBook() throws Exception {
+        int first = H2TestData.insertBook(tag + "-1", 5);
+        int second = H2TestData.insertBook(tag + "-2", 0);
+        int missing = H2TestData.missingId("t_book");
+
+        List<Integer> missingIds = DBUtil.executeInTransaction(conn ->
+                bookDAO.addStockBatch(conn, quantities(second, 4, missing, 1, first, 2)));
+
+        assertEquals(Collections.singletonList(missing), missingIds);
+        assertEquals(7, H2TestData.stockOf(first));
+        assertEquals(4, H2TestData.stockOf(second));
+    }
+
+    @Test
+    public void findPageAfterAndBeforeWalkKeywordMatchesById() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(H2TestData.insertBook(tag + "-" + i, 10));
+        }
+
+        assertEquals(ids.subList(0, 2), idsOf(bookDAO.findPageAfter(tag, null, 2)));
+        assertEquals(ids.subList(2, 4), idsOf(bookDAO.findPageAfter(tag, ids.get(1), 2)));
+        assertEquals(ids.subList(4, 5), idsOf(bookDAO.findPageAfter(tag, ids.get(3), 2)));
+        assertTrue(bookDAO.findPageAfter(tag, ids.get(4), 2).isEmpty());
+
+        // 上一页仍按ID升序返回
+        assertEquals(ids.subList(2, 4), idsOf(bookDAO.findPageBefore(tag, ids.get(4), 2)));
+        assertEquals(ids.subList(0, 1), idsOf(bookDAO.findPageBefore(tag, ids.get(1), 2)));
+        assertTrue(bookDAO.findPageBefore(tag, ids.get(0), 2).isEmpty());
+    }
+
+    @Test
+    public void findUpdatedSinceOrdersByUpdateTimeThenId() throws Exception {
+        int first = H2TestData.insertBook(tag + "-1", 1);
+        int second = H2TestData.insertBook(tag + "-2", 1);
+        int third = H2TestData.insertBook(tag + "-3", 1);
+        // 放到未来，与其他测试和初始数据的更新时间分开；first 和 second 在同一秒
+        Timestamp since = new Timestamp((System.currentTimeMillis() / 1000 + 86_400) * 1000);
+        Timestamp later = new Timestamp(since.getTime() + 1000);
+        H2TestData.setUpdateTime("t_book", third, since);
+        H2TestData.setUpdateTime("t_book", first, since);
+        H2TestData.setUpdateTime("t_book", second, later);
+
+        assertEquals(Arrays.asList(first, third, second), idsOf(bookDAO.findUpdatedSince(since, 0, 10)));
+        // 同一秒内跳过已读到的ID
+        assertEquals(Arrays.asList(third, second), idsOf(bookDAO.findUpdatedSince(since, first, 10)));
+        assertEquals(Collections.singletonList(second), idsOf(bookDAO.findUpdatedSince(since, third, 10)));
+        assertEquals(Arrays.asList(first, third), idsOf(bookDAO.findUpdatedSince(since, 0, 2)));
+
+        Book book = bookDAO.findUpdatedSince(later, 0, 10).get(0);
+        assertEquals(Integer.valueOf(second), book.getId());
+        assertEquals(later, book.getUpdateTime());
+    }
+
+    private static Map<Integer, Integer> quantities(int... idAndQuantity) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (int i = 0; i < idAndQuantity.length; i += 2) {
+            quantities.put(idAndQuantity[i], idAndQuantity[i + 1]);
+        }
+        return quantities;
+    }
+
+    private static List<Integer> idsOf(List<Book> books) {
+        List<Integer> ids = new ArrayList<>();
+        for (Book book : books) {
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,134 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.util.DBUtil;
+import org.junit.Assume;
+
+import java.sql.*;
+
+/**
+ * DAO测试数据工具
+ * 测试只在嵌入式H2数据源下运行（mvn -Ph2 test），不会改动MySQL中的数据。
+ * 同一次测试运行中各测试类共用一个内存库，每个测试自己插入带唯一标记的教材、学生和订单，
+ * 不依赖 h2-schema.sql 中的初始数据，也不受其他测试的影响。
+ */
+final class H2TestData {
+
+    private H2TestData() {
+    }
+
+    /**
+     * 非H2数据源时跳过测试
+     */
+    static void assumeEmbedded() {
+        Assume.assumeTrue("DAO测试需要 -Ph2（bookstore.db.profile=h2）", DBUtil.isEmbedded());
+    }
+
+    /**
+     * 生成本次测试唯一的标记，用作书名关键词或用户名
+     */
+    static String uniqueTag(String prefix) {
+        return prefix + "-" + System.nanoTime();
+    }
+
+    static int insertBook(String title, int stock) throws SQLException {
+        String sql = "INSERT INTO t_book (title, author, publisher, price, stock) VALUES (?, '测试作者', '测试出版社', 10.00, ?)";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, title);
+            stmt.setInt(2, stock);
+            stmt.executeUpdate();
+            return generatedId(stmt);
+        }
+    }
+
+    static int insertStudent(String username) throws SQLException {
+        String sql = "INSERT INTO t_user (username, password, role, name) VALUES (?, 'test123', 'STUDENT', ?)";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, username);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+            return generatedId(stmt);
+        }
+    }
+
+    static int insertOrder(int studentId, String status, Timestamp createTime) throws SQLException {
+        String sql = "INSERT INTO t_order (order_number, user_id, total_amount, status, create_time) VALUES (?, ?, 10.00, ?, ?)";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, uniqueTag("TEST"));
+            stmt.setInt(2, studentId);
+            stmt.setString(3, status);
+            stmt.setTimestamp(4, createTime);
+            stmt.executeUpdate();
+            return generatedId(stmt);
+        }
+    }
+
+    static void insertOrderItem(int orderId, int bookId, int quantity) throws SQLException {
+        String sql = "INSERT INTO t_order_item (order_id, book_id, quantity, price) VALUES (?, ?, ?, 10.00)";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, orderId);
+            stmt.setInt(2, bookId);
+            stmt.setInt(3, quantity);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 直接改写更新时间，构造同一秒内的多次变更
+     * @param table t_book 或 t_order
+     */
+    static void setUpdateTime(String table, int id, Timestamp updateTime) throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE " + table + " SET update_time = ? WHERE id = ?")) {
+            stmt.setTimestamp(1, updateTime);
+            stmt.setInt(2, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    static int stockOf(int bookId) throws SQLException {
+        return queryInt("SELECT stock FROM t_book WHERE id = ?", bookId);
+    }
+
+    static String statusOf(int orderId) throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT status FROM t_order WHERE id = ?")) {
+            stmt.setInt(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * 一个肯定不存在的ID
+     */
+    static int missingId(String table) throws SQLException {
+        return queryInt("SELECT COALESCE(MAX(id), 0) + 1000 FROM " + table + " WHERE id > ?", 0);
+    }
+
+    private static int queryInt(String sql, int param) throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, param);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("查询无结果: " + sql);
+                }
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int generatedId(Statement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("未返回自增ID");
+            }
+            return keys.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.university.bookstore.dao.impl;
+
+import com.university.bookstore.dao.OrderDAO;
+import com.university.bookstore.dao.OrderQuery;
+import com.university.bookstore.dao.TransitionResult;
+import com.university.bookstore.model.Order;
+import com.university.bookstore.util.DBUtil;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * OrderDAOImpl 测试（嵌入式H2）
+ * 覆盖订单状态迁移、批量迁移、键集分页和增量查询；每个测试使用新建的学生，按学生过滤与其他数据隔离
+ */
+public class OrderDAOImplTest {
+
+    // 只是多起始状态迁移的测试数据，不是 OrderServiceImpl 的可取消状态（PENDING、CONFIRMED）
+    private static final Set<Order.OrderStatus> PENDING_OR_PAID = EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PAID);
+
+    private final OrderDAO orderDAO = new OrderDAOImpl();
+
+    @BeforeClass
+    public static void checkProfile() {
+        H2TestData.assumeEmbedded();
+    }
+
+    private int studentId;
+    private Timestamp now;
+
+    @Before
+    public void setUp() throws Exception {
+        studentId = H2TestData.insertStudent(H2TestData.uniqueTag("student"));
+        now = new Timestamp(System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    @Test
+    public void transitionStatusAppliesOnlyFromAllowedStatus() throws Exception {
+        int orderId = H2TestData.insertOrder(studentId, "PENDING", now);
+
+        TransitionResult applied = orderDAO.transitionStatus(orderId, EnumSet.of(Order.OrderStatus.PENDING), Order.OrderStatus.PAID);
+        assertTrue(applied.isApplied());
+        assertEquals(Order.OrderStatus.PENDING, applied.getPreviousStatus());
+        assertEquals(Order.OrderStatus.PAID, applied.getCurrentStatus());
+        // 成功时不回读订单
+        assertNull(applied.getStudentId());
+        assertEquals("PAID", H2TestData.statusOf(orderId));
+
+        // 已不是PENDING，重复迁移被拒绝并返回当前状态
+        TransitionResult rejected = orderDAO.transitionStatus(orderId, EnumSet.of(Order.OrderStatus.PENDING), Order.OrderStatus.PAID);
+        assertFalse(rejected.isApplied());
+        assertFalse(rejected.isNotFound());
+        assertEquals(Order.OrderStatus.PAID, rejected.getCurrentStatus());
+        assertEquals(Integer.valueOf(studentId), rejected.getStudentId());
+        assertEquals("PAID", H2TestData.statusOf(orderId));
+    }
+
+    @Test
+    public void transitionStatusFromSeveralStatusesLeavesPreviousUnknown() throws Exception {
+        int orderId = H2TestData.insertOrder(studentId, "PAID", now);
+
+        TransitionResult result = orderDAO.transitionStatus(orderId,
+                EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PAID), Order.OrderStatus.CONFIRMED);
+
+        assertTrue(result.isApplied());
+        assertNull(result.getPreviousStatus());
+        assertEquals(Order.OrderStatus.CONFIRMED, result.getCurrentStatus());
+        assertEquals("CONFIRMED", H2TestData.statusOf(orderId));
+    }
+
+    @Test
+    public void transitionStatusOnConnectionLocksAndReportsPreviousStatus() throws Exception {
+        int orderId = H2TestData.insertOrder(studentId, "PAID", now);
+
+        TransitionResult result = DBUtil.executeInTransaction(conn -> orderDAO.transitionStatus(conn, orderId,
+                EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PAID), Order.OrderStatus.CONFIRMED));
+
+        assertTrue(result.isApplied());
+        assertEquals(Order.OrderStatus.PAID, result.getPreviousStatus());
+        assertEquals(Integer.valueOf(studentId), result.getStudentId());
+    }
+
+    @Test
+    public void transitionStatusReportsMissingOrder() throws Exception {
+        int missing = H2TestData.missingId("t_order");
+
+        TransitionResult result = orderDAO.transitionStatus(missing, PENDING_OR_PAID, Order.OrderStatus.CANCELLED);
+
+        assertTrue(result.isNotFound());
+        assertFalse(result.isApplied());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void transitionStatusRejectsTargetInFromSet() throws Exception {
+        int orderId = H2TestData.insertOrder(studentId, "PENDING", now);
+        orderDAO.transitionStatus(orderId, PENDING_OR_PAID, Order.OrderStatus.PAID);
+    }
+
+    @Test
+    public void transitionStatusBatchReportsEachOrder() throws Exception {
+        int pending = H2TestData.insertOrder(studentId, "PENDING", now);
+        int paid = H2TestData.insertOrder(studentId, "PAID", now);
+        int shipped = H2TestData.insertOrder(studentId, "SHIPPED", now);
+        int missing = H2TestData.missingId("t_order");
+        List<Integer> ids = Arrays.asList(shipped, missing, paid, pending);
+
+        Map<Integer, TransitionResult> results = DBUtil.executeInTransaction(conn ->
+                orderDAO.transitionStatusBatch(conn, ids, PENDING_OR_PAID, Order.OrderStatus.CANCELLED));
+
+        // 结果按传入顺序返回
+        assertEquals(ids, new ArrayList<>(results.keySet()));
+        assertTrue(results.get(pending).isApplied());
+        assertEquals(Order.OrderStatus.PENDING, results.get(pending).getPreviousStatus());
+        assertTrue(results.get(paid).isApplied());
+        assertEquals(Order.OrderStatus.PAID, results.get(paid).getPreviousStatus());
+        assertEquals(Integer.valueOf(studentId), results.get(paid).getStudentId());
+        assertFalse(results.get(shipped).isApplied());
+        assertEquals(Order.OrderStatus.SHIPPED, results.get(shipped).getCurrentStatus());
+        assertTrue(results.get(missing).isNotFound());
+
+        assertEquals("CANCELLED", H2TestData.statusOf(pending));
+        assertEquals("CANCELLED", H2TestData.statusOf(paid));
+        assertEquals("SHIPPED", H2TestData.statusOf(shipped));
+    }
+
+    @Test
+    public void sumItemQuantitiesByBookAddsUpAcrossOrders() throws Exception {
+        int firstBook = H2TestData.insertBook(H2TestData.uniqueTag("订单测试"), 10);
+        int secondBook = H2TestData.insertBook(H2TestData.uniqueTag("订单测试"), 10);
+        int firstOrder = H2TestData.insertOrder(studentId, "PENDING", now);
+        int secondOrder = H2TestData.insertOrder(studentId, "PENDING", now);
+        H2TestData.insertOrderItem(firstOrder, firstBook, 2);
+        H2TestData.insertOrderItem(firstOrder, secondBook, 1);
+        H2TestData.insertOrderItem(secondOrder, firstBook, 3);
+
+        Map<Integer, Integer> quantities = DBUtil.executeInTransaction(conn ->
+                orderDAO.sumItemQuantitiesByBook(conn, Arrays.asList(firstOrder, secondOrder)));
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(firstBook, 5);
+        expected.put(secondBook, 1);
+        assertEquals(expected, quantities);
+    }
+
+    @Test
+    public void findPageAfterAndBeforeWalkNewestFirst() throws Exception {
+        Timestamp earlier = new Timestamp(now.getTime() - 60_000);
+        int oldest = H2TestData.insertOrder(studentId, "PENDING", earlier);
+        // 两个订单创建时间相同，按ID倒序区分
+        int tiedLow = H2TestData.insertOrder(studentId, "PENDING", now);
+        int tiedHigh = H2TestData.insertOrder(studentId, "PAID", now);
+        int newest = H2TestData.insertOrder(studentId, "PENDING", new Timestamp(now.getTime() + 60_000));
+        OrderQuery query = new OrderQuery(null, studentId);
+
+        List<Order> first = orderDAO.findPageAfter(query, null, null, 2);
+        assertEquals(Arrays.asList(newest, tiedHigh), idsOf(first));
+        Order last = first.get(1);
+        List<Order> second = orderDAO.findPageAfter(query, last.getCreateTime(), last.getId(), 2);
+        assertEquals(Arrays.asList(tiedLow, oldest), idsOf(second));
+        assertTrue(orderDAO.findPageAfter(query, earlier, oldest, 2).isEmpty());
+
+        // 上一页仍按创建时间倒序返回
+        Order top = second.get(0);
+        assertEquals(Arrays.asList(newest, tiedHigh), idsOf(orderDAO.findPageBefore(query, top.getCreateTime(), top.getId(), 2)));
+        assertEquals(Collections.singletonList(tiedHigh), idsOf(orderDAO.findPageBefore(query, top.getCreateTime(), top.getId(), 1)));
+
+        // 状态条件与键集条件同时生效
+        OrderQuery pendingOnly = new OrderQuery(Order.OrderStatus.PENDING, studentId);
+        assertEquals(Arrays.asList(newest, tiedLow), idsOf(orderDAO.findPageAfter(pendingOnly, null, null, 2)));
+    }
+
+    @Test
+    public void findUpdatedSinceFiltersByStudentAndOrdersByUpdateTimeThenId() throws Exception {
+        int otherStudent = H2TestData.insertStudent(H2TestData.uniqueTag("student"));
+        int first = H2TestData.insertOrder(studentId, "PENDING", now);
+        int second = H2TestData.insertOrder(studentId, "PENDING", now);
+        int other = H2TestData.insertOrder(otherStudent, "PENDING", now);
+        Timestamp since = new Timestamp(now.getTime() + 86_400_000);
+        H2TestData.setUpdateTime("t_order", second, since);
+        H2TestData.setUpdateTime("t_order", first, since);
+        H2TestData.setUpdateTime("t_order", other, since);
+
+        assertEquals(Arrays.asList(first, second), idsOf(orderDAO.findUpdatedSince(studentId, since, 0, 10)));
+        assertEquals(Collections.singletonList(second), idsOf(orderDAO.findUpdatedSince(studentId, since, first, 10)));
+        assertEquals(Collections.singletonList(first), idsOf(orderDAO.findUpdatedSince(studentId, since, 0, 1)));
+        assertTrue(orderDAO.findUpdatedSince(studentId, since, second, 10).isEmpty());
+        // 不按学生过滤时包含其他学生的订单
+        assertTrue(idsOf(orderDAO.findUpdatedSince(null, since, 0, 100)).containsAll(Arrays.asList(first, second, other)));
+
+        // 订单再次变更后重新出现在水位之后
+        Timestamp watermark = orderDAO.getLatestUpdateTime(studentId);
+        assertEquals(since, watermark);
+        H2TestData.setUpdateTime("t_order", first, new Timestamp(since.getTime() + 1000));
+        assertEquals(Collections.singletonList(first), idsOf(orderDAO.findUpdatedSince(studentId, watermark, second, 10)));
+    }
+
+    private static List<Integer> idsOf(List<Order> orders) {
+        List<Integer> ids = new ArrayList<>();
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+}